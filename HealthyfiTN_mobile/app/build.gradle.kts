@@ -16,6 +16,14 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // ✅ URL de l'API Gateway (tunnel Cloudflare → port 8080), surchargeable : ./gradlew -PgatewayBaseUrl=https://.../
+        val gatewayBaseUrl = (project.findProperty("gatewayBaseUrl") as String?)?.trim()
+            ?: error("gatewayBaseUrl manquant (gradle.properties ou -PgatewayBaseUrl)")
+        require(Regex("https?://.+/").matches(gatewayBaseUrl)) {
+            "gatewayBaseUrl non configuré ($gatewayBaseUrl) : URL http(s) de la gateway avec \"/\" final attendue"
+        }
+        buildConfigField("String", "GATEWAY_BASE_URL", "\"$gatewayBaseUrl\"")
     }
 
     buildTypes {
@@ -40,6 +48,7 @@ android {
 
     buildFeatures {
         viewBinding = true
+        buildConfig = true
     }
 
     // ✅ AJOUT: Packaging options pour éviter conflits
@@ -1,6 +1,7 @@
 package com.health.virtualdoctor.ui.data.api
 
 import android.content.Context
+import com.health.virtualdoctor.BuildConfig
 import com.health.virtualdoctor.ui.data.api.WebRTCApiService
 import com.health.virtualdoctor.ui.data.models.ApiService
 import okhttp3.OkHttpClient
@@ -13,19 +14,27 @@ import retrofit2.Response
 import retrofit2.http.*
 object RetrofitClient {
 
-    // ✅ URLs des services via Cloudflare Tunnels
-    private const val AUTH_BASE_URL =
-        "https://picture-twenty-adipex-hiv.trycloudflare.com" // Port 8082
-    private const val DOCTOR_BASE_URL =
-        "https://teacher-recommendations-competitive-benefits.trycloudflare.com" // Port 8083
-    private const val NOTIFICATION_BASE_URL =
-        "https://normal-maintaining-antenna-his.trycloudflare.com" // Port 8084
-    private const val USER_BASE_URL =
-        "https://models-outreach-types-sofa.trycloudflare.com" // Port 8085
+    // ✅ Tous les services passent par l'API Gateway (tunnel Cloudflare → port 8080) :
+    // une seule connexion keep-alive HTTP/2 au lieu d'un tunnel + handshake TLS par service
+    // URL fixée au build (gatewayBaseUrl dans gradle.properties)
+    private const val GATEWAY_BASE_URL = BuildConfig.GATEWAY_BASE_URL
+    private const val AUTH_BASE_URL = GATEWAY_BASE_URL
+    private const val DOCTOR_BASE_URL = GATEWAY_BASE_URL
+    private const val NOTIFICATION_BASE_URL = GATEWAY_BASE_URL
+    private const val USER_BASE_URL = GATEWAY_BASE_URL
 
 
     // Votre configuration existante...
-    private const val DOCTOR_SERVICE_BASE_URL = "https://teacher-recommendations-competitive-benefits.trycloudflare.com"
+    private const val DOCTOR_SERVICE_BASE_URL = GATEWAY_BASE_URL
+
+    // ✅ Client HTTP partagé : même pool de connexions pour tous les services
+    private val baseHttpClient: OkHttpClient by lazy {
+        OkHttpClient.Builder()
+            .connectTimeout(30, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .writeTimeout(30, TimeUnit.SECONDS)
+            .build()
+    }
 
     // ✅ AJOUTEZ CETTE FONCTION
     fun getWebRTCService(context: Context): WebRTCApiService {
@@ -33,11 +42,8 @@ object RetrofitClient {
             level = HttpLoggingInterceptor.Level.BODY
         }
 
-        val client = OkHttpClient.Builder()
+        val client = baseHttpClient.newBuilder()
             .addInterceptor(logging)
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
             .build()
 
         val retrofit = Retrofit.Builder()
@@ -109,11 +115,8 @@ object RetrofitClient {
             level = HttpLoggingInterceptor.Level.BODY
         }
 
-        val client = OkHttpClient.Builder()
+        val client = baseHttpClient.newBuilder()
             .addInterceptor(logging)
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
             .build()
 
         // Use USER_BASE_URL for patient WebRTC calls
@@ -147,11 +150,9 @@ object RetrofitClient {
             level = HttpLoggingInterceptor.Level.BODY
         }
 
-        val clientBuilder = OkHttpClient.Builder()
+        // newBuilder() : interceptors propres à ce service, pool de connexions partagé
+        val clientBuilder = baseHttpClient.newBuilder()
             .addInterceptor(loggingInterceptor)
-            .connectTimeout(30, TimeUnit.SECONDS)
-            .readTimeout(30, TimeUnit.SECONDS)
-            .writeTimeout(30, TimeUnit.SECONDS)
 
         // Add auth interceptor only if needed
         if (includeAuthInterceptor) {
@@ -181,6 +182,7 @@ object RetrofitClient {
     fun getDoctorBaseUrl(): String = DOCTOR_BASE_URL
     fun getNotificationBaseUrl(): String = NOTIFICATION_BASE_URL
     fun getUserBaseUrl(): String = USER_BASE_URL
+    fun getGatewayBaseUrl(): String = GATEWAY_BASE_URL
 
 
     /**
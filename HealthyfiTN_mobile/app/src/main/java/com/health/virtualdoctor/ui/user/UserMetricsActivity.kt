@@ -33,9 +33,14 @@ import okhttp3.Request
 import okhttp3.RequestBody.Companion.toRequestBody
 import org.json.JSONArray
 import org.json.JSONObject
+import java.io.ByteArrayOutputStream
+import java.time.Instant
 import java.time.LocalDate
+import java.time.LocalDateTime
 import java.time.ZoneId
+import java.time.ZoneOffset
 import java.time.format.DateTimeFormatter
+import java.util.zip.GZIPOutputStream
 import kotlin.math.roundToInt
 import java.util.Locale
 
@@ -745,6 +750,8 @@ class UserMetricsActivity : ComponentActivity() {
                     daysData.put(dayJson)
                 }
 
+                // ✅ Identité stable : le serveur refuse un upload sans utilisateur (plus d'id aléatoire)
+                TokenManager(this@UserMetricsActivity).getUserId()?.let { json.put("userId", it) }
                 json.put("dailyData", daysData)
 
                 // Mettre à jour l'UI avec les données du jour
@@ -1229,13 +1236,81 @@ class UserMetricsActivity : ComponentActivity() {
         }
     }
 
+    /**
+     * Watermarks du serveur (GET /fetch/sync) : heure du plus récent enregistrement stocké par liste.
+     * null si indisponibles (réseau, premier envoi...) : tout est alors envoyé
+     */
+    private fun fetchWatermarks(client: OkHttpClient, accessToken: String): JSONObject? {
+        val userId = TokenManager(this).getUserId() ?: return null
+        return try {
+            val request = Request.Builder()
+                .url("${RetrofitClient.getGatewayBaseUrl()}fetch/sync/$userId")
+                .addHeader("Accept", "application/json")
+                .addHeader("Authorization", "Bearer $accessToken")
+                .build()
+            client.newCall(request).execute().use { response ->
+                val body = response.body?.string()
+                if (response.isSuccessful && body != null) JSONObject(body).optJSONObject("watermarks") else null
+            }
+        } catch (e: Exception) {
+            Log.w("HealthSync", "Watermarks indisponibles, envoi complet: ${e.message}")
+            null
+        }
+    }
+
+    /**
+     * Retire les enregistrements déjà stockés (heure <= watermark). Un jour allégé est marqué
+     * "partial" : ses agrégats restent ceux de la journée entière et remplacent ceux du serveur
+     */
+    private fun applyWatermarks(json: JSONObject, watermarks: JSONObject) {
+        val days = json.optJSONArray("dailyData") ?: return
+        for (i in 0 until days.length()) {
+            val day = days.getJSONObject(i)
+            var partial = false
+            for (metric in watermarks.keys()) {
+                val records = day.optJSONArray(metric) ?: continue
+                val watermark = Instant.parse(watermarks.getString(metric))
+                val kept = JSONArray()
+                for (j in 0 until records.length()) {
+                    val record = records.getJSONObject(j)
+                    val time = record.optString("endTime", record.optString("time"))
+                    if (time.isEmpty() || nominalUtc(time).isAfter(watermark)) {
+                        kept.put(record)
+                    } else {
+                        partial = true
+                    }
+                }
+                day.put(metric, kept)
+            }
+            if (partial) {
+                day.put("partial", true)
+            }
+        }
+    }
+
+    // Heure locale envoyée au serveur, lue comme UTC nominal (comme côté healthsync)
+    private fun nominalUtc(time: String): Instant =
+        LocalDateTime.parse(time, DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")).toInstant(ZoneOffset.UTC)
+
+    private fun gzip(jsonData: String): ByteArray {
+        val bytes = ByteArrayOutputStream()
+        GZIPOutputStream(bytes).use { it.write(jsonData.toByteArray(Charsets.UTF_8)) }
+        return bytes.toByteArray()
+    }
+
     private fun sendToServer(jsonData: String) {
+        // ✅ Token envoyé à la gateway : l'upload est rattaché à l'utilisateur connecté
+        val accessToken = TokenManager(this).getAccessToken()
+        if (accessToken == null) {
+            Toast.makeText(this, "❌ Connectez-vous pour synchroniser vos données", Toast.LENGTH_LONG).show()
+            return
+        }
         lifecycleScope.launch {
             try {
                 Toast.makeText(this@UserMetricsActivity, "🔄 Connexion au serveur...", Toast.LENGTH_SHORT).show()
 
                 val result = withContext(Dispatchers.IO) {
-                    val serverUrl = "https://pleuropneumonic-ferromagnetic-conrad.ngrok-free.dev/fetch"
+                    val serverUrl = "${RetrofitClient.getGatewayBaseUrl()}fetch"
 
                     withContext(Dispatchers.Main) {
                         Toast.makeText(this@UserMetricsActivity, "📡 POST vers: $serverUrl", Toast.LENGTH_SHORT).show()
@@ -1247,12 +1322,19 @@ class UserMetricsActivity : ComponentActivity() {
                         .readTimeout(30, java.util.concurrent.TimeUnit.SECONDS)
                         .build()
 
-                    val requestBody = jsonData.toRequestBody("application/json".toMediaType())
+                    // ✅ Envoi différentiel : seulement les enregistrements plus récents que les watermarks
+                    val payload = JSONObject(jsonData)
+                    fetchWatermarks(client, accessToken)?.let { applyWatermarks(payload, it) }
+
+                    // ✅ JSON compressé (gzip) : healthsync le décompresse (Content-Encoding)
+                    val requestBody = gzip(payload.toString()).toRequestBody("application/json".toMediaType())
                     val request = Request.Builder()
                         .url(serverUrl)
                         .post(requestBody)
                         .addHeader("Content-Type", "application/json")
+                        .addHeader("Content-Encoding", "gzip")
                         .addHeader("Accept", "application/json")
+                        .addHeader("Authorization", "Bearer $accessToken")
                         .build()
 
                     val response = client.newCall(request).execute()
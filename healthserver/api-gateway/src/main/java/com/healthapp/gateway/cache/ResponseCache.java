@@ -0,0 +1,69 @@
+package com.healthapp.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Réponses mises en cache par la gateway, bornées (LRU) et invalidables par tag.
+ * Une génération par invalidation : une réponse demandée avant l'invalidation n'est jamais enregistrée après.
+ */
+public class ResponseCache {
+
+    private final Map<String, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ResponseCache(int maxEntries) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Réponse en cache ; storedAt en System.nanoTime()
+     */
+    public record Entry(HttpStatusCode status, HttpHeaders headers, byte[] body, String etag,
+                        List<String> tags, long storedAt, AtomicBoolean revalidating) {
+    }
+
+    public Entry get(String key) {
+        return entries.get(key);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Enregistre la réponse sauf si une invalidation a eu lieu depuis la génération lue avant l'appel au service
+     */
+    public void put(String key, Entry entry, long expectedGeneration) {
+        synchronized (entries) {
+            if (generation.get() == expectedGeneration) {
+                entries.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Supprime les réponses portant ce tag ; tag null = tout le cache
+     * @return nombre de réponses supprimées
+     */
+    public int invalidate(String tag) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            int before = entries.size();
+            entries.values().removeIf(entry -> tag == null || entry.tags().contains(tag));
+            return before - entries.size();
+        }
+    }
+}
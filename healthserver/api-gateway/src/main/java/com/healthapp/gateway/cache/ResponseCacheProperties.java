@@ -0,0 +1,43 @@
+package com.healthapp.gateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache des réponses GET à la gateway : app.response-cache.*
+ * Seules les routes listées dans app.response-cache.routes sont mises en cache.
+ */
+@Data
+@ConfigurationProperties(prefix = "app.response-cache")
+public class ResponseCacheProperties {
+
+    private boolean enabled = true;
+
+    // Nombre max de réponses gardées (LRU)
+    private int maxEntries = 1_000;
+
+    // Réponses plus grosses : jamais mises en cache
+    private int maxBodyBytes = 1024 * 1024;
+
+    // Configuration par id de route (GatewayConfig)
+    private Map<String, Route> routes = new HashMap<>();
+
+    @Data
+    public static class Route {
+
+        // Durée pendant laquelle la réponse est servie sans appeler le service
+        private Duration ttl = Duration.ofSeconds(30);
+
+        // Après le TTL : réponse périmée encore servie pendant qu'un appel en arrière-plan la rafraîchit
+        private Duration staleWhileRevalidate = Duration.ZERO;
+
+        // Tags d'invalidation (ex: doctors), voir CacheInvalidationController
+        private List<String> tags = new ArrayList<>();
+    }
+}
@@ -1,25 +1,160 @@
 package com.healthapp.gateway.config;
 
+import com.healthapp.gateway.filter.JwtAuthenticationFilter;
+import com.healthapp.gateway.filter.RequestCoalescingFilter;
+import com.healthapp.gateway.filter.ResponseCacheFilter;
+import com.healthapp.gateway.ratelimit.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.factory.RetryGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.BooleanSpec;
+import org.springframework.cloud.gateway.route.builder.Buildable;
+import org.springframework.cloud.gateway.route.builder.PredicateSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
+
+/**
+ * Table de routage : tous les services derrière la gateway (une seule URL pour le mobile)
+ * ✅ Timeouts de connexion et de réponse par route
+ * ✅ GET rejoués avec backoff si le service est injoignable (502 / 503, connexion refusée)
+ * ✅ Pool de connexions Reactor Netty partagé par toutes les routes (spring.cloud.gateway.httpclient.pool)
+ * ✅ Token bucket par route et par utilisateur / IP (app.rate-limit, voir RateLimitConfig)
+ * ✅ GET identiques simultanés regroupés sur les listes de médecins (RequestCoalescingFilter)
+ * ✅ Réponses identiques pour tous mises en cache par route (app.response-cache, ResponseCacheFilter)
+ */
 @Configuration
 public class GatewayConfig {
-    
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(2);
+
+    // Avant le cache et le regroupement : leur clé et le rate limiting utilisent l'identité vérifiée
+    private static final int AUTHENTICATION_ORDER = ResponseCacheFilter.ORDER - 2;
+    private static final int RATE_LIMIT_ORDER = ResponseCacheFilter.ORDER - 1;
+
+    // healthsync (ingestion des données santé) n'est pas enregistré dans Eureka
+    @Value("${app.routes.healthsync-uri:http://localhost:9090}")
+    private String healthsyncUri;
+
+    private final RequestRateLimiterGatewayFilterFactory rateLimiterFactory;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final KeyResolver keyResolver;
+    private final ResponseCacheFilter responseCacheFilter;
+
+    public GatewayConfig(RequestRateLimiterGatewayFilterFactory rateLimiterFactory,
+                         TokenBucketRateLimiter rateLimiter, KeyResolver keyResolver,
+                         ResponseCacheFilter responseCacheFilter) {
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.rateLimiter = rateLimiter;
+        this.keyResolver = keyResolver;
+        this.responseCacheFilter = responseCacheFilter;
+    }
+
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder, JwtAuthenticationFilter jwtFilter) {
+        // JWT vérifié à la gateway, identité signée transmise aux services (X-Auth-Identity)
+        GatewayFilter authentication = jwtFilter.apply(new JwtAuthenticationFilter.Config());
+        // Services avec des endpoints publics : token vérifié s'il est présent, sinon le service décide
+        GatewayFilter optionalAuthentication = jwtFilter.apply(new JwtAuthenticationFilter.Config().setRequired(false));
+        // Liste des médecins (même réponse pour tous) : un seul appel au service par vague de requêtes
+        GatewayFilter coalescing = new RequestCoalescingFilter();
+
+        // Routes évaluées dans l'ordre : routes spécifiques (limites dédiées) avant les routes générales,
+        // /api/v1/admin/users avant /api/v1/admin
         return builder.routes()
-                .route("auth-service", r -> r
-                        .path("/api/v1/auth/**")
-                        .uri("lb://auth-service"))
-                .route("user-service", r -> r
-                        .path("/api/v1/user/**", "/api/v1/admin/**")
-                        .uri("lb://user-service"))
-                .route("doctor-service", r -> r
-                        .path("/api/v1/doctor/**")
-                        .uri("lb://auth-service"))
+                // Connexion / inscription : limite basse par IP contre le brute force
+                .route("auth-login", route("lb://auth-service", Duration.ofSeconds(10), authentication,
+                        "/api/v1/auth/login", "/api/v1/auth/register", "/api/v1/auth/refresh"))
+                .route("doctor-login", route("lb://doctor-activation-service", Duration.ofSeconds(15), optionalAuthentication,
+                        "/api/doctors/login", "/api/doctors/register"))
+                .route("doctor-directory", route("lb://doctor-activation-service", Duration.ofSeconds(15),
+                        optionalAuthentication, List.of(coalescing),
+                        "/api/doctors/available"))
+                .route("user-doctor-directory", route("lb://user-service", Duration.ofSeconds(10),
+                        optionalAuthentication, List.of(coalescing),
+                        "/api/v1/appointments/doctors"))
+                // Statistiques admin (mêmes chiffres pour tous les admins) : mises en cache
+                .route("admin-doctor-statistics", route("lb://doctor-activation-service", Duration.ofSeconds(15),
+                        optionalAuthentication, List.of(coalescing),
+                        "/api/admin/doctors/pending/count", "/api/admin/doctors/activated"))
+                .route("admin-user-statistics", route("lb://user-service", Duration.ofSeconds(10),
+                        optionalAuthentication, List.of(coalescing),
+                        "/api/v1/admin/users/statistics"))
+                .route("user-service", route("lb://user-service", Duration.ofSeconds(10), optionalAuthentication,
+                        "/api/v1/users/**", "/api/v1/appointments/**", "/api/v1/public/**",
+                        "/api/v1/user/**", "/api/v1/admin/users/**"))
+                .route("auth-service", route("lb://auth-service", Duration.ofSeconds(10), authentication,
+                        "/api/v1/auth/**", "/api/v1/admin/**"))
+                .route("doctor-service", route("lb://doctor-activation-service", Duration.ofSeconds(15), optionalAuthentication,
+                        "/api/doctors/**", "/api/admin/doctors/**", "/api/public/doctors/**", "/api/webrtc/**"))
+                .route("notification-service", route("lb://notification-service", Duration.ofSeconds(15), optionalAuthentication,
+                        "/api/notifications/**"))
+                .route("video-call-service", route("lb://video-call-service", Duration.ofSeconds(10), optionalAuthentication,
+                        "/api/calls/**", "/api/public/calls/**", "/api/alerts/**", "/ws-signaling/**"))
+                // Uploads volumineux (jusqu'à 90 jours de mesures) : réponse plus lente, token obligatoire
+                // pour que la limite dédiée s'applique à l'utilisateur vérifié (et non à l'IP, partagée par un NAT)
+                .route("healthsync-upload", route(healthsyncUri, Duration.ofSeconds(60), authentication, List.of(),
+                        r -> r.method(HttpMethod.POST).and().path("/fetch", "/fetch/stream", "/fetch/async")))
+                // Lectures (watermarks, séries, rollups...) : limite séparée, plus large
+                .route("healthsync", route(healthsyncUri, Duration.ofSeconds(60), optionalAuthentication,
+                        "/fetch/**"))
                 .build();
     }
-}
\ No newline at end of file
+
+    private Function<PredicateSpec, Buildable<Route>> route(String uri, Duration responseTimeout,
+                                                            GatewayFilter authentication, String... paths) {
+        return route(uri, responseTimeout, authentication, List.of(), paths);
+    }
+
+    /**
+     * Filtres dans l'ordre : authentification (X-User-Id), rate limiting, cache, filtres propres à la route, retry
+     */
+    private Function<PredicateSpec, Buildable<Route>> route(String uri, Duration responseTimeout, GatewayFilter authentication,
+                                                            List<GatewayFilter> routeFilters, String... paths) {
+        return route(uri, responseTimeout, authentication, routeFilters, r -> r.path(paths));
+    }
+
+    private Function<PredicateSpec, Buildable<Route>> route(String uri, Duration responseTimeout, GatewayFilter authentication,
+                                                            List<GatewayFilter> routeFilters,
+                                                            Function<PredicateSpec, BooleanSpec> predicate) {
+        return r -> predicate.apply(r)
+                .filters(f -> {
+                    f.filter(authentication, AUTHENTICATION_ORDER)
+                            .filter(rateLimiterFactory.apply(limiter -> limiter
+                                    .setRateLimiter(rateLimiter)
+                                    .setKeyResolver(keyResolver)), RATE_LIMIT_ORDER)
+                            .filter(responseCacheFilter);
+                    routeFilters.forEach(f::filter);
+                    return f.retry(this::idempotentRetry);
+                })
+                .metadata(CONNECT_TIMEOUT_ATTR, (int) CONNECT_TIMEOUT.toMillis())
+                .metadata(RESPONSE_TIMEOUT_ATTR, responseTimeout.toMillis())
+                .uri(uri);
+    }
+
+    /**
+     * GET uniquement ; pas de rejeu sur timeout (le service est lent, rejouer multiplierait sa charge)
+     */
+    private void idempotentRetry(RetryGatewayFilterFactory.RetryConfig retry) {
+        retry.setRetries(2)
+                .setMethods(HttpMethod.GET)
+                .setSeries()
+                .setStatuses(HttpStatus.BAD_GATEWAY, HttpStatus.SERVICE_UNAVAILABLE)
+                .setExceptions(IOException.class)
+                .setBackoff(Duration.ofMillis(50), Duration.ofMillis(500), 2, true);
+    }
+}
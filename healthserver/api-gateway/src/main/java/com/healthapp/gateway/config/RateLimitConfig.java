@@ -0,0 +1,50 @@
+package com.healthapp.gateway.config;
+
+import com.healthapp.gateway.ratelimit.InMemoryTokenBucketStore;
+import com.healthapp.gateway.ratelimit.RateLimitProperties;
+import com.healthapp.gateway.ratelimit.RedisTokenBucketStore;
+import com.healthapp.gateway.ratelimit.TokenBucketRateLimiter;
+import com.healthapp.gateway.ratelimit.TokenBucketStore;
+import com.healthapp.gateway.ratelimit.UserOrIpKeyResolver;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+
+/**
+ * Rate limiting de la gateway (filtre RequestRateLimiter de chaque route, voir GatewayConfig)
+ * ✅ app.rate-limit.store=memory : buckets locaux (une instance)
+ * ✅ app.rate-limit.store=redis : buckets partagés entre instances (spring.data.redis.*)
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "redis")
+    public TokenBucketStore redisTokenBucketStore(ReactiveStringRedisTemplate redisTemplate) {
+        return new RedisTokenBucketStore(redisTemplate);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(TokenBucketStore.class)
+    public TokenBucketStore inMemoryTokenBucketStore(RateLimitProperties properties) {
+        return new InMemoryTokenBucketStore(properties.getMaxKeys());
+    }
+
+    @Bean
+    @Primary
+    public TokenBucketRateLimiter tokenBucketRateLimiter(RateLimitProperties properties, TokenBucketStore store) {
+        return new TokenBucketRateLimiter(properties, store);
+    }
+
+    @Bean
+    @Primary
+    public KeyResolver userOrIpKeyResolver(RateLimitProperties properties) {
+        return new UserOrIpKeyResolver(properties.getTrustedProxies());
+    }
+}
@@ -0,0 +1,26 @@
+package com.healthapp.gateway.config;
+
+import com.healthapp.gateway.cache.ResponseCache;
+import com.healthapp.gateway.cache.ResponseCacheProperties;
+import com.healthapp.gateway.filter.ResponseCacheFilter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Cache des réponses à la gateway (filtre ajouté à chaque route, actif pour les routes de app.response-cache.routes)
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCache responseCache(ResponseCacheProperties properties) {
+        return new ResponseCache(properties.getMaxEntries());
+    }
+
+    @Bean
+    public ResponseCacheFilter responseCacheFilter(ResponseCache responseCache, ResponseCacheProperties properties) {
+        return new ResponseCacheFilter(responseCache, properties);
+    }
+}
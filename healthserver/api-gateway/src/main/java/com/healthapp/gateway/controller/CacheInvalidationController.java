@@ -0,0 +1,60 @@
+package com.healthapp.gateway.controller;
+
+import com.healthapp.gateway.cache.ResponseCache;
+import com.healthapp.shared.util.IdentityEnvelope;
+import com.healthapp.shared.util.VerifiedToken;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Événements d'invalidation publiés par les services (ex: médecin activé → tag doctors)
+ * Appel authentifié par une enveloppe X-Auth-Identity de rôle SERVICE signée avec app.identity.secret
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/cache")
+@RequiredArgsConstructor
+public class CacheInvalidationController {
+
+    private final ResponseCache responseCache;
+
+    @Value("${app.identity.secret}")
+    private String identitySecret;
+
+    private IdentityEnvelope identityEnvelope;
+
+    @PostConstruct
+    void init() {
+        identityEnvelope = new IdentityEnvelope(identitySecret);
+    }
+
+    @PostMapping("/invalidate")
+    public ResponseEntity<Map<String, Object>> invalidate(
+            @RequestHeader(value = IdentityEnvelope.HEADER, required = false) String envelope,
+            @RequestParam(required = false) String tag) {
+        VerifiedToken caller;
+        try {
+            caller = identityEnvelope.verify(envelope);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", e.getMessage()));
+        }
+        if (!caller.getRoles().contains(IdentityEnvelope.SERVICE_ROLE)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Service identity required"));
+        }
+
+        int invalidated = responseCache.invalidate(tag);
+        log.info("🧹 Cache invalidé par {} (tag={}): {} réponse(s)", caller.getUserId(), tag, invalidated);
+        return ResponseEntity.ok(Map.of("tag", tag != null ? tag : "*", "invalidated", invalidated));
+    }
+}
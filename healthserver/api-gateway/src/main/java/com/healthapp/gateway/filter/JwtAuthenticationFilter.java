@@ -1,8 +1,10 @@
 package com.healthapp.gateway.filter;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.healthapp.shared.util.IdentityEnvelope;
+import com.healthapp.shared.util.JwtVerifier;
+import com.healthapp.shared.util.VerifiedToken;
+import com.healthapp.shared.util.VerifiedTokenCache;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -13,7 +15,6 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
 //import org.springframework.web.server.ServerWebExchange;
 
-import javax.crypto.SecretKey;
 import java.util.List;
 
 @Component
@@ -23,32 +24,74 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
     @Value("${app.jwt.secret}")
     private String jwtSecret;
     
+    // Tokens déjà vérifiés gardés jusqu'à leur expiration (0 = pas de cache)
+    @Value("${app.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // JWKS d'auth-service (tokens RS256 / EdDSA) ; vide = HMAC seul
+    @Value("${app.jwt.jwks-uri:}")
+    private String jwksUri;
+
+    // Tokens HS* signés avec app.jwt.secret (mode historique, tokens médecins)
+    @Value("${app.jwt.hmac.enabled:true}")
+    private boolean hmacEnabled;
+    
+    // Secret partagé avec les services pour signer l'identité transmise (X-Auth-Identity)
+    @Value("${app.identity.secret}")
+    private String identitySecret;
+    
+    // Durée de validité max de l'enveloppe d'identité (secondes)
+    @Value("${app.identity.max-age:60}")
+    private long identityMaxAge;
+    
+    // Clé + parser construits une seule fois (et non à chaque requête)
+    private JwtVerifier jwtVerifier;
+    private IdentityEnvelope identityEnvelope;
+    
     public JwtAuthenticationFilter() {
         super(Config.class);
     }
     
+    @PostConstruct
+    void init() {
+        // Non bloquant : verify() tourne sur l'event loop, la JWKS est rafraîchie en arrière-plan
+        jwtVerifier = JwtVerifier.create(jwtSecret, hmacEnabled, jwksUri,
+                cacheMaxEntries > 0 ? new VerifiedTokenCache(cacheMaxEntries) : null, true);
+        identityEnvelope = new IdentityEnvelope(identitySecret);
+    }
+    
     @Override
     public GatewayFilter apply(Config config) {
         return (exchange, chain) -> {
-            ServerHttpRequest request = exchange.getRequest();
+            // En-têtes d'identité envoyés par le client : jamais transmis (usurpation)
+            ServerHttpRequest request = exchange.getRequest().mutate()
+                    .headers(headers -> IdentityEnvelope.IDENTITY_HEADERS.forEach(headers::remove))
+                    .build();
             
             // Skip JWT validation for auth endpoints
             if (isAuthEndpoint(request.getURI().getPath())) {
-                return chain.filter(exchange);
+                return chain.filter(exchange.mutate().request(request).build());
             }
             
             // Extract JWT token
             String token = extractToken(request);
             if (token == null) {
+                if (!config.isRequired()) {
+                    // Le service applique ses propres règles (endpoints publics)
+                    return chain.filter(exchange.mutate().request(request).build());
+                }
                 exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
                 return exchange.getResponse().setComplete();
             }
             
             try {
-                Claims claims = validateToken(token);
+                // JWT vérifié ici une seule fois : les services ne vérifient que l'enveloppe signée
+                VerifiedToken verified = jwtVerifier.verify(token);
                 ServerHttpRequest modifiedRequest = request.mutate()
-                        .header("X-User-Id", claims.get("user_id", String.class))
-                        .header("X-User-Email", claims.get("email", String.class))
+                        .header(IdentityEnvelope.HEADER, identityEnvelope.sign(verified, identityMaxAge))
+                        .header("X-User-Id", verified.getUserId())
+                        .header("X-User-Email", verified.getEmail())
+                        .header("X-User-Roles", String.join(",", verified.getRoles()))
                         .build();
                 
                 return chain.filter(exchange.mutate().request(modifiedRequest).build());
@@ -64,7 +107,9 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
         List<String> publicPaths = List.of(
             "/api/v1/auth/register",
             "/api/v1/auth/login",
-            "/api/v1/auth/refresh"
+            "/api/v1/auth/refresh",
+            "/api/v1/auth/logout",
+            "/api/v1/auth/.well-known"
         );
         return publicPaths.stream().anyMatch(path::startsWith);
     }
@@ -77,16 +122,18 @@ public class JwtAuthenticationFilter extends AbstractGatewayFilterFactory<JwtAut
         return null;
     }
     
-    private Claims validateToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-    
     public static class Config {
-        // Configuration properties if needed
+        
+        // false : requête sans token transmise sans identité (endpoints publics du service)
+        private boolean required = true;
+        
+        public boolean isRequired() {
+            return required;
+        }
+        
+        public Config setRequired(boolean required) {
+            this.required = required;
+            return this;
+        }
     }
 }
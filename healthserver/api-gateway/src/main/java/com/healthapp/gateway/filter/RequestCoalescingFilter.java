@@ -0,0 +1,119 @@
+package com.healthapp.gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Regroupe les GET identiques simultanés en un seul appel au service (ex: liste des médecins
+ * ouverte par beaucoup de patients en même temps). Le premier appel part vers le service, les suivants
+ * attendent sa réponse et en reçoivent une copie. Rien n'est gardé après la réponse (ce n'est pas un cache).
+ *
+ * Réservé aux routes dont la réponse ne dépend pas de l'utilisateur : la clé contient l'URL, Accept et les
+ * rôles vérifiés par la gateway (un anonyme ne reçoit jamais la réponse d'un utilisateur connecté).
+ * Exécuté juste avant NettyWriteResponseFilter (qui écrit le body) : l'authentification doit passer avant.
+ */
+public class RequestCoalescingFilter implements GatewayFilter, Ordered {
+
+    public static final int ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+    // En-têtes propres à la connexion, non recopiés vers les requêtes regroupées
+    private static final List<String> HOP_BY_HOP = List.of(
+            HttpHeaders.CONNECTION, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONTENT_LENGTH, "Keep-Alive");
+
+    private final Map<String, Sinks.One<CoalescedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    private record CoalescedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String key = requestKey(request);
+        Sinks.One<CoalescedResponse> sink = Sinks.one();
+        Sinks.One<CoalescedResponse> leader = inFlight.putIfAbsent(key, sink);
+        if (leader != null) {
+            // Même requête déjà en cours : on attend sa réponse ; en cas d'échec, appel normal
+            return leader.asMono()
+                    .flatMap(response -> write(exchange.getResponse(), response))
+                    .onErrorResume(e -> chain.filter(exchange));
+        }
+
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    complete(key, sink, new CoalescedResponse(getStatusCode(), HttpHeaders.readOnlyHttpHeaders(getHeaders()), bytes));
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .doFinally(signal -> {
+                    // Pas de body écrit (erreur, annulation) : les requêtes en attente refont leur appel
+                    if (inFlight.remove(key, sink)) {
+                        sink.tryEmitError(new IllegalStateException("Upstream response not captured"));
+                    }
+                });
+    }
+
+    private void complete(String key, Sinks.One<CoalescedResponse> sink, CoalescedResponse response) {
+        inFlight.remove(key, sink);
+        sink.tryEmitValue(response);
+    }
+
+    private Mono<Void> write(ServerHttpResponse response, CoalescedResponse coalesced) {
+        response.setStatusCode(coalesced.status());
+        coalesced.headers().forEach((name, values) -> {
+            if (HOP_BY_HOP.stream().noneMatch(name::equalsIgnoreCase)) {
+                response.getHeaders().put(name, values);
+            }
+        });
+        response.getHeaders().setContentLength(coalesced.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(coalesced.body())));
+    }
+
+    /**
+     * Requêtes qui reçoivent la même réponse : URL, Accept, Accept-Encoding et rôles vérifiés
+     */
+    static String requestKey(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+        String roles = headers.getFirst("X-User-Roles");
+        return request.getURI().getRawPath() + '?' + request.getURI().getRawQuery()
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT)
+                + '|' + headers.getFirst(HttpHeaders.ACCEPT_ENCODING)
+                + '|' + (roles != null ? roles : "anonymous");
+    }
+}
@@ -0,0 +1,260 @@
+package com.healthapp.gateway.filter;
+
+import com.healthapp.gateway.cache.ResponseCache;
+import com.healthapp.gateway.cache.ResponseCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.AbstractServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Cache des réponses GET identiques pour tous les appelants (liste des médecins, statistiques admin)
+ * ✅ TTL par route (app.response-cache.routes) : le service et MongoDB ne sont appelés qu'une fois par TTL
+ * ✅ ETag + If-None-Match : 304 sans body quand le client a déjà la réponse
+ * ✅ stale-while-revalidate : la réponse périmée est servie tout de suite, un seul appel la rafraîchit en arrière-plan
+ * ✅ Invalidation par tag (ex: doctors) quand un service publie un changement, voir CacheInvalidationController
+ *
+ * Même clé que RequestCoalescingFilter (rôles vérifiés inclus) : exécuté après l'authentification,
+ * avant NettyWriteResponseFilter.
+ */
+@Slf4j
+public class ResponseCacheFilter implements GatewayFilter, Ordered {
+
+    public static final int ORDER = RequestCoalescingFilter.ORDER - 1;
+
+    public static final String CACHE_HEADER = "X-Cache";
+
+    // Le client garde la réponse mais la revalide à chaque fois (304 si l'ETag n'a pas changé)
+    private static final String CLIENT_CACHE_CONTROL = "private, no-cache";
+
+    // En-têtes du service gardés avec le body (les autres sont propres à chaque réponse)
+    private static final List<String> STORED_HEADERS = List.of(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_LANGUAGE);
+
+    private final ResponseCache cache;
+    private final ResponseCacheProperties properties;
+
+    public ResponseCacheFilter(ResponseCache cache, ResponseCacheProperties properties) {
+        this.cache = cache;
+        this.properties = properties;
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        ResponseCacheProperties.Route config = route == null ? null : properties.getRoutes().get(route.getId());
+        if (!properties.isEnabled() || config == null || exchange.getRequest().getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestCoalescingFilter.requestKey(exchange.getRequest());
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            long age = System.nanoTime() - entry.storedAt();
+            if (age < config.getTtl().toNanos()) {
+                return serve(exchange, entry, "HIT");
+            }
+            if (age < config.getTtl().plus(config.getStaleWhileRevalidate()).toNanos()) {
+                if (entry.revalidating().compareAndSet(false, true)) {
+                    revalidate(exchange, chain, key, config, entry);
+                }
+                return serve(exchange, entry, "STALE");
+            }
+        }
+
+        long generation = cache.generation();
+        ServerHttpResponse original = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(original) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    ResponseCache.Entry stored = store(key, config, generation, getStatusCode(), getHeaders(), bytes);
+                    if (stored == null) {
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    }
+                    getHeaders().setETag(stored.etag());
+                    getHeaders().setCacheControl(CLIENT_CACHE_CONTROL);
+                    getHeaders().remove(HttpHeaders.PRAGMA);
+                    getHeaders().remove(HttpHeaders.EXPIRES);
+                    getHeaders().set(CACHE_HEADER, "MISS");
+                    if (notModified(exchange.getRequest(), stored.etag())) {
+                        setStatusCode(HttpStatus.NOT_MODIFIED);
+                        getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                        return setComplete();
+                    }
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, ResponseCache.Entry entry, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(entry.etag());
+        headers.setCacheControl(CLIENT_CACHE_CONTROL);
+        headers.set(CACHE_HEADER, cacheStatus);
+        headers.set(HttpHeaders.AGE, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - entry.storedAt())));
+
+        if (notModified(exchange.getRequest(), entry.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        response.setStatusCode(entry.status());
+        entry.headers().forEach(headers::put);
+        headers.setContentLength(entry.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+    }
+
+    /**
+     * Rafraîchit l'entrée en rejouant la requête dans la chaîne, sans lien avec la réponse déjà servie au client
+     */
+    private void revalidate(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                            ResponseCacheProperties.Route config, ResponseCache.Entry stale) {
+        long generation = cache.generation();
+        ServerHttpRequest request = new ServerHttpRequestDecorator(exchange.getRequest().mutate()
+                .headers(headers -> headers.remove(HttpHeaders.IF_NONE_MATCH))
+                .build()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.empty();
+            }
+        };
+        RevalidationResponse response = new RevalidationResponse(exchange.getResponse().bufferFactory(),
+                (status, headers, body) -> store(key, config, generation, status, headers, body));
+
+        chain.filter(exchange.mutate().request(request).response(response).build())
+                .doFinally(signal -> stale.revalidating().set(false))
+                .subscribe(null, e -> log.warn("⚠️ Rafraîchissement du cache impossible pour {}: {}",
+                        exchange.getRequest().getPath(), e.getMessage()));
+    }
+
+    /**
+     * Garde les réponses 200 sans cookie et de taille raisonnable ; null si la réponse n'est pas mise en cache
+     */
+    private ResponseCache.Entry store(String key, ResponseCacheProperties.Route config, long generation,
+                                      HttpStatusCode status, HttpHeaders headers, byte[] body) {
+        if (status == null || status.value() != HttpStatus.OK.value()
+                || headers.containsKey(HttpHeaders.SET_COOKIE) || body.length > properties.getMaxBodyBytes()) {
+            return null;
+        }
+        HttpHeaders stored = new HttpHeaders();
+        STORED_HEADERS.forEach(name -> {
+            List<String> values = headers.get(name);
+            if (values != null) {
+                stored.put(name, values);
+            }
+        });
+        ResponseCache.Entry entry = new ResponseCache.Entry(status, HttpHeaders.readOnlyHttpHeaders(stored), body,
+                etag(body), List.copyOf(config.getTags()), System.nanoTime(), new AtomicBoolean());
+        cache.put(key, entry, generation);
+        return entry;
+    }
+
+    private static boolean notModified(ServerHttpRequest request, String etag) {
+        for (String candidate : request.getHeaders().getIfNoneMatch()) {
+            String value = candidate.startsWith("W/") ? candidate.substring(2) : candidate;
+            if ("*".equals(value) || etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ResponseSink {
+        void accept(HttpStatusCode status, HttpHeaders headers, byte[] body);
+    }
+
+    /**
+     * Réponse sans connexion : reçoit la réponse du service pour le cache, rien n'est envoyé au client
+     */
+    private static final class RevalidationResponse extends AbstractServerHttpResponse {
+
+        private final ResponseSink sink;
+
+        RevalidationResponse(DataBufferFactory bufferFactory, ResponseSink sink) {
+            super(bufferFactory);
+            this.sink = sink;
+        }
+
+        @Override
+        public <T> T getNativeResponse() {
+            throw new UnsupportedOperationException("No native response for a cache revalidation");
+        }
+
+        @Override
+        protected Mono<Void> writeWithInternal(Publisher<? extends DataBuffer> body) {
+            return DataBufferUtils.join(Flux.from(body))
+                    .doOnNext(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        sink.accept(getStatusCode(), getHeaders(), bytes);
+                    })
+                    .then();
+        }
+
+        @Override
+        protected Mono<Void> writeAndFlushWithInternal(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+            return writeWithInternal(Flux.from(body).flatMap(Flux::from));
+        }
+
+        @Override
+        protected void applyStatusCode() {
+        }
+
+        @Override
+        protected void applyHeaders() {
+        }
+
+        @Override
+        protected void applyCookies() {
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.healthapp.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Buckets en mémoire, bornés (LRU) : les clés inactives sortent en premier.
+ * Une instance de gateway ; avec plusieurs instances, chacune applique la limite (voir RedisTokenBucketStore).
+ */
+public class InMemoryTokenBucketStore implements TokenBucketStore {
+
+    private final Map<String, Bucket> buckets;
+
+    public InMemoryTokenBucketStore(int maxKeys) {
+        this.buckets = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                return size() > maxKeys;
+            }
+        });
+    }
+
+    @Override
+    public Mono<Consumption> tryConsume(String key, double replenishRate, int burstCapacity, int requested) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(burstCapacity));
+        return Mono.just(bucket.tryConsume(replenishRate, burstCapacity, requested));
+    }
+
+    private static final class Bucket {
+
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        Bucket(int burstCapacity) {
+            this.tokens = burstCapacity;
+        }
+
+        synchronized Consumption tryConsume(double replenishRate, int burstCapacity, int requested) {
+            long now = System.nanoTime();
+            tokens = Math.min(burstCapacity, tokens + (now - refilledAt) / 1e9 * replenishRate);
+            refilledAt = now;
+            boolean allowed = tokens >= requested;
+            if (allowed) {
+                tokens -= requested;
+            }
+            return new Consumption(allowed, (long) tokens);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.healthapp.gateway.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Limites de débit (token bucket) : app.rate-limit.*
+ */
+@Data
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // memory (une instance) ou redis (compteurs partagés entre instances de la gateway)
+    private String store = "memory";
+
+    // Proxies de confiance devant la gateway (tunnel, load balancer) : IP client lue dans X-Forwarded-For
+    private int trustedProxies = 1;
+
+    // Nombre max de buckets gardés en mémoire (store memory)
+    private int maxKeys = 100_000;
+
+    // Limite des routes non listées
+    private Limit defaults = new Limit();
+
+    // Limite par id de route (GatewayConfig)
+    private Map<String, Limit> routes = new HashMap<>();
+
+    @Data
+    public static class Limit {
+
+        // Jetons ajoutés par seconde (débit soutenu)
+        private double replenishRate = 20;
+
+        // Taille du bucket (rafale max)
+        private int burstCapacity = 50;
+    }
+
+    public Limit limitFor(String routeId) {
+        return routes.getOrDefault(routeId, defaults);
+    }
+}
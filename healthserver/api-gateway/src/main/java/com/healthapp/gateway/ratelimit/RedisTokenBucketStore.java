@@ -0,0 +1,51 @@
+package com.healthapp.gateway.ratelimit;
+
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Buckets partagés entre les instances de la gateway : un script Lua atomique par requête.
+ * Horloge de Redis (TIME) : pas de dérive entre instances.
+ */
+public class RedisTokenBucketStore implements TokenBucketStore {
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SCRIPT = RedisScript.of("""
+            local key = KEYS[1]
+            local rate = tonumber(ARGV[1])
+            local capacity = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) + tonumber(time[2]) / 1000000
+            local bucket = redis.call('HMGET', key, 'tokens', 'ts')
+            local tokens = tonumber(bucket[1]) or capacity
+            local ts = tonumber(bucket[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate)
+            local allowed = 0
+            if tokens >= requested then
+                tokens = tokens - requested
+                allowed = 1
+            end
+            redis.call('HSET', key, 'tokens', tostring(tokens), 'ts', tostring(now))
+            redis.call('PEXPIRE', key, math.ceil(capacity / rate * 1000) + 1000)
+            return {allowed, math.floor(tokens)}
+            """, List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    public RedisTokenBucketStore(ReactiveStringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public Mono<Consumption> tryConsume(String key, double replenishRate, int burstCapacity, int requested) {
+        return redisTemplate.execute(SCRIPT, List.of("rate_limit:{" + key + "}"),
+                        List.of(String.valueOf(replenishRate), String.valueOf(burstCapacity), String.valueOf(requested)))
+                .next()
+                .map(result -> new Consumption(((Number) result.get(0)).longValue() == 1,
+                        ((Number) result.get(1)).longValue()));
+    }
+}
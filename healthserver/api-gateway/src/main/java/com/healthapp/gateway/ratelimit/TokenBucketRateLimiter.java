@@ -0,0 +1,71 @@
+package com.healthapp.gateway.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * RateLimiter de la gateway (filtre RequestRateLimiter) : un token bucket par route et par clé (utilisateur ou IP)
+ * ✅ Limites par route dans app.rate-limit.routes (sinon app.rate-limit.defaults)
+ * ✅ Store indisponible (Redis) : la requête passe, la gateway ne doit pas tomber avec lui
+ */
+@Slf4j
+public class TokenBucketRateLimiter implements RateLimiter<RateLimitProperties.Limit> {
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    private final RateLimitProperties properties;
+    private final TokenBucketStore store;
+
+    public TokenBucketRateLimiter(RateLimitProperties properties, TokenBucketStore store) {
+        this.properties = properties;
+        this.store = store;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        if (!properties.isEnabled()) {
+            return Mono.just(new Response(true, Map.of()));
+        }
+        RateLimitProperties.Limit limit = properties.limitFor(routeId);
+        return store.tryConsume(routeId + ':' + id, limit.getReplenishRate(), limit.getBurstCapacity(), 1)
+                .map(consumption -> new Response(consumption.allowed(), headers(limit, consumption)))
+                .onErrorResume(e -> {
+                    log.warn("⚠️ Rate limiting indisponible ({}), requête autorisée: {}", properties.getStore(), e.getMessage());
+                    return Mono.just(new Response(true, Map.of()));
+                });
+    }
+
+    private Map<String, String> headers(RateLimitProperties.Limit limit, TokenBucketStore.Consumption consumption) {
+        String remaining = String.valueOf(Math.max(0, consumption.remaining()));
+        String rate = String.valueOf(limit.getReplenishRate());
+        String burst = String.valueOf(limit.getBurstCapacity());
+        if (consumption.allowed()) {
+            return Map.of(REMAINING_HEADER, remaining, REPLENISH_RATE_HEADER, rate, BURST_CAPACITY_HEADER, burst);
+        }
+        // Secondes avant le prochain jeton
+        String retryAfter = String.valueOf((long) Math.ceil(1 / limit.getReplenishRate()));
+        return Map.of(REMAINING_HEADER, remaining, REPLENISH_RATE_HEADER, rate, BURST_CAPACITY_HEADER, burst,
+                RETRY_AFTER_HEADER, retryAfter);
+    }
+
+    @Override
+    public Map<String, RateLimitProperties.Limit> getConfig() {
+        return properties.getRoutes();
+    }
+
+    @Override
+    public Class<RateLimitProperties.Limit> getConfigClass() {
+        return RateLimitProperties.Limit.class;
+    }
+
+    @Override
+    public RateLimitProperties.Limit newConfig() {
+        return new RateLimitProperties.Limit();
+    }
+}
@@ -0,0 +1,17 @@
+package com.healthapp.gateway.ratelimit;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stockage des buckets : en mémoire (une instance) ou partagé (Redis) pour plusieurs instances
+ */
+public interface TokenBucketStore {
+
+    /**
+     * Retire {@code requested} jetons du bucket {@code key} s'il en contient assez
+     */
+    Mono<Consumption> tryConsume(String key, double replenishRate, int burstCapacity, int requested);
+
+    record Consumption(boolean allowed, long remaining) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.healthapp.gateway.ratelimit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Clé de rate limiting : l'utilisateur si le JWT a été vérifié par la gateway, sinon l'IP du client.
+ * X-User-Id n'est lu qu'après JwtAuthenticationFilter (qui supprime celui envoyé par le client).
+ */
+public class UserOrIpKeyResolver implements KeyResolver {
+
+    private final RemoteAddressResolver addressResolver;
+
+    /**
+     * @param trustedProxies proxies devant la gateway (tunnel, load balancer) ; 0 = adresse de la connexion
+     */
+    public UserOrIpKeyResolver(int trustedProxies) {
+        this.addressResolver = trustedProxies > 0
+                ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies)
+                : new RemoteAddressResolver() {
+                };
+    }
+
+    @Override
+    public Mono<String> resolve(ServerWebExchange exchange) {
+        String userId = exchange.getRequest().getHeaders().getFirst("X-User-Id");
+        if (userId != null && !userId.isEmpty()) {
+            return Mono.just("user:" + userId);
+        }
+        InetSocketAddress address = addressResolver.resolve(exchange);
+        String ip = address == null ? "unknown"
+                : address.getAddress() != null ? address.getAddress().getHostAddress() : address.getHostString();
+        return Mono.just("ip:" + ip);
+    }
+}
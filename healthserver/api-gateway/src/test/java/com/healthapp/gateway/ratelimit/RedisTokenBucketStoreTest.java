@@ -0,0 +1,69 @@
+package com.healthapp.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RedisTokenBucketStoreTest {
+
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+    private final RedisTokenBucketStore store = new RedisTokenBucketStore(redisTemplate);
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void runsScriptOnHashTaggedKeyWithLimitArguments() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(List.of(1L, 4L)));
+
+        TokenBucketStore.Consumption consumption = store.tryConsume("auth-login:ip:10.0.0.1", 0.2, 10, 1).block();
+
+        assertThat(consumption).isEqualTo(new TokenBucketStore.Consumption(true, 4));
+        ArgumentCaptor<RedisScript> script = ArgumentCaptor.forClass(RedisScript.class);
+        ArgumentCaptor<List> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(script.capture(), keys.capture(), args.capture());
+
+        // Une clé par bucket, hash tag : même slot Redis Cluster pour la clé du script
+        assertThat(keys.getValue()).containsExactly("rate_limit:{auth-login:ip:10.0.0.1}");
+        assertThat(args.getValue()).containsExactly("0.2", "10", "1");
+        assertThat(script.getValue().getResultType()).isEqualTo(List.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapsDeniedResult() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+                .thenReturn(Flux.just(List.of(0L, 0L)));
+
+        assertThat(store.tryConsume("k", 1, 5, 1).block())
+                .isEqualTo(new TokenBucketStore.Consumption(false, 0));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void scriptRefillsWithRedisClockAndExpiresIdleBuckets() {
+        ArgumentCaptor<RedisScript> script = ArgumentCaptor.forClass(RedisScript.class);
+        when(redisTemplate.execute(script.capture(), anyList(), anyList())).thenReturn(Flux.just(List.of(1L, 0L)));
+        store.tryConsume("k", 1, 5, 1).block();
+
+        String lua = script.getValue().getScriptAsString();
+        // Horloge de Redis (pas celle de chaque instance) ; bucket neuf = capacité pleine
+        assertThat(lua).contains("redis.call('TIME')")
+                .contains("tonumber(bucket[1]) or capacity")
+                .contains("math.min(capacity, tokens + math.max(0, now - ts) * rate)")
+                .contains("if tokens >= requested then");
+        // Bucket inactif supprimé une fois qu'il serait de nouveau plein
+        assertThat(lua).contains("PEXPIRE").contains("math.ceil(capacity / rate * 1000)");
+    }
+}
@@ -0,0 +1,101 @@
+package com.healthapp.gateway.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter.Response;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenBucketRateLimiterTest {
+
+    private RateLimitProperties properties;
+    private TokenBucketRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        RateLimitProperties.Limit login = new RateLimitProperties.Limit();
+        login.setReplenishRate(0.2);
+        login.setBurstCapacity(2);
+        properties.getRoutes().put("auth-login", login);
+        limiter = new TokenBucketRateLimiter(properties, new InMemoryTokenBucketStore(1000));
+    }
+
+    @Test
+    void appliesRouteLimitAndAnnouncesRetryAfter() {
+        assertThat(allow("auth-login", "ip:10.0.0.1").isAllowed()).isTrue();
+        Response second = allow("auth-login", "ip:10.0.0.1");
+        assertThat(second.isAllowed()).isTrue();
+        assertThat(second.getHeaders())
+                .containsEntry(TokenBucketRateLimiter.REMAINING_HEADER, "0")
+                .containsEntry(TokenBucketRateLimiter.REPLENISH_RATE_HEADER, "0.2")
+                .containsEntry(TokenBucketRateLimiter.BURST_CAPACITY_HEADER, "2");
+
+        Response denied = allow("auth-login", "ip:10.0.0.1");
+        assertThat(denied.isAllowed()).isFalse();
+        // 0.2 jeton / seconde : prochain jeton dans 5 s
+        assertThat(denied.getHeaders()).containsEntry(TokenBucketRateLimiter.RETRY_AFTER_HEADER, "5");
+    }
+
+    @Test
+    void keepsOneBucketPerRouteAndKey() {
+        allow("auth-login", "ip:10.0.0.1");
+        allow("auth-login", "ip:10.0.0.1");
+
+        assertThat(allow("auth-login", "ip:10.0.0.1").isAllowed()).isFalse();
+        assertThat(allow("auth-login", "ip:10.0.0.2").isAllowed()).isTrue();
+        assertThat(allow("user-service", "ip:10.0.0.1").isAllowed()).isTrue();
+    }
+
+    @Test
+    void usesDefaultsForUnlistedRoutes() {
+        Response response = allow("user-service", "user:42");
+
+        assertThat(response.getHeaders())
+                .containsEntry(TokenBucketRateLimiter.BURST_CAPACITY_HEADER, "50")
+                .containsEntry(TokenBucketRateLimiter.REMAINING_HEADER, "49");
+    }
+
+    @Test
+    void allowsEverythingWhenDisabled() {
+        properties.setEnabled(false);
+        for (int i = 0; i < 5; i++) {
+            Response response = allow("auth-login", "ip:10.0.0.1");
+            assertThat(response.isAllowed()).isTrue();
+            assertThat(response.getHeaders()).isEmpty();
+        }
+    }
+
+    @Test
+    void failsOpenWhenStoreIsUnavailable() {
+        TokenBucketStore store = mock(TokenBucketStore.class);
+        when(store.tryConsume(anyString(), anyDouble(), anyInt(), anyInt()))
+                .thenReturn(Mono.error(new IllegalStateException("Redis down")));
+        limiter = new TokenBucketRateLimiter(properties, store);
+
+        Response response = allow("auth-login", "ip:10.0.0.1");
+
+        assertThat(response.isAllowed()).isTrue();
+        assertThat(response.getHeaders()).isEmpty();
+    }
+
+    @Test
+    void refillsTokensOverTime() throws InterruptedException {
+        InMemoryTokenBucketStore store = new InMemoryTokenBucketStore(10);
+        assertThat(store.tryConsume("k", 100, 1, 1).block().allowed()).isTrue();
+
+        Thread.sleep(50);  // 100 jetons / s : au moins un jeton rendu
+
+        assertThat(store.tryConsume("k", 100, 1, 1).block().allowed()).isTrue();
+    }
+
+    private Response allow(String routeId, String key) {
+        return limiter.isAllowed(routeId, key).block();
+    }
+}
@@ -0,0 +1,75 @@
+package com.healthapp.auth.benchmarks;
+
+import com.healthapp.shared.util.AdaptivePasswordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût CPU d'une connexion pour chaque réglage de app.auth.password-hashing (AdaptivePasswordEncoder)
+ * ✅ verify : une connexion (hash déjà à jour), en connexions / s
+ * ✅ encode : inscription, changement de mot de passe ou rehash à la connexion
+ *
+ * Un thread par défaut : le score est le nombre de connexions / s / cœur, à comparer au débit visé
+ * (connexions / s en pointe divisé par les cœurs d'auth-service). Avec -t <cœurs>, le score total montre
+ * la saturation (Argon2id est limité par la mémoire, pas seulement par le CPU).
+ *
+ * mvn -P benchmarks package -pl auth-benchmarks -am -DskipTests   (à la racine de healthserver)
+ * java -jar auth-benchmarks/target/auth-benchmarks.jar PasswordHashingBenchmark
+ * java -jar auth-benchmarks/target/auth-benchmarks.jar PasswordHashingBenchmark -p setting=bcrypt:11,argon2id:47104:1:1 -t 4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(1)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "Password123!";
+
+    // bcrypt:<strength> | argon2id:<memory KiB>:<iterations>:<parallelism> (10 et 19456:2:1 = valeurs par défaut)
+    @Param({"bcrypt:10", "bcrypt:12", "argon2id:19456:2:1", "argon2id:65536:3:1"})
+    private String setting;
+
+    private AdaptivePasswordEncoder encoder;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encoder = new AdaptivePasswordEncoder(parse(setting));
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    private static AdaptivePasswordEncoder.Settings parse(String setting) {
+        String[] parts = setting.split(":");
+        return switch (AdaptivePasswordEncoder.Algorithm.from(parts[0])) {
+            case BCRYPT -> AdaptivePasswordEncoder.Settings.bcrypt(Integer.parseInt(parts[1]));
+            case ARGON2ID -> AdaptivePasswordEncoder.Settings.argon2id(
+                    Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        };
+    }
+}
@@ -0,0 +1,157 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test de charge de POST /api/v1/auth/login : rafales de connexions simultanées, latences p50 / p90 / p99 par statut
+ *
+ * Lancement (JDK 17, sans build) :
+ *   java auth-service/loadtest/LoginLoadTest.java --email user@test.com --password 'Password123!'
+ *
+ * Options :
+ *   --url          http://localhost:8082/api/v1/auth/login (ou la gateway : http://localhost:8080/api/v1/auth/login)
+ *   --concurrency  200   requêtes envoyées en même temps dans chaque rafale
+ *   --bursts       5     nombre de rafales
+ *   --pause-ms     1000  pause entre deux rafales
+ *   --bad-ratio    0.0   part des requêtes avec un mauvais mot de passe (0.0 - 1.0)
+ *
+ * Attendu avec le pool BCrypt borné (app.auth.password-hashing.*) : les 200 gardent un p99 stable pendant la rafale,
+ * l'excédent reçoit des 503 immédiats (Retry-After) au lieu de faire grimper la latence de toutes les connexions.
+ * Avec plusieurs rafales, le compte de test est verrouillé après 5 mauvais mots de passe si --bad-ratio > 0.
+ */
+public class LoginLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8082/api/v1/auth/login"));
+        String email = required(options, "email");
+        String password = required(options, "password");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "200"));
+        int bursts = Integer.parseInt(options.getOrDefault("bursts", "5"));
+        long pauseMs = Long.parseLong(options.getOrDefault("pause-ms", "1000"));
+        double badRatio = Double.parseDouble(options.getOrDefault("bad-ratio", "0.0"));
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        String goodBody = body(email, password);
+        String badBody = body(email, password + "-wrong");
+
+        // Échauffement : JIT, pool de connexions Mongo
+        for (int i = 0; i < 5; i++) {
+            send(client, url, goodBody);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        Map<Integer, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+        AtomicInteger errors = new AtomicInteger();
+        long started = System.nanoTime();
+
+        for (int burst = 0; burst < bursts; burst++) {
+            CountDownLatch ready = new CountDownLatch(concurrency);
+            CountDownLatch go = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                String requestBody = i < concurrency * badRatio ? badBody : goodBody;
+                executor.execute(() -> {
+                    try {
+                        ready.countDown();
+                        go.await();
+                        long start = System.nanoTime();
+                        int status = send(client, url, requestBody);
+                        latencies.computeIfAbsent(status, s -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - start);
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            ready.await();
+            go.countDown();
+            done.await();
+            System.out.printf("burst %d/%d done%n", burst + 1, bursts);
+            if (burst < bursts - 1) {
+                Thread.sleep(pauseMs);
+            }
+        }
+        executor.shutdown();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("%n%d requests in %.1fs, %d connection errors%n", concurrency * bursts, seconds, errors.get());
+        System.out.printf("%-8s %8s %10s %10s %10s %10s%n", "status", "count", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        List<Long> all = new ArrayList<>();
+        new TreeMap<>(latencies).forEach((status, values) -> {
+            all.addAll(values);
+            print(String.valueOf(status), values);
+        });
+        print("all", all);
+    }
+
+    private static int send(HttpClient client, URI url, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void print(String label, java.util.Collection<Long> values) {
+        long[] sorted = values.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            return;
+        }
+        System.out.printf("%-8s %8d %10.1f %10.1f %10.1f %10.1f%n", label, sorted.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static String body(String email, String password) {
+        return "{\"email\":\"" + escape(email) + "\",\"password\":\"" + escape(password) + "\"}";
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            System.err.println("Missing --" + name + " (see the header of LoginLoadTest.java)");
+            System.exit(2);
+        }
+        return value;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + Arrays.toString(args));
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
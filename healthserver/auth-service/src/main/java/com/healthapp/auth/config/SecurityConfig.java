@@ -1,7 +1,9 @@
 package com.healthapp.auth.config;
 
 import com.healthapp.auth.security.JwtAuthenticationFilter;
+import com.healthapp.shared.util.AdaptivePasswordEncoder;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -14,7 +16,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -28,6 +29,22 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
     
+    // bcrypt | argon2id : mêmes réglages dans auth-service, user-service et doctor-activation-service
+    @Value("${app.auth.password-hashing.algorithm:bcrypt}")
+    private String hashingAlgorithm;
+    
+    @Value("${app.auth.password-hashing.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
+    @Value("${app.auth.password-hashing.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+    
+    @Value("${app.auth.password-hashing.argon2.iterations:2}")
+    private int argon2Iterations;
+    
+    @Value("${app.auth.password-hashing.argon2.parallelism:1}")
+    private int argon2Parallelism;
+    
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -47,9 +64,14 @@ public class SecurityConfig {
         return http.build();
     }
     
+    /**
+     * Algorithme et coût configurables ; les hashes plus anciens sont refaits à la connexion (AuthService.login)
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new AdaptivePasswordEncoder(new AdaptivePasswordEncoder.Settings(
+                AdaptivePasswordEncoder.Algorithm.from(hashingAlgorithm), bcryptStrength,
+                argon2MemoryKib, argon2Iterations, argon2Parallelism));
     }
     
     @Bean
@@ -1,6 +1,7 @@
 package com.healthapp.auth.controller;
 
 import com.healthapp.auth.dto.response.UserResponse;
+import com.healthapp.auth.security.JwtKeyRing;
 import com.healthapp.auth.service.AdminService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +22,7 @@ import java.util.Map;
 public class AdminController {
     
     private final AdminService adminService;
+    private final JwtKeyRing jwtKeyRing;
     
     /**
      * Get all pending doctors (waiting for activation)
@@ -86,4 +88,18 @@ public class AdminController {
         List<UserResponse> activatedDoctors = adminService.getActivatedDoctors();
         return ResponseEntity.ok(activatedDoctors);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Rotate the JWT signing key (published now, used after the pre-publish delay)
+     */
+    @PostMapping("/jwt/rotate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> rotateJwtKey() {
+        log.info("Admin rotating JWT signing key");
+        jwtKeyRing.rotate();
+        return ResponseEntity.ok(Map.of(
+            "status", "success",
+            "message", "New JWT signing key published"
+        ));
+    }
+}
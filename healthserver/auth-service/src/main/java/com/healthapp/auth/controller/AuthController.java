@@ -12,6 +12,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/v1/auth")
 @CrossOrigin(origins = "http://localhost:4200")
@@ -27,10 +29,13 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body(authService.register(request));
     }
     
+    /**
+     * Réponse asynchrone : le thread Tomcat est libéré pendant la vérification BCrypt
+     */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
         log.info("Login request for: {}", request.getEmail());
-        return ResponseEntity.ok(authService.login(request));
+        return authService.login(request).thenApply(ResponseEntity::ok);
     }
     
     @PostMapping("/refresh")
@@ -10,7 +10,16 @@ import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
+/**
+ * Famille de refresh tokens : une connexion = un document, mis à jour à chaque rotation
+ * ✅ Seul le SHA-256 du token est stocké (tokenHash), jamais le token lui-même
+ * ✅ spentTokenHashes : les derniers tokens déjà échangés ; l'un d'eux présenté à nouveau révoque
+ *    toute la famille (vol détecté)
+ * ✅ familyExpiresAt : durée de vie absolue de la famille, quelle que soit la fréquence des rotations
+ * ✅ Index TTL sur expiryDate et familyExpiresAt : MongoDB supprime les familles expirées
+ */
 @Data
 @Builder
 @NoArgsConstructor
@@ -18,33 +27,31 @@ import java.time.LocalDateTime;
 @Document(collection = "refresh_tokens")
 public class RefreshToken {
     
+    // Id de famille (stable pendant les rotations)
     @Id
     private String id;
     
     @Indexed
     private String userId;
     
-    @Indexed(unique = true)
-    private String token;
+    // sparse : les anciens documents (token en clair) n'ont pas de hash
+    @Indexed(unique = true, sparse = true)
+    private String tokenHash;
     
+    // Hashes des tokens déjà échangés, du plus ancien au plus récent (liste bornée)
+    @Indexed(sparse = true)
+    private List<String> spentTokenHashes;
+    
+    // Expiration glissante, repoussée à chaque rotation
+    @Indexed(name = "expiryDate_ttl", expireAfter = "0s")
     private LocalDateTime expiryDate;
     
-    @Builder.Default
-    private Boolean isRevoked = false;
+    // Expiration absolue : nouvelle connexion obligatoire au-delà
+    @Indexed(name = "familyExpiresAt_ttl", expireAfter = "0s")
+    private LocalDateTime familyExpiresAt;
+    
+    private LocalDateTime rotatedAt;
     
     @CreatedDate
     private LocalDateTime createdAt;
-    
-    // Business Methods
-    public boolean isExpired() {
-        return LocalDateTime.now().isAfter(expiryDate);
-    }
-    
-    public boolean isValid() {
-        return !isRevoked && !isExpired();
-    }
-    
-    public void revoke() {
-        this.isRevoked = true;
-    }
 }
@@ -0,0 +1,43 @@
+package com.healthapp.auth.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Paire de clés de signature des JWT (RS256 / EdDSA), partagée par toutes les instances d'auth-service.
+ * La clé publique est publiée dans le JWKS dès sa création ; la clé ne signe qu'à partir de activeFrom
+ * (les services ont le temps de la récupérer) et reste publiée jusqu'à expiresAt (fin des tokens qu'elle a signés).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "jwt_signing_keys")
+public class SigningKey {
+
+    // kid (en-tête des tokens)
+    @Id
+    private String id;
+
+    // RS256 ou EdDSA
+    private String algorithm;
+
+    // X.509 (SubjectPublicKeyInfo), Base64
+    private String publicKey;
+
+    // PKCS#8 chiffré AES-GCM (SigningKeyCipher) ; Base64 en clair pour les clés antérieures, rechiffrées au chargement
+    private String privateKey;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime activeFrom;
+
+    // null tant que la clé est la clé active
+    private LocalDateTime expiresAt;
+}
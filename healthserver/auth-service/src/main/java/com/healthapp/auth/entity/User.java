@@ -29,6 +29,9 @@ import java.util.HashSet;
 @Document(collection = "users")
 public class User {
     
+    // Échecs de connexion avant verrouillage (LoginAttemptService)
+    public static final int MAX_FAILED_LOGIN_ATTEMPTS = 5;
+    
     @Id
     private String id;
     
@@ -100,7 +103,7 @@ public class User {
     }
     
     public boolean isAccountNonLocked() {
-        return !AccountStatus.LOCKED.equals(accountStatus) && failedLoginAttempts < 5;
+        return !AccountStatus.LOCKED.equals(accountStatus) && failedLoginAttempts < MAX_FAILED_LOGIN_ATTEMPTS;
     }
     
     public boolean isAccountNonExpired() {
@@ -122,13 +125,6 @@ public class User {
         return roles.contains(UserRole.ADMIN);
     }
     
-    public void incrementFailedLoginAttempts() {
-        this.failedLoginAttempts = (this.failedLoginAttempts == null) ? 1 : this.failedLoginAttempts + 1;
-        if (this.failedLoginAttempts >= 5) {
-            this.accountStatus = AccountStatus.LOCKED;
-        }
-    }
-    
     public void resetFailedLoginAttempts() {
         this.failedLoginAttempts = 0;
         if (AccountStatus.LOCKED.equals(this.accountStatus)) {
@@ -0,0 +1,10 @@
+package com.healthapp.auth.exception;
+
+/**
+ * Trop de vérifications de mot de passe en attente : le client réessaie plus tard (503)
+ */
+public class LoginCapacityExceededException extends RuntimeException {
+    public LoginCapacityExceededException(String message) {
+        super(message);
+    }
+}
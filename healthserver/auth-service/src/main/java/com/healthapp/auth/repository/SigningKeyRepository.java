@@ -0,0 +1,13 @@
+package com.healthapp.auth.repository;
+
+import com.healthapp.auth.entity.SigningKey;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface SigningKeyRepository extends MongoRepository<SigningKey, String> {
+
+    void deleteByExpiresAtBefore(LocalDateTime now);
+}
@@ -4,8 +4,10 @@ import com.healthapp.auth.entity.User;
 import com.healthapp.auth.Enums.UserRole;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +18,20 @@ public interface UserRepository extends MongoRepository<User, String> {
     
     boolean existsByEmail(String email);
     
+    /**
+     * Connexion réussie : un seul $set ciblé au lieu de réécrire tout le document
+     */
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'failedLoginAttempts': 0, 'lastLoginAt': ?1 } }")
+    long recordSuccessfulLogin(String id, LocalDateTime lastLoginAt);
+    
+    /**
+     * Rehash à la connexion : remplacé seulement si le hash n'a pas changé entre-temps (changement de mot de passe)
+     */
+    @Query("{ '_id': ?0, 'password': ?1 }")
+    @Update("{ '$set': { 'password': ?2 } }")
+    long replacePasswordHash(String id, String currentHash, String newHash);
+    
     Optional<User> findByEmailVerificationToken(String token);
     
     @Query("{ 'roles': ?0, 'isActivated': false }")
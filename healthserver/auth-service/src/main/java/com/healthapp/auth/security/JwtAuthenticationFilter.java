@@ -1,10 +1,16 @@
 package com.healthapp.auth.security;
 
+import com.healthapp.shared.util.IdentityEnvelope;
+import com.healthapp.shared.util.VerifiedToken;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,33 +24,45 @@ import java.io.IOException;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtSecurity jwtService;
     private final UserDetailsService userDetailsService;
     
+    // Secret partagé avec la gateway (enveloppe X-Auth-Identity) , obligatoire (IDENTITY_SECRET)
+    @Value("${app.identity.secret}")
+    private String identitySecret;
+    
+    private IdentityEnvelope identityEnvelope;
+    
+    @PostConstruct
+    void init() {
+        identityEnvelope = new IdentityEnvelope(identitySecret);  // Refuse un secret vide ou trop court
+    }
+    
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
+        final String envelope = request.getHeader(IdentityEnvelope.HEADER);
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String userEmail;
         
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (envelope == null && (authHeader == null || !authHeader.startsWith("Bearer "))) {
             filterChain.doFilter(request, response);
             return;
         }
         
-        jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
-        
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            
-            if (jwtService.isTokenValid(jwt, userEmail)) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                // Identité signée par la gateway (une vérification HMAC), sinon un seul parse du JWT
+                VerifiedToken token = envelope != null
+                        ? verifyEnvelope(envelope)
+                        : jwtService.verify(authHeader.substring(7));
+                UserDetails userDetails = this.userDetailsService.loadUserByUsername(token.getSubject());
+                
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -54,8 +72,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         new WebAuthenticationDetailsSource().buildDetails(request)
                 );
                 SecurityContextHolder.getContext().setAuthentication(authToken);
+            } catch (JwtException | IllegalArgumentException e) {
+                log.warn("JWT rejected: {}", e.getMessage());
             }
         }
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+    
+    private VerifiedToken verifyEnvelope(String envelope) {
+        return identityEnvelope.verify(envelope);
+    }
+}
@@ -0,0 +1,264 @@
+package com.healthapp.auth.security;
+
+import com.healthapp.auth.entity.SigningKey;
+import com.healthapp.auth.repository.SigningKeyRepository;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Clés de signature asymétriques des JWT, avec rotation
+ * ✅ Clés stockées dans MongoDB (jwt_signing_keys) : toutes les instances signent avec la même clé active
+ * ✅ Clés privées chiffrées au repos (SigningKeyCipher, secret JWT_KEY_ENCRYPTION_KEY hors de MongoDB)
+ * ✅ Nouvelle clé publiée dans le JWKS avant de signer (app.jwt.rotation.pre-publish)
+ * ✅ Ancienne clé publiée jusqu'à l'expiration des derniers access tokens qu'elle a signés, puis supprimée
+ * ✅ app.jwt.signing.algorithm=HS256 : mode historique, les tokens restent signés avec app.jwt.secret
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class JwtKeyRing {
+
+    public static final String HMAC = "HS256";
+
+    private final SigningKeyRepository signingKeyRepository;
+
+    // RS256, EdDSA ou HS256
+    @Value("${app.jwt.signing.algorithm:RS256}")
+    private String algorithm;
+
+    @Value("${app.jwt.rotation.interval:P30D}")
+    private Duration rotationInterval;
+
+    @Value("${app.jwt.rotation.pre-publish:PT10M}")
+    private Duration prePublish;
+
+    @Value("${app.jwt.expiration}")
+    private long jwtExpiration;
+
+    // Obligatoire hors mode HS256 (pas de valeur par défaut : une clé connue ne protégerait rien)
+    @Value("${app.jwt.signing.key-encryption-key:}")
+    private String keyEncryptionKey;
+
+    private SigningKeyCipher cipher;
+
+    private volatile Ring ring;
+
+    @PostConstruct
+    void init() {
+        if (!isHmacSigning()) {
+            cipher = new SigningKeyCipher(keyEncryptionKey);  // Refuse un secret absent ou trop court
+        }
+    }
+
+    /**
+     * Clé privée courante et son kid
+     */
+    public record ActiveKey(String kid, PrivateKey privateKey, SignatureAlgorithm algorithm) {
+    }
+
+    private record Ring(ActiveKey active, Map<String, PublicKey> publicKeys, String jwks) {
+    }
+
+    public boolean isHmacSigning() {
+        return HMAC.equalsIgnoreCase(algorithm);
+    }
+
+    /**
+     * Clé qui signe les nouveaux tokens (null en mode HMAC)
+     */
+    public ActiveKey activeKey() {
+        return ring().active();
+    }
+
+    /**
+     * Clé publique d'un kid publié, null si inconnu
+     */
+    public PublicKey publicKey(String kid) {
+        return ring().publicKeys().get(kid);
+    }
+
+    /**
+     * JWKS : {"keys":[...]} avec les clés publiques actives, à venir et retirées non expirées
+     */
+    public String jwks() {
+        return ring().jwks();
+    }
+
+    /**
+     * Rotation manuelle (ex: clé compromise) : la nouvelle clé signe après le délai de pré-publication
+     */
+    public synchronized void rotate() {
+        if (isHmacSigning()) {
+            throw new IllegalStateException("Rotation impossible en mode " + HMAC);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        signingKeyRepository.save(generate(now, now.plus(prePublish)));
+        ring = load(now);
+    }
+
+    /**
+     * Relit les clés (autres instances), fait la rotation planifiée et supprime les clés expirées
+     */
+    @Scheduled(fixedDelayString = "${app.jwt.rotation.check-interval-ms:60000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.error("❌ Rechargement des clés JWT impossible: {}", e.getMessage());
+        }
+    }
+
+    private Ring ring() {
+        Ring current = ring;
+        return current != null ? current : reload();
+    }
+
+    private synchronized Ring reload() {
+        LocalDateTime now = LocalDateTime.now();
+        signingKeyRepository.deleteByExpiresAtBefore(now);
+
+        if (!isHmacSigning()) {
+            List<SigningKey> keys = signingKeyRepository.findAll();
+            SigningKey current = current(keys, now);
+            boolean pending = keys.stream().anyMatch(key -> key.getActiveFrom().isAfter(now));
+
+            if (current == null && !pending) {
+                // Premier démarrage : clé active immédiatement
+                signingKeyRepository.save(generate(now, now));
+            } else if (current != null && !pending && needsRotation(current, now)) {
+                signingKeyRepository.save(generate(now, now.plus(prePublish)));
+                log.info("🔑 Rotation JWT planifiée: nouvelle clé publiée, active dans {}", prePublish);
+            }
+        }
+
+        ring = load(now);
+        return ring;
+    }
+
+    /**
+     * Construit l'état en mémoire ; retire les clés remplacées par une clé plus récente
+     */
+    private Ring load(LocalDateTime now) {
+        List<SigningKey> keys = signingKeyRepository.findAll();
+        SigningKey current = isHmacSigning() ? null : current(keys, now);
+        LocalDateTime retiredUntil = now.plus(Duration.ofMillis(jwtExpiration)).plus(prePublish);
+
+        ActiveKey active = null;
+        Map<String, PublicKey> publicKeys = new HashMap<>();
+        List<String> jwks = new ArrayList<>();
+        for (SigningKey key : keys) {
+            if (key != current && key.getExpiresAt() == null && !key.getActiveFrom().isAfter(now)) {
+                key.setExpiresAt(retiredUntil);
+                signingKeyRepository.save(key);
+                log.info("🔑 Clé JWT {} retirée, publiée jusqu'au {}", key.getId(), retiredUntil);
+            }
+            try {
+                PublicKey publicKey = decodePublic(key);
+                publicKeys.put(key.getId(), publicKey);
+                jwks.add(Jwks.json(Jwks.builder().key(publicKey)
+                        .id(key.getId())
+                        .algorithm(key.getAlgorithm())
+                        .build()));
+                if (key == current) {
+                    active = new ActiveKey(key.getId(), decodePrivate(key), signatureAlgorithm(key.getAlgorithm()));
+                }
+                if (cipher != null && key.getPrivateKey() != null && !SigningKeyCipher.isEncrypted(key.getPrivateKey())) {
+                    // Clé enregistrée en clair avant le chiffrement au repos : réécrite chiffrée
+                    key.setPrivateKey(cipher.encrypt(Base64.getDecoder().decode(key.getPrivateKey()), key.getId()));
+                    signingKeyRepository.save(key);
+                    log.info("🔑 Clé JWT {} chiffrée au repos", key.getId());
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.error("❌ Clé JWT {} illisible: {}", key.getId(), e.getMessage());
+            }
+        }
+        return new Ring(active, Map.copyOf(publicKeys), "{\"keys\":[" + String.join(",", jwks) + "]}");
+    }
+
+    /**
+     * Clé active : la plus récemment activée, non retirée
+     */
+    private SigningKey current(List<SigningKey> keys, LocalDateTime now) {
+        return keys.stream()
+                .filter(key -> key.getExpiresAt() == null && !key.getActiveFrom().isAfter(now))
+                .max(Comparator.comparing(SigningKey::getActiveFrom))
+                .orElse(null);
+    }
+
+    private boolean needsRotation(SigningKey current, LocalDateTime now) {
+        return !current.getAlgorithm().equalsIgnoreCase(algorithm)
+                || !current.getCreatedAt().plus(rotationInterval).isAfter(now);
+    }
+
+    private SigningKey generate(LocalDateTime now, LocalDateTime activeFrom) {
+        SignatureAlgorithm signatureAlgorithm = signatureAlgorithm(algorithm);
+        KeyPair keyPair = signatureAlgorithm == Jwts.SIG.EdDSA
+                ? Jwks.CRV.Ed25519.keyPair().build()
+                : signatureAlgorithm.keyPair().build();
+        String kid = UUID.randomUUID().toString();
+        String privateKey;
+        try {
+            privateKey = cipher.encrypt(keyPair.getPrivate().getEncoded(), kid);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Chiffrement de la clé JWT impossible", e);
+        }
+        return SigningKey.builder()
+                .id(kid)
+                .algorithm(signatureAlgorithm.getId())
+                .publicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))
+                .privateKey(privateKey)
+                .createdAt(now)
+                .activeFrom(activeFrom)
+                .build();
+    }
+
+    private static SignatureAlgorithm signatureAlgorithm(String id) {
+        if ("RS256".equalsIgnoreCase(id)) {
+            return Jwts.SIG.RS256;
+        }
+        if ("EdDSA".equalsIgnoreCase(id)) {
+            return Jwts.SIG.EdDSA;
+        }
+        throw new IllegalArgumentException("app.jwt.signing.algorithm non supporté: " + id);
+    }
+
+    private static PublicKey decodePublic(SigningKey key) throws GeneralSecurityException {
+        return keyFactory(key).generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey())));
+    }
+
+    private PrivateKey decodePrivate(SigningKey key) throws GeneralSecurityException {
+        String stored = key.getPrivateKey();
+        byte[] encoded = SigningKeyCipher.isEncrypted(stored)
+                ? cipher.decrypt(stored, key.getId())
+                : Base64.getDecoder().decode(stored);
+        return keyFactory(key).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+    }
+
+    private static KeyFactory keyFactory(SigningKey key) throws GeneralSecurityException {
+        return KeyFactory.getInstance("EdDSA".equals(key.getAlgorithm()) ? "EdDSA" : "RSA");
+    }
+}
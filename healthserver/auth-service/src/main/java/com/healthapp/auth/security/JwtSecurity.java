@@ -1,72 +1,84 @@
 package com.healthapp.auth.security;
 
-import com.healthapp.auth.entity.User;
+import com.healthapp.shared.util.JwtKeyLocator;
+import com.healthapp.shared.util.JwtVerifier;
+import com.healthapp.shared.util.VerifiedToken;
+import com.healthapp.shared.util.VerifiedTokenCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.util.*;
+import java.util.Date;
 import java.util.function.Function;  // ✅ AJOUT DE L'IMPORT
-import java.util.stream.Collectors;
 
+/**
+ * Vérification des JWT reçus par auth-service (émission : JwtTokenMinter)
+ * ✅ RS256 / EdDSA : clé publique du JwtKeyRing choisie par le kid de l'en-tête
+ * ✅ app.jwt.hmac.enabled : les tokens HS* (anciens tokens, tokens médecins) restent acceptés
+ */
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class JwtSecurity {
     
+    private final JwtKeyRing keyRing;
+    
     @Value("${app.jwt.secret}")
     private String secretKey;
     
-    @Value("${app.jwt.expiration}")
-    private long jwtExpiration;
-    
-    @Value("${app.jwt.refresh-token.expiration}")
-    private long refreshExpiration;
+    // Tokens déjà vérifiés gardés jusqu'à leur expiration (0 = pas de cache)
+    @Value("${app.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
     
-    public String generateToken(User user) {
-        Map<String, Object> claims = buildAccessTokenClaims(user);
-        return buildTokenWithEmail(claims, user.getEmail(), jwtExpiration);
-    }
+    // Tokens HS* signés avec app.jwt.secret (mode historique, tokens médecins)
+    @Value("${app.jwt.hmac.enabled:true}")
+    private boolean hmacEnabled;
     
-    public String generateRefreshToken(User user) {
-        return buildTokenWithEmail(new HashMap<>(), user.getEmail(), refreshExpiration);
+    // Parser construit une seule fois
+    private JwtVerifier jwtVerifier;
+
+    @PostConstruct
+    void init() {
+        SecretKey signInKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        boolean acceptHmac = hmacEnabled || keyRing.isHmacSigning();
+        jwtVerifier = new JwtVerifier(new JwtKeyLocator(keyRing::publicKey, acceptHmac ? signInKey : null),
+                cacheMaxEntries > 0 ? new VerifiedTokenCache(cacheMaxEntries) : null);
     }
     
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
+
+    /**
+     * Vérifie signature + expiration en un seul parse
+     * @throws JwtException si le token est invalide ou expiré
+     */
+    public VerifiedToken verify(String token) {
+        return jwtVerifier.verify(token);
+    }
+    
+    /**
+     * Oublie les tokens en cache d'un utilisateur (logout)
+     */
+    public void invalidateUser(String userId) {
+        jwtVerifier.invalidateUser(userId);
+    }
     
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
     
-    public long getAccessTokenExpiration() {
-        return jwtExpiration;
-    }
-    
     public boolean isTokenValid(String token, String username) {
         final String extractedUsername = extractUsername(token);
         return extractedUsername.equals(username) && !isTokenExpired(token);
     }
     
-    private String buildTokenWithEmail(
-            Map<String, Object> extraClaims,
-            String email,
-            long expiration
-    ) {
-        return Jwts.builder()
-                .claims(extraClaims)
-                .subject(email)
-                .issuer("health-app")
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
-                .compact();
-    }
-    
     private boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
@@ -77,36 +89,10 @@ public class JwtSecurity {
     
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignInKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return jwtVerifier.claims(token);
         } catch (Exception e) {
             log.error("Error parsing JWT token: {}", e.getMessage());
             throw e;
         }
     }
-    
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = secretKey.getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-    
-    private Map<String, Object> buildAccessTokenClaims(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("user_id", user.getId());
-        claims.put("email", user.getEmail());
-        claims.put("full_name", user.getFullName());
-        
-        List<String> roles = user.getRoles().stream()
-                .map(Enum::name)
-                .collect(Collectors.toList());
-        claims.put("roles", roles);
-        
-        claims.put("is_activated", user.getIsActivated());
-        claims.put("account_status", user.getAccountStatus().name());
-        
-        return claims;
-    }
 }
\ No newline at end of file
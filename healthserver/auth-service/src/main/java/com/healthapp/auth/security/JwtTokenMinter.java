@@ -0,0 +1,246 @@
+package com.healthapp.auth.security;
+
+import com.healthapp.auth.Enums.UserRole;
+import com.healthapp.auth.entity.User;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Émission des access tokens d'auth-service (seul point de signature des JWT)
+ * ✅ En-tête JWS encodé une fois par clé active (alg + kid), pas à chaque token
+ * ✅ Claims écrits directement en JSON depuis un gabarit fixe (pas de Map, de stream ni de sérialisation Jackson)
+ * ✅ Clé HMAC construite au démarrage ; Signature / Mac réutilisés par thread, réinitialisés seulement à la rotation
+ * ✅ mint(List) : un lot de tokens avec la même clé et le même iat (appels entre services)
+ *
+ * Tokens identiques à ceux de jjwt (mêmes claims, compact JWS) : vérifiés par JwtSecurity, la gateway et les services.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtTokenMinter {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${app.jwt.secret}")
+    private String secretKey;
+
+    @Value("${app.jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${app.jwt.issuer:health-app}")
+    private String issuer;
+
+    // Mode HMAC (app.jwt.signing.algorithm=HS256) : contexte fixe ; sinon suit la clé active du JwtKeyRing
+    private SigningContext hmacContext;
+    private volatile SigningContext activeContext;
+
+    // Fin des claims commune à tous les tokens : ,"iss":"..."
+    private String issuerClaim;
+
+    private final ThreadLocal<Signer> signers = ThreadLocal.withInitial(Signer::new);
+    private final ThreadLocal<StringBuilder> builders = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    /**
+     * Clé de signature prête à l'emploi : segment d'en-tête encodé ("xxx.") et algorithme JCA
+     */
+    private record SigningContext(String kid, String header, String jcaAlgorithm, Key key) {
+    }
+
+    @PostConstruct
+    void init() {
+        SecretKey hmacKey = Keys.hmacShaKeyFor(secretKey.getBytes());
+        // Keys.hmacShaKeyFor choisit HmacSHA256 / 384 / 512 selon la longueur du secret, comme jjwt pour "alg"
+        String alg = "HS" + hmacKey.getAlgorithm().substring("HmacSHA".length());
+        hmacContext = new SigningContext(null, header("{\"alg\":\"" + alg + "\"}"), hmacKey.getAlgorithm(), hmacKey);
+        issuerClaim = ",\"iss\":" + json(issuer);
+    }
+
+    /**
+     * Access token d'un utilisateur, valable app.jwt.expiration ms
+     */
+    public String mint(User user) {
+        return mint(user, signingContext(), System.currentTimeMillis() / 1000);
+    }
+
+    /**
+     * Access tokens d'un lot d'utilisateurs, dans le même ordre
+     */
+    public List<String> mint(List<User> users) {
+        SigningContext context = signingContext();
+        long issuedAt = System.currentTimeMillis() / 1000;
+        List<String> tokens = new ArrayList<>(users.size());
+        for (User user : users) {
+            tokens.add(mint(user, context, issuedAt));
+        }
+        return tokens;
+    }
+
+    public long getAccessTokenExpiration() {
+        return jwtExpiration;
+    }
+
+    private String mint(User user, SigningContext context, long issuedAt) {
+        String signingInput = context.header() + ENCODER.encodeToString(claims(user, issuedAt));
+        byte[] signature = signers.get().sign(context, signingInput.getBytes(StandardCharsets.US_ASCII));
+        return signingInput + '.' + ENCODER.encodeToString(signature);
+    }
+
+    /**
+     * Mêmes claims que l'ancien buildAccessTokenClaims + sub / iss / iat / exp (en secondes) ; null = claim absent
+     */
+    private byte[] claims(User user, long issuedAt) {
+        StringBuilder json = builders.get();
+        json.setLength(0);
+        json.append('{');
+        field(json, "user_id", user.getId());
+        field(json, "email", user.getEmail());
+        field(json, "full_name", user.getFullName());
+        Set<UserRole> roles = user.getRoles();
+        if (roles != null) {
+            json.append("\"roles\":[");
+            boolean first = true;
+            for (UserRole role : roles) {
+                if (!first) {
+                    json.append(',');
+                }
+                json.append('"').append(role.name()).append('"');
+                first = false;
+            }
+            json.append("],");
+        }
+        if (user.getIsActivated() != null) {
+            json.append("\"is_activated\":").append(user.getIsActivated().booleanValue()).append(',');
+        }
+        if (user.getAccountStatus() != null) {
+            field(json, "account_status", user.getAccountStatus().name());
+        }
+        json.append("\"sub\":");
+        appendJson(json, user.getEmail());
+        json.append(issuerClaim)
+                .append(",\"iat\":").append(issuedAt)
+                .append(",\"exp\":").append(issuedAt + jwtExpiration / 1000)
+                .append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private SigningContext signingContext() {
+        if (keyRing.isHmacSigning()) {
+            return hmacContext;
+        }
+        JwtKeyRing.ActiveKey key = keyRing.activeKey();
+        if (key == null) {
+            throw new IllegalStateException("Aucune clé de signature JWT active");
+        }
+        SigningContext context = activeContext;
+        if (context == null || !context.kid().equals(key.kid()) || context.key() != key.privateKey()) {
+            String alg = key.algorithm().getId();
+            context = new SigningContext(key.kid(),
+                    header("{\"alg\":" + json(alg) + ",\"kid\":" + json(key.kid()) + "}"),
+                    "EdDSA".equals(alg) ? "Ed25519" : "SHA256withRSA",
+                    key.privateKey());
+            activeContext = context;
+            log.info("🔑 Émission des JWT avec la clé {}", key.kid());
+        }
+        return context;
+    }
+
+    private static String header(String json) {
+        return ENCODER.encodeToString(json.getBytes(StandardCharsets.UTF_8)) + '.';
+    }
+
+    private static void field(StringBuilder json, String name, String value) {
+        if (value != null) {
+            json.append('"').append(name).append("\":");
+            appendJson(json, value);
+            json.append(',');
+        }
+    }
+
+    private static String json(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2);
+        appendJson(json, value);
+        return json.toString();
+    }
+
+    /**
+     * Chaîne JSON entre guillemets (", \ et caractères de contrôle échappés)
+     */
+    private static void appendJson(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Signature ou Mac du thread, initialisé pour le dernier contexte utilisé
+     */
+    private static final class Signer {
+
+        private SigningContext context;
+        private Signature signature;
+        private Mac mac;
+
+        byte[] sign(SigningContext target, byte[] input) {
+            try {
+                if (context != target) {
+                    init(target);
+                }
+                if (mac != null) {
+                    return mac.doFinal(input);
+                }
+                signature.update(input);
+                return signature.sign();
+            } catch (GeneralSecurityException e) {
+                context = null;
+                throw new IllegalStateException("Signature JWT impossible: " + e.getMessage(), e);
+            }
+        }
+
+        private void init(SigningContext target) throws GeneralSecurityException {
+            if (target.key() instanceof PrivateKey privateKey) {
+                signature = Signature.getInstance(target.jcaAlgorithm());
+                signature.initSign(privateKey);
+                mac = null;
+            } else {
+                mac = Mac.getInstance(target.jcaAlgorithm());
+                mac.init(target.key());
+                signature = null;
+            }
+            context = target;
+        }
+    }
+}
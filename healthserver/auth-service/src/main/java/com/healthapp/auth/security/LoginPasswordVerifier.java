@@ -0,0 +1,115 @@
+package com.healthapp.auth.security;
+
+import com.healthapp.auth.exception.LoginCapacityExceededException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vérification des mots de passe (BCrypt / Argon2id) des connexions sur un pool dédié et borné
+ * ✅ Un hash coûte des dizaines de ms de CPU : au plus app.auth.password-hashing.threads en parallèle
+ * ✅ File bornée (queue-capacity) : au-delà, refus immédiat (503) au lieu d'accumuler des requêtes
+ * ✅ Les threads Tomcat ne restent pas bloqués pendant le hash (le contrôleur reçoit un CompletableFuture)
+ * ✅ Hash périmé (algorithme ou coût différent de la configuration) : refait sur le même thread, juste après la vérification
+ * ✅ Suite de la connexion (écritures MongoDB, refresh token) sur un second pool, {@link #ioExecutor()} :
+ *    les threads de hash (un par cœur) ne restent jamais bloqués sur une requête réseau
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginPasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+
+    // 0 = un thread par cœur
+    @Value("${app.auth.password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${app.auth.password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    // Suites de connexion bloquées sur MongoDB : pas liées au nombre de cœurs
+    @Value("${app.auth.login.io-threads:16}")
+    private int ioThreads;
+
+    private ThreadPoolExecutor executor;
+    private ThreadPoolExecutor ioExecutor;
+
+    /**
+     * @param upgradedHash nouveau hash à enregistrer, null si le mot de passe est faux ou si le hash est à jour
+     */
+    public record Verification(boolean matches, String upgradedHash) {
+    }
+
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // File non bornée : au plus threads + queue-capacity connexions sortent du pool de hash à la fois
+        AtomicInteger ioCounter = new AtomicInteger();
+        ioExecutor = new ThreadPoolExecutor(ioThreads, ioThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "login-io-" + ioCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("🔐 Vérification des mots de passe: {} thread(s), file de {} ; suites de connexion: {} thread(s)",
+                poolSize, queueCapacity, ioThreads);
+    }
+
+    /**
+     * Pool des étapes bloquantes qui suivent la vérification (à passer à thenApplyAsync)
+     */
+    public Executor ioExecutor() {
+        return ioExecutor;
+    }
+
+    /**
+     * Compare le mot de passe à son hash sur le pool dédié, et le rehache si ses paramètres sont périmés
+     * @return future en échec (LoginCapacityExceededException) si le pool et sa file sont pleins
+     */
+    public CompletableFuture<Verification> verify(String rawPassword, String encodedPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+                    return new Verification(false, null);
+                }
+                String upgradedHash = passwordEncoder.upgradeEncoding(encodedPassword)
+                        ? passwordEncoder.encode(rawPassword)
+                        : null;
+                return new Verification(true, upgradedHash);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new LoginCapacityExceededException("Too many login attempts in progress, please retry"));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        ioExecutor.shutdown();
+    }
+}
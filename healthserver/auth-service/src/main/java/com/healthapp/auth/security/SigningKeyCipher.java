@@ -0,0 +1,80 @@
+package com.healthapp.auth.security;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Chiffrement au repos des clés privées JWT (jwt_signing_keys) : AES-256-GCM
+ * ✅ Clé AES dérivée (SHA-256) du secret app.jwt.signing.key-encryption-key, jamais stockée dans MongoDB
+ * ✅ kid en données authentifiées : une clé chiffrée recopiée sur un autre kid ne se déchiffre pas
+ * ✅ Format "aesgcm:" + Base64(IV 12 octets + chiffré + tag) ; sans préfixe = ancienne clé en clair
+ */
+public class SigningKeyCipher {
+
+    private static final String PREFIX = "aesgcm:";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    private final SecretKeySpec key;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public SigningKeyCipher(String secret) {
+        if (secret == null || secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("app.jwt.signing.key-encryption-key (JWT_KEY_ENCRYPTION_KEY) requis : au moins "
+                    + MIN_SECRET_LENGTH + " caractères");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            this.key = new SecretKeySpec(digest, "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    public static boolean isEncrypted(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    /**
+     * @param encoded clé privée PKCS#8
+     * @param kid     identifiant de la clé, lié au chiffré
+     */
+    public String encrypt(byte[] encoded, String kid) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        byte[] sealed = cipher.doFinal(encoded);
+
+        byte[] out = Arrays.copyOf(iv, IV_LENGTH + sealed.length);
+        System.arraycopy(sealed, 0, out, IV_LENGTH, sealed.length);
+        return PREFIX + Base64.getEncoder().encodeToString(out);
+    }
+
+    /**
+     * @return clé privée PKCS#8
+     * @throws GeneralSecurityException si le secret ou le kid ne correspondent pas (tag GCM invalide)
+     */
+    public byte[] decrypt(String stored, String kid) throws GeneralSecurityException {
+        if (!isEncrypted(stored)) {
+            throw new IllegalArgumentException("Clé privée non chiffrée");
+        }
+        byte[] in = Base64.getDecoder().decode(stored.substring(PREFIX.length()));
+        if (in.length <= IV_LENGTH) {
+            throw new IllegalArgumentException("Clé privée chiffrée tronquée");
+        }
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, in, 0, IV_LENGTH));
+        cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(in, IV_LENGTH, in.length - IV_LENGTH);
+    }
+}
@@ -5,20 +5,19 @@ import com.healthapp.auth.dto.request.RefreshTokenRequest;
 import com.healthapp.auth.dto.request.RegisterRequest;
 import com.healthapp.auth.dto.response.AuthResponse;
 import com.healthapp.auth.dto.response.UserResponse;
-import com.healthapp.auth.entity.RefreshToken;
 import com.healthapp.auth.entity.User;
 import com.healthapp.auth.Enums.UserRole;
-import com.healthapp.auth.exception.InvalidTokenException;
 import com.healthapp.auth.exception.UserAlreadyExistsException;
-import com.healthapp.auth.repository.RefreshTokenRepository;
 import com.healthapp.auth.repository.UserRepository;
 import com.healthapp.auth.security.JwtSecurity;
+import com.healthapp.auth.security.JwtTokenMinter;
+import com.healthapp.auth.security.LoginPasswordVerifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-//import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.authentication.AccountExpiredException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -26,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @RequiredArgsConstructor
@@ -34,10 +34,12 @@ import java.util.Set;
 public class AuthService {
     
     private final UserRepository userRepository;
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenService refreshTokenService;
     private final PasswordEncoder passwordEncoder;
-    private final JwtSecurity jwtService;
-    private final AuthenticationManager authenticationManager;
+    private final JwtTokenMinter tokenMinter;
+    private final JwtSecurity jwtSecurity;
+    private final LoginPasswordVerifier passwordVerifier;
+    private final LoginAttemptService loginAttemptService;
     
     /**
      * Enregistrement d'un utilisateur normal
@@ -55,13 +57,13 @@ public class AuthService {
         
         log.info("User registered successfully: {} with role: {}", savedUser.getEmail(), request.getRole());
         
-        String accessToken = jwtService.generateToken(savedUser);
-        RefreshToken refreshToken = createRefreshToken(savedUser);
+        String accessToken = tokenMinter.mint(savedUser);
+        String refreshToken = refreshTokenService.issue(savedUser.getId());
         
         return AuthResponse.builder()
                 .accessToken(accessToken)
-                .refreshToken(refreshToken.getToken())
-                .expiresIn(jwtService.getAccessTokenExpiration() / 1000)
+                .refreshToken(refreshToken)
+                .expiresIn(tokenMinter.getAccessTokenExpiration() / 1000)
                 .user(mapToUserResponse(savedUser))
                 .build();
     }
@@ -90,84 +92,100 @@ public class AuthService {
                 .build();
     }
     
-    public AuthResponse login(LoginRequest request) {
+    /**
+     * Connexion : une lecture de l'utilisateur, hash vérifié sur le pool dédié, un $set ciblé en cas de succès
+     * Mêmes contrôles que DaoAuthenticationProvider + CustomUserDetailsService, sans recharger l'utilisateur
+     */
+    public CompletableFuture<AuthResponse> login(LoginRequest request) {
         log.info("Attempting login for email: {}", request.getEmail());
         
-        if (!userRepository.existsByEmail(request.getEmail())) {
-            log.warn("Login attempt with non-existent email: {}", request.getEmail());
-            throw new UsernameNotFoundException("No account found with this email address");
-        }
+        User user = userRepository.findByEmail(request.getEmail())
+                .orElseThrow(() -> {
+                    log.warn("Login attempt with non-existent email: {}", request.getEmail());
+                    return new UsernameNotFoundException("No account found with this email address");
+                });
+        checkAccountStatus(user);
         
-        try {
-            authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            request.getEmail(),
-                            request.getPassword()
-                    )
-            );
-            
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            user.resetFailedLoginAttempts();
-            user.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(user);
-            
-            String accessToken = jwtService.generateToken(user);
-            RefreshToken refreshToken = createRefreshToken(user);
-            
-            log.info("User logged in successfully: {}", user.getEmail());
-            
-            return AuthResponse.builder()
-                    .accessToken(accessToken)
-                    .refreshToken(refreshToken.getToken())
-                    .expiresIn(jwtService.getAccessTokenExpiration() / 1000)
-                    .user(mapToUserResponse(user))
-                    .build();
+        // La suite (MongoDB) s'exécute sur le pool I/O, pas sur le thread qui a vérifié le mot de passe
+        return passwordVerifier.verify(request.getPassword(), user.getPassword())
+                .thenApplyAsync(verification -> {
+                    if (!verification.matches()) {
+                        int attempts = loginAttemptService.recordFailure(user.getId());
+                        log.warn("Authentication failed for email: {} ({} failed attempts)", request.getEmail(), attempts);
+                        throw new BadCredentialsException("Bad credentials");
+                    }
                     
-        } catch (AuthenticationException e) {
-            User user = userRepository.findByEmail(request.getEmail()).orElse(null);
-            if (user != null) {
-                user.incrementFailedLoginAttempts();
-                userRepository.save(user);
-            }
-            log.warn("Authentication failed for email: {}", request.getEmail());
-            throw e;
+                    LocalDateTime now = LocalDateTime.now();
+                    userRepository.recordSuccessfulLogin(user.getId(), now);
+                    user.setFailedLoginAttempts(0);
+                    user.setLastLoginAt(now);
+                    upgradePasswordHash(user, verification.upgradedHash());
+                    
+                    String accessToken = tokenMinter.mint(user);
+                    String refreshToken = refreshTokenService.issue(user.getId());
+                    
+                    log.info("User logged in successfully: {}", user.getEmail());
+                    
+                    return AuthResponse.builder()
+                            .accessToken(accessToken)
+                            .refreshToken(refreshToken)
+                            .expiresIn(tokenMinter.getAccessTokenExpiration() / 1000)
+                            .user(mapToUserResponse(user))
+                            .build();
+                }, passwordVerifier.ioExecutor());
+    }
+    
+    /**
+     * Hash refait avec les réglages actuels (app.auth.password-hashing), sauf si le mot de passe a changé entre-temps
+     */
+    private void upgradePasswordHash(User user, String upgradedHash) {
+        if (upgradedHash != null
+                && userRepository.replacePasswordHash(user.getId(), user.getPassword(), upgradedHash) > 0) {
+            user.setPassword(upgradedHash);
+            log.info("Password hash upgraded for user: {}", user.getEmail());
+        }
+    }
+    
+    /**
+     * Contrôles faits avant le mot de passe (comme les pre-authentication checks de Spring Security)
+     */
+    private void checkAccountStatus(User user) {
+        if (user.isDoctor() && !Boolean.TRUE.equals(user.getIsActivated())) {
+            throw new DisabledException("Your account is pending admin approval. You will receive an email once activated.");
+        }
+        if (!user.isAccountNonLocked()) {
+            throw new LockedException("User account is locked");
+        }
+        if (!user.isEnabled()) {
+            throw new DisabledException("User is disabled");
+        }
+        if (!user.isAccountNonExpired()) {
+            throw new AccountExpiredException("User account has expired");
         }
     }
 
+    /**
+     * Rotation : l'ancien refresh token est remplacé atomiquement, un token déjà échangé révoque sa famille
+     */
     public AuthResponse refreshToken(RefreshTokenRequest request) {
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(request.getRefreshToken())
-                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
-        
-        if (!refreshToken.isValid()) {
-            refreshTokenRepository.delete(refreshToken);
-            throw new InvalidTokenException("Refresh token expired or revoked");
-        }
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
         
-        User user = userRepository.findById(refreshToken.getUserId())
+        User user = userRepository.findById(rotation.userId())
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        refreshToken.revoke();
-        refreshTokenRepository.save(refreshToken);
-        
-        String newAccessToken = jwtService.generateToken(user);
-        RefreshToken newRefreshToken = createRefreshToken(user);
+        String newAccessToken = tokenMinter.mint(user);
         
         return AuthResponse.builder()
                 .accessToken(newAccessToken)
-                .refreshToken(newRefreshToken.getToken())
-                .expiresIn(jwtService.getAccessTokenExpiration() / 1000)
+                .refreshToken(rotation.refreshToken())
+                .expiresIn(tokenMinter.getAccessTokenExpiration() / 1000)
                 .user(mapToUserResponse(user))
                 .build();
     }
     
     public void logout(String refreshToken) {
-        refreshTokenRepository.findByToken(refreshToken)
-                .ifPresent(token -> {
-                    token.revoke();
-                    refreshTokenRepository.save(token);
-                });
+        refreshTokenService.revoke(refreshToken)
+                .ifPresent(jwtSecurity::invalidateUser);
     }
     
     /**
@@ -223,16 +241,6 @@ public class AuthService {
         return userBuilder.build();
     }
     
-    private RefreshToken createRefreshToken(User user) {
-        RefreshToken refreshToken = RefreshToken.builder()
-                .userId(user.getId())
-                .token(jwtService.generateRefreshToken(user))
-                .expiryDate(LocalDateTime.now().plusDays(7))
-                .build();
-        
-        return refreshTokenRepository.save(refreshToken);
-    }
-    
     private UserResponse mapToUserResponse(User user) {
         return UserResponse.builder()
                 .id(user.getId())
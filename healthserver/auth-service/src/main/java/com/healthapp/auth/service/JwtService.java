@@ -1,122 +0,0 @@
-package com.healthapp.auth.service;
-
-import com.healthapp.auth.config.JwtConfig;
-import com.healthapp.auth.entity.User;
-import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Service;
-
-import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-
-@Service
-@RequiredArgsConstructor
-@Slf4j
-public class JwtService {
-    
-    private final JwtConfig jwtConfig;
-    
-    public String generateAccessToken(User user) {
-        Map<String, Object> claims = buildAccessTokenClaims(user);
-        return generateToken(claims, user.getEmail(), jwtConfig.getAccessTokenExpiration());
-    }
-    
-    public String generateRefreshToken(User user) {
-        return generateToken(new HashMap<>(), user.getEmail(), jwtConfig.getRefreshTokenExpiration());
-    }
-    
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-    
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-    
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-    
-    public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return extractedUsername.equals(username) && !isTokenExpired(token);
-    }
-    
-    private String generateToken(Map<String, Object> extraClaims, String subject, long expiration) {
-        return Jwts.builder()
-                .claims(extraClaims)
-                .subject(subject)
-                .issuer(jwtConfig.getIssuer())
-                .issuedAt(new Date(System.currentTimeMillis()))
-                .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
-                .compact();
-    }
-    
-    private Claims extractAllClaims(String token) {
-        try {
-            return Jwts.parser()
-                    .verifyWith(getSignInKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-        } catch (ExpiredJwtException e) {
-            log.warn("JWT token is expired: {}", e.getMessage());
-            throw e;
-        } catch (UnsupportedJwtException e) {
-            log.error("JWT token is unsupported: {}", e.getMessage());
-            throw e;
-        } catch (MalformedJwtException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-            throw e;
-        } catch (SecurityException e) {
-            log.error("Invalid JWT signature: {}", e.getMessage());
-            throw e;
-        } catch (IllegalArgumentException e) {
-            log.error("JWT token compact of handler are invalid: {}", e.getMessage());
-            throw e;
-        }
-    }
-    
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-    
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = jwtConfig.getSecret().getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-    
-     private Map<String, Object> buildAccessTokenClaims(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("user_id", user.getId());
-        claims.put("email", user.getEmail());
-        claims.put("full_name", user.getFullName());
-        
-        // Convertir les rôles en liste de strings
-        List<String> roles = user.getRoles().stream()
-                .map(Enum::name)
-                .collect(Collectors.toList());
-        claims.put("roles", roles);
-        
-        claims.put("is_activated", user.getIsActivated());
-        claims.put("account_status", user.getAccountStatus().name());
-        
-        return claims;
-    }
-    
-    // public long getAccessTokenExpiration() {
-    //     return jwtConfig.getExpiration();
-    // }
-    public long getAccessTokenExpiration() {
-        return jwtConfig.getAccessTokenExpiration();
-    }
-}
@@ -0,0 +1,61 @@
+package com.healthapp.auth.service;
+
+import com.healthapp.auth.Enums.AccountStatus;
+import com.healthapp.auth.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * Échecs de connexion comptés dans MongoDB, sans lecture-modification-écriture
+ * ✅ $inc atomique (findAndModify) : aucun échec perdu quand plusieurs tentatives arrivent en même temps
+ * ✅ Verrouillage conditionnel (accountStatus != LOCKED) : une seule tentative fait la transition
+ * ✅ Mises à jour de quelques champs, le document utilisateur n'est jamais réécrit
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LoginAttemptService {
+
+    private static final String FAILED_LOGIN_ATTEMPTS = "failedLoginAttempts";
+    private static final String ACCOUNT_STATUS = "accountStatus";
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Compte un échec et verrouille le compte au seuil (User.MAX_FAILED_LOGIN_ATTEMPTS)
+     * @return nombre d'échecs après cette tentative
+     */
+    public int recordFailure(String userId) {
+        Query byId = new Query(Criteria.where("_id").is(userId));
+        byId.fields().include(FAILED_LOGIN_ATTEMPTS);
+        User updated = mongoTemplate.findAndModify(byId,
+                new Update().inc(FAILED_LOGIN_ATTEMPTS, 1),
+                FindAndModifyOptions.options().returnNew(true),
+                User.class);
+        if (updated == null) {
+            return 0;
+        }
+
+        int attempts = updated.getFailedLoginAttempts();
+        if (attempts >= User.MAX_FAILED_LOGIN_ATTEMPTS) {
+            lock(userId, attempts);
+        }
+        return attempts;
+    }
+
+    private void lock(String userId, int attempts) {
+        Query notLocked = new Query(Criteria.where("_id").is(userId)
+                .and(ACCOUNT_STATUS).ne(AccountStatus.LOCKED));
+        long modified = mongoTemplate.updateFirst(notLocked,
+                new Update().set(ACCOUNT_STATUS, AccountStatus.LOCKED), User.class).getModifiedCount();
+        if (modified > 0) {
+            log.warn("🔒 Compte {} verrouillé après {} échecs de connexion", userId, attempts);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.healthapp.auth.service;
+
+import com.healthapp.auth.entity.RefreshToken;
+import com.healthapp.auth.exception.InvalidTokenException;
+import com.healthapp.auth.repository.RefreshTokenRepository;
+import com.healthapp.auth.security.JwtSecurity;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Refresh tokens opaques (256 bits aléatoires), stockés sous forme de SHA-256
+ * ✅ Recherche par hash (index unique) : coût constant quel que soit le nombre d'utilisateurs
+ * ✅ Rotation = un seul findAndModify qui remplace le hash courant (pas de document par rotation)
+ * ✅ Réutilisation de l'un des derniers tokens échangés (app.jwt.refresh-token.spent-history) :
+ *    la famille est supprimée, toutes ses sessions sont coupées
+ * ✅ Expiration glissante (app.jwt.refresh-token.expiration) dans une durée de vie absolue
+ *    (app.jwt.refresh-token.max-lifetime), nettoyage par les index TTL
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final MongoTemplate mongoTemplate;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtSecurity jwtSecurity;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.jwt.refresh-token.expiration}")
+    private long refreshExpiration;
+
+    @Value("${app.jwt.refresh-token.max-lifetime:2592000000}")
+    private long maxLifetime;
+
+    @Value("${app.jwt.refresh-token.spent-history:20}")
+    private int spentHistory;
+
+    private volatile boolean indexesReady;
+
+    /**
+     * Token échangé : nouvelle valeur et utilisateur de la famille
+     */
+    public record Rotation(String userId, String refreshToken) {
+    }
+
+    /**
+     * Nouvelle famille (connexion, inscription)
+     * @return token à remettre au client (seul son hash est enregistré)
+     */
+    public String issue(String userId) {
+        ensureIndexes();
+        String token = newToken();
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .tokenHash(digest(token))
+                .expiryDate(now.plus(Duration.ofMillis(refreshExpiration)))
+                .familyExpiresAt(now.plus(Duration.ofMillis(maxLifetime)))
+                .build());
+        return token;
+    }
+
+    /**
+     * Échange atomique du token courant contre un nouveau
+     * @throws InvalidTokenException si le token est inconnu, expiré (glissant ou absolu) ou déjà utilisé
+     */
+    public Rotation rotate(String token) {
+        String hash = digest(token);
+        String next = newToken();
+        LocalDateTime now = LocalDateTime.now();
+
+        Update update = new Update()
+                .set("tokenHash", digest(next))
+                .set("rotatedAt", now)
+                .set("expiryDate", now.plus(Duration.ofMillis(refreshExpiration)));
+        update.push("spentTokenHashes").slice(-spentHistory).each(hash);
+        RefreshToken family = mongoTemplate.findAndModify(
+                new Query(Criteria.where("tokenHash").is(hash)
+                        .and("expiryDate").gt(now)
+                        .and("familyExpiresAt").gt(now)),
+                update,
+                FindAndModifyOptions.options().returnNew(false),
+                RefreshToken.class);
+        if (family != null) {
+            return new Rotation(family.getUserId(), next);
+        }
+
+        // Token déjà échangé : volé ou rejoué, la famille entière est révoquée
+        RefreshToken reused = mongoTemplate.findAndRemove(
+                new Query(Criteria.where("spentTokenHashes").is(hash)), RefreshToken.class);
+        if (reused != null) {
+            log.warn("🚨 Refresh token réutilisé pour l'utilisateur {} : famille {} révoquée",
+                    reused.getUserId(), reused.getId());
+            jwtSecurity.invalidateUser(reused.getUserId());
+            throw new InvalidTokenException("Refresh token reuse detected, please log in again");
+        }
+        throw new InvalidTokenException("Invalid or expired refresh token");
+    }
+
+    /**
+     * Déconnexion : supprime la famille du token
+     * @return utilisateur de la famille, vide si le token est inconnu
+     */
+    public Optional<String> revoke(String token) {
+        RefreshToken family = mongoTemplate.findAndRemove(
+                new Query(Criteria.where("tokenHash").is(digest(token))), RefreshToken.class);
+        return Optional.ofNullable(family).map(RefreshToken::getUserId);
+    }
+
+    private String newToken() {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return ENCODER.encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    /**
+     * Crée les index déclarés sur RefreshToken (hash unique, TTL sur expiryDate)
+     */
+    private void ensureIndexes() {
+        if (indexesReady) {
+            return;
+        }
+        IndexOperations indexOps = mongoTemplate.indexOps(RefreshToken.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(RefreshToken.class)
+                .forEach(indexOps::ensureIndex);
+        indexesReady = true;
+    }
+}
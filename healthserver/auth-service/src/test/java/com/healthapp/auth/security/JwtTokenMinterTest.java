@@ -0,0 +1,155 @@
+package com.healthapp.auth.security;
+
+import com.healthapp.auth.Enums.AccountStatus;
+import com.healthapp.auth.Enums.UserRole;
+import com.healthapp.auth.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtTokenMinterTest {
+
+    private static final String SECRET = "test-jwt-secret-0123456789abcdef0123456789abcdef";
+    private static final long EXPIRATION = 900_000;
+
+    private final JwtKeyRing keyRing = mock(JwtKeyRing.class);
+    private final JwtTokenMinter minter = new JwtTokenMinter(keyRing);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(minter, "secretKey", SECRET);
+        ReflectionTestUtils.setField(minter, "jwtExpiration", EXPIRATION);
+        ReflectionTestUtils.setField(minter, "issuer", "health-app");
+        minter.init();
+    }
+
+    @Test
+    void hmacTokenIsAcceptedByJjwt() {
+        when(keyRing.isHmacSigning()).thenReturn(true);
+
+        Jws<Claims> jws = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(minter.mint(user()));
+
+        assertThat(jws.getHeader().getAlgorithm()).isEqualTo("HS384");
+        assertThat(jws.getHeader().getKeyId()).isNull();
+        assertClaims(jws.getPayload());
+    }
+
+    @Test
+    void rsaTokenIsAcceptedByJjwt() {
+        assertAsymmetricToken(Jwts.SIG.RS256, Jwts.SIG.RS256.keyPair().build(), "RS256");
+    }
+
+    @Test
+    void eddsaTokenIsAcceptedByJjwt() {
+        // Même courbe que JwtKeyRing.generate() (Jwts.SIG.EdDSA seul génère de l'Ed448)
+        assertAsymmetricToken(Jwts.SIG.EdDSA, Jwks.CRV.Ed25519.keyPair().build(), "EdDSA");
+    }
+
+    @Test
+    void escapesJsonAndOmitsNullClaims() {
+        when(keyRing.isHmacSigning()).thenReturn(true);
+        User user = User.builder()
+                .id("user-2")
+                .email("quote\"back\\slash@example.com")
+                .firstName("Line\nBreak")
+                .lastName("\u0001")
+                .roles(null)
+                .isActivated(null)
+                .accountStatus(null)
+                .build();
+
+        Claims claims = parse(minter.mint(user));
+
+        assertThat(claims.getSubject()).isEqualTo("quote\"back\\slash@example.com");
+        assertThat(claims.get("full_name", String.class)).isEqualTo("Line\nBreak \u0001");
+        assertThat(claims).doesNotContainKeys("roles", "is_activated", "account_status");
+    }
+
+    @Test
+    void batchTokensShareIssuedAtAndKeepOrder() {
+        when(keyRing.isHmacSigning()).thenReturn(true);
+        User second = user();
+        second.setId("user-2");
+        second.setEmail("b@example.com");
+
+        List<String> tokens = minter.mint(List.of(user(), second));
+
+        Claims first = parse(tokens.get(0));
+        Claims other = parse(tokens.get(1));
+        assertThat(first.get("user_id")).isEqualTo("user-1");
+        assertThat(other.get("user_id")).isEqualTo("user-2");
+        assertThat(other.getIssuedAt()).isEqualTo(first.getIssuedAt());
+    }
+
+    @Test
+    void refusesToMintWithoutActiveKey() {
+        when(keyRing.isHmacSigning()).thenReturn(false);
+
+        assertThatThrownBy(() -> minter.mint(user())).isInstanceOf(IllegalStateException.class);
+    }
+
+    private void assertAsymmetricToken(SignatureAlgorithm algorithm, KeyPair pair, String alg) {
+        when(keyRing.isHmacSigning()).thenReturn(false);
+        when(keyRing.activeKey()).thenReturn(new JwtKeyRing.ActiveKey("kid-1", pair.getPrivate(), algorithm));
+
+        Jws<Claims> jws = Jwts.parser()
+                .verifyWith(pair.getPublic())
+                .build()
+                .parseSignedClaims(minter.mint(user()));
+
+        assertThat(jws.getHeader().getAlgorithm()).isEqualTo(alg);
+        assertThat(jws.getHeader().getKeyId()).isEqualTo("kid-1");
+        assertClaims(jws.getPayload());
+    }
+
+    private static void assertClaims(Claims claims) {
+        assertThat(claims.getSubject()).isEqualTo("a@example.com");
+        assertThat(claims.getIssuer()).isEqualTo("health-app");
+        assertThat(claims.get("user_id")).isEqualTo("user-1");
+        assertThat(claims.get("email")).isEqualTo("a@example.com");
+        assertThat(claims.get("full_name")).isEqualTo("Amira Ben Ali");
+        assertThat(claims.get("roles", List.class)).containsExactly("USER");
+        assertThat(claims.get("is_activated")).isEqualTo(true);
+        assertThat(claims.get("account_status")).isEqualTo("ACTIVE");
+        assertThat(claims.getExpiration().getTime() - claims.getIssuedAt().getTime()).isEqualTo(EXPIRATION);
+    }
+
+    private static Claims parse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static User user() {
+        return User.builder()
+                .id("user-1")
+                .email("a@example.com")
+                .firstName("Amira")
+                .lastName("Ben Ali")
+                .roles(Set.of(UserRole.USER))
+                .isActivated(true)
+                .accountStatus(AccountStatus.ACTIVE)
+                .build();
+    }
+}
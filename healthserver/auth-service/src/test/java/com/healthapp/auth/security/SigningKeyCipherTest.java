@@ -0,0 +1,61 @@
+package com.healthapp.auth.security;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.AEADBadTagException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeyCipherTest {
+
+    private static final String SECRET = "test-key-encryption-key-0123456789ab";
+    private static final byte[] PRIVATE_KEY = "pkcs8-private-key-bytes".getBytes(StandardCharsets.UTF_8);
+
+    private final SigningKeyCipher cipher = new SigningKeyCipher(SECRET);
+
+    @Test
+    void decryptsWhatItEncrypted() throws GeneralSecurityException {
+        String stored = cipher.encrypt(PRIVATE_KEY, "kid-1");
+
+        assertThat(SigningKeyCipher.isEncrypted(stored)).isTrue();
+        assertThat(stored).doesNotContain("pkcs8");
+        assertThat(cipher.decrypt(stored, "kid-1")).isEqualTo(PRIVATE_KEY);
+    }
+
+    @Test
+    void usesFreshIvForEachEncryption() throws GeneralSecurityException {
+        assertThat(cipher.encrypt(PRIVATE_KEY, "kid-1")).isNotEqualTo(cipher.encrypt(PRIVATE_KEY, "kid-1"));
+    }
+
+    @Test
+    void rejectsKeyCopiedToAnotherKid() throws GeneralSecurityException {
+        String stored = cipher.encrypt(PRIVATE_KEY, "kid-1");
+
+        assertThatThrownBy(() -> cipher.decrypt(stored, "kid-2")).isInstanceOf(AEADBadTagException.class);
+    }
+
+    @Test
+    void rejectsWrongSecret() throws GeneralSecurityException {
+        String stored = cipher.encrypt(PRIVATE_KEY, "kid-1");
+        SigningKeyCipher other = new SigningKeyCipher("another-key-encryption-key-0123456789");
+
+        assertThatThrownBy(() -> other.decrypt(stored, "kid-1")).isInstanceOf(AEADBadTagException.class);
+    }
+
+    @Test
+    void rejectsPlainOrTruncatedKeys() {
+        assertThat(SigningKeyCipher.isEncrypted("MIIEvQIBADAN")).isFalse();
+        assertThat(SigningKeyCipher.isEncrypted(null)).isFalse();
+        assertThatThrownBy(() -> cipher.decrypt("MIIEvQIBADAN", "kid-1")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> cipher.decrypt("aesgcm:AAAA", "kid-1")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void requiresLongSecret() {
+        assertThatThrownBy(() -> new SigningKeyCipher("too-short")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new SigningKeyCipher(null)).isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,139 @@
+package com.healthapp.auth.service;
+
+import com.healthapp.auth.entity.RefreshToken;
+import com.healthapp.auth.exception.InvalidTokenException;
+import com.healthapp.auth.repository.RefreshTokenRepository;
+import com.healthapp.auth.security.JwtSecurity;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RefreshTokenServiceTest {
+
+    private static final long EXPIRATION = Duration.ofDays(7).toMillis();
+    private static final long MAX_LIFETIME = Duration.ofDays(30).toMillis();
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final JwtSecurity jwtSecurity = mock(JwtSecurity.class);
+    private final RefreshTokenService service = new RefreshTokenService(mongoTemplate, repository, jwtSecurity);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "refreshExpiration", EXPIRATION);
+        ReflectionTestUtils.setField(service, "maxLifetime", MAX_LIFETIME);
+        ReflectionTestUtils.setField(service, "spentHistory", 20);
+        // Index déjà créés : pas de MappingContext dans un MongoTemplate simulé
+        ReflectionTestUtils.setField(service, "indexesReady", true);
+    }
+
+    @Test
+    void issueStoresHashWithSlidingAndAbsoluteExpiry() {
+        LocalDateTime before = LocalDateTime.now();
+        String token = service.issue("user-1");
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(saved.capture());
+        RefreshToken family = saved.getValue();
+        assertThat(family.getUserId()).isEqualTo("user-1");
+        assertThat(family.getTokenHash()).isEqualTo(digest(token)).isNotEqualTo(token);
+        assertThat(family.getExpiryDate()).isAfterOrEqualTo(before.plus(Duration.ofMillis(EXPIRATION)));
+        assertThat(family.getFamilyExpiresAt()).isAfterOrEqualTo(before.plus(Duration.ofMillis(MAX_LIFETIME)));
+    }
+
+    @Test
+    void rotateReplacesHashAndKeepsSpentHistory() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(RefreshToken.class)))
+                .thenReturn(RefreshToken.builder().id("family-1").userId("user-1").build());
+
+        RefreshTokenService.Rotation rotation = service.rotate("old-token");
+
+        assertThat(rotation.userId()).isEqualTo("user-1");
+        assertThat(rotation.refreshToken()).isNotEqualTo("old-token");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(),
+                any(FindAndModifyOptions.class), eq(RefreshToken.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertThat(criteria.getString("tokenHash")).isEqualTo(digest("old-token"));
+        assertThat(criteria).containsKeys("expiryDate", "familyExpiresAt");
+
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertThat(set.getString("tokenHash")).isEqualTo(digest(rotation.refreshToken()));
+        Update.Modifiers push = update.getValue().getUpdateObject().get("$push", Document.class)
+                .get("spentTokenHashes", Update.Modifiers.class);
+        Map<String, Object> modifiers = push.getModifiers().stream()
+                .collect(Collectors.toMap(Update.Modifier::getKey, Update.Modifier::getValue));
+        assertThat((Object[]) modifiers.get("$each")).containsExactly(digest("old-token"));
+        assertThat(modifiers.get("$slice")).isEqualTo(-20);
+        verify(jwtSecurity, never()).invalidateUser(any());
+    }
+
+    @Test
+    void reusedTokenRevokesFamilyAndUserSessions() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(RefreshToken.class)))
+                .thenReturn(RefreshToken.builder().id("family-1").userId("user-1").build());
+
+        assertThatThrownBy(() -> service.rotate("spent-token"))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("reuse");
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndRemove(query.capture(), eq(RefreshToken.class));
+        assertThat(query.getValue().getQueryObject().getString("spentTokenHashes")).isEqualTo(digest("spent-token"));
+        verify(jwtSecurity).invalidateUser("user-1");
+    }
+
+    @Test
+    void unknownTokenIsRejectedWithoutRevocation() {
+        assertThatThrownBy(() -> service.rotate("unknown-token"))
+                .isInstanceOf(InvalidTokenException.class)
+                .hasMessageContaining("Invalid or expired");
+
+        verify(jwtSecurity, never()).invalidateUser(any());
+    }
+
+    @Test
+    void revokeReturnsFamilyOwner() {
+        when(mongoTemplate.findAndRemove(any(Query.class), eq(RefreshToken.class)))
+                .thenReturn(RefreshToken.builder().userId("user-1").build())
+                .thenReturn(null);
+
+        assertThat(service.revoke("token")).contains("user-1");
+        assertThat(service.revoke("token")).isEmpty();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.healthsync.benchmarks;
+
+import com.example.healthsync.codec.HeartRateCodec;
+import com.mongodb.MongoClientSettings;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.types.Binary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Échantillons cardiaques d'une journée : tableau BSON d'Int64 (stockage par défaut)
+ * contre HeartRateCodec (delta + varint dans un champ binaire)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HeartRateCodecBenchmark {
+
+    // 1 / 5 min, 1 / 5 s, 1 / s sur 24 h
+    @Param({"288", "17280", "86400"})
+    private int samples;
+
+    private Codec<Document> documentCodec;
+    private long[] values;
+    private List<Long> boxed;
+    private byte[] encoded;
+    private RawBsonDocument bsonArray;
+    private RawBsonDocument bsonBinary;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+        values = Payloads.heartRateSamples(samples);
+        boxed = new ArrayList<>(values.length);
+        for (long value : values) {
+            boxed.add(value);
+        }
+        encoded = HeartRateCodec.encode(values);
+        bsonArray = new RawBsonDocument(new Document("samples", boxed), documentCodec);
+        bsonBinary = new RawBsonDocument(new Document("encodedSamples", encoded), documentCodec);
+    }
+
+    @Benchmark
+    public RawBsonDocument encodeBsonArray() {
+        return new RawBsonDocument(new Document("samples", boxed), documentCodec);
+    }
+
+    @Benchmark
+    public RawBsonDocument encodeDeltaVarint() {
+        return new RawBsonDocument(new Document("encodedSamples", HeartRateCodec.encode(values)), documentCodec);
+    }
+
+    @Benchmark
+    public Object decodeBsonArray() {
+        return documentCodec.decode(bsonArray.asBsonReader(), DecoderContext.builder().build()).get("samples");
+    }
+
+    @Benchmark
+    public long[] decodeDeltaVarint() {
+        Document document = documentCodec.decode(bsonBinary.asBsonReader(), DecoderContext.builder().build());
+        return HeartRateCodec.decode(document.get("encodedSamples", Binary.class).getData());
+    }
+
+    @Benchmark
+    public long[] toArrayFromBoxed() {
+        return HeartRateCodec.toArray(boxed);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.healthsync.benchmarks;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.service.BiometricDataMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.mongodb.MongoClientSettings;
+import io.airlift.compress.zstd.ZstdInputStream;
+import io.airlift.compress.zstd.ZstdOutputStream;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Coût de chaque étape de POST /fetch, hors aller-retour MongoDB :
+ * décompression, parsing JSON, mapping HealthData → BiometricData, encodage BSON,
+ * et sérialisation JSON des documents (réponse de GET /fetch/user/{userId}).
+ *
+ * java -jar target/benchmarks.jar IngestionBenchmark -p days=7 -p heartRate=dense
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestionBenchmark {
+
+    @Param({"1", "7", "90"})
+    private int days;
+
+    // sparse = 1 échantillon / 5 min, dense = 1 échantillon / 5 s
+    @Param({"sparse", "dense"})
+    private String heartRate;
+
+    private ObjectMapper objectMapper;
+    private MappingMongoConverter converter;
+    private Codec<Document> documentCodec;
+
+    private byte[] json;
+    private byte[] gzipJson;
+    private byte[] zstdJson;
+    private HealthData healthData;
+    private List<BiometricData> documents;
+    private List<BiometricData> encodedDocuments;
+    private LocalDateTime receivedAt;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+        receivedAt = LocalDateTime.now();
+        json = objectMapper.writeValueAsBytes(Payloads.healthData(days, "dense".equals(heartRate) ? 5 : 300));
+        gzipJson = compress(json, false);
+        zstdJson = compress(json, true);
+        healthData = objectMapper.readValue(json, HealthData.class);
+        documents = map(false);
+        encodedDocuments = map(true);
+    }
+
+    @Benchmark
+    public HealthData parseJson() throws IOException {
+        return objectMapper.readValue(json, HealthData.class);
+    }
+
+    @Benchmark
+    public HealthData parseGzipJson() throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipJson))) {
+            return objectMapper.readValue(in, HealthData.class);
+        }
+    }
+
+    @Benchmark
+    public HealthData parseZstdJson() throws IOException {
+        try (InputStream in = new ZstdInputStream(new ByteArrayInputStream(zstdJson))) {
+            return objectMapper.readValue(in, HealthData.class);
+        }
+    }
+
+    @Benchmark
+    public List<BiometricData> mapDays() {
+        return map(false);
+    }
+
+    @Benchmark
+    public List<BiometricData> mapDaysEncodedHeartRate() {
+        return map(true);
+    }
+
+    @Benchmark
+    public void bsonEncode(Blackhole blackhole) {
+        encode(documents, blackhole);
+    }
+
+    @Benchmark
+    public void bsonEncodeEncodedHeartRate(Blackhole blackhole) {
+        encode(encodedDocuments, blackhole);
+    }
+
+    @Benchmark
+    public byte[] serializeDocuments() throws IOException {
+        return objectMapper.writeValueAsBytes(documents);
+    }
+
+    private List<BiometricData> map(boolean encodeHeartRate) {
+        List<BiometricData> mapped = new ArrayList<>(healthData.getDailyData().size());
+        for (HealthData.DailyData day : healthData.getDailyData()) {
+            mapped.add(BiometricDataMapper.toBiometricData(healthData.getUserId(), receivedAt, day, encodeHeartRate));
+        }
+        return mapped;
+    }
+
+    private void encode(List<BiometricData> source, Blackhole blackhole) {
+        for (BiometricData data : source) {
+            Document document = new Document();
+            converter.write(data, document);
+            blackhole.consume(new RawBsonDocument(document, documentCodec));
+        }
+    }
+
+    private static byte[] compress(byte[] data, boolean zstd) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = zstd ? new ZstdOutputStream(bytes) : new GZIPOutputStream(bytes)) {
+            out.write(data);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.healthsync.benchmarks;
+
+import com.example.healthsync.model.HealthData;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Payloads réalistes de l'app Android (mêmes champs et formats que UserMetricsActivity)
+ */
+final class Payloads {
+
+    private static final DateTimeFormatter PHONE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private Payloads() {
+    }
+
+    /**
+     * @param hrIntervalSeconds intervalle entre deux échantillons cardiaques (300 = montre en veille, 5 = suivi continu)
+     */
+    static HealthData healthData(int days, int hrIntervalSeconds) {
+        Random random = new Random(42);
+        HealthData healthData = new HealthData();
+        healthData.setUserId("bench-user");
+        List<HealthData.DailyData> dailyData = new ArrayList<>(days);
+        LocalDate first = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < days; i++) {
+            dailyData.add(day(first.plusDays(i), hrIntervalSeconds, random));
+        }
+        healthData.setDailyData(dailyData);
+        return healthData;
+    }
+
+    static long[] heartRateSamples(int count) {
+        Random random = new Random(42);
+        long[] samples = new long[count];
+        long bpm = 70;
+        for (int i = 0; i < count; i++) {
+            bpm = Math.max(45, Math.min(180, bpm + random.nextInt(5) - 2));
+            samples[i] = bpm;
+        }
+        return samples;
+    }
+
+    private static HealthData.DailyData day(LocalDate date, int hrIntervalSeconds, Random random) {
+        HealthData.DailyData day = new HealthData.DailyData();
+        day.setDate(date.toString());
+        LocalDateTime midnight = date.atStartOfDay();
+
+        List<HealthData.StepRecord> steps = new ArrayList<>();
+        List<HealthData.HeartRateRecord> heartRate = new ArrayList<>();
+        List<HealthData.DistanceRecord> distance = new ArrayList<>();
+        long totalSteps = 0;
+        double totalMeters = 0;
+        long[] hourSamples = heartRateSamples(3600 / hrIntervalSeconds);
+
+        for (int hour = 0; hour < 24; hour++) {
+            String start = midnight.plusHours(hour).format(PHONE_TIME);
+            String end = midnight.plusHours(hour).plusMinutes(59).plusSeconds(59).format(PHONE_TIME);
+
+            HealthData.StepRecord step = new HealthData.StepRecord();
+            step.setCount((long) random.nextInt(1500));
+            step.setStartTime(start);
+            step.setEndTime(end);
+            steps.add(step);
+            totalSteps += step.getCount();
+
+            HealthData.DistanceRecord meters = new HealthData.DistanceRecord();
+            meters.setDistanceMeters(step.getCount() * 0.75);
+            meters.setStartTime(start);
+            meters.setEndTime(end);
+            distance.add(meters);
+            totalMeters += meters.getDistanceMeters();
+
+            HealthData.HeartRateRecord hr = new HealthData.HeartRateRecord();
+            List<Long> samples = new ArrayList<>(hourSamples.length);
+            for (long bpm : hourSamples) {
+                samples.add(bpm + random.nextInt(3) - 1);
+            }
+            hr.setSamples(samples);
+            hr.setStartTime(start);
+            hr.setEndTime(end);
+            heartRate.add(hr);
+        }
+
+        day.setSteps(steps);
+        day.setTotalSteps((int) totalSteps);
+        day.setHeartRate(heartRate);
+        day.setAvgHeartRate(72);
+        day.setMinHeartRate(52);
+        day.setMaxHeartRate(148);
+        day.setDistance(distance);
+        day.setTotalDistanceKm(totalMeters / 1000);
+
+        HealthData.SleepRecord sleep = new HealthData.SleepRecord();
+        sleep.setTitle("Sommeil");
+        sleep.setStartTime(midnight.minusHours(1).format(PHONE_TIME));
+        sleep.setEndTime(midnight.plusHours(7).format(PHONE_TIME));
+        sleep.setDurationMinutes(480L);
+        day.setSleep(List.of(sleep));
+        day.setTotalSleepHours(8.0);
+
+        HealthData.ExerciseRecord exercise = new HealthData.ExerciseRecord();
+        exercise.setTitle("Course");
+        exercise.setExerciseType(56);
+        exercise.setExerciseTypeName("RUNNING");
+        exercise.setStartTime(midnight.plusHours(18).format(PHONE_TIME));
+        exercise.setEndTime(midnight.plusHours(18).plusMinutes(45).format(PHONE_TIME));
+        exercise.setDurationMinutes(45L);
+        exercise.setSteps(6200L);
+        exercise.setDistanceMeters(7400.0);
+        exercise.setDistanceKm("7.40");
+        exercise.setAvgHeartRate(148);
+        day.setExercise(List.of(exercise));
+
+        List<HealthData.OxygenSaturationRecord> spo2 = new ArrayList<>();
+        List<HealthData.HydrationRecord> hydration = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            String time = midnight.plusHours(8 + 2L * i).format(PHONE_TIME);
+            HealthData.OxygenSaturationRecord o2 = new HealthData.OxygenSaturationRecord();
+            o2.setPercentage(95 + random.nextInt(5) * 1.0);
+            o2.setTime(time);
+            spo2.add(o2);
+            HealthData.HydrationRecord water = new HealthData.HydrationRecord();
+            water.setVolumeMl(250.0);
+            water.setTime(time);
+            hydration.add(water);
+        }
+        day.setOxygenSaturation(spo2);
+        day.setHydration(hydration);
+        day.setTotalHydrationLiters(1.5);
+
+        String morning = midnight.plusHours(7).format(PHONE_TIME);
+        HealthData.BodyTemperatureRecord temperature = new HealthData.BodyTemperatureRecord();
+        temperature.setTemperature(36.6);
+        temperature.setTime(morning);
+        day.setBodyTemperature(List.of(temperature));
+
+        HealthData.BloodPressureRecord bp = new HealthData.BloodPressureRecord();
+        bp.setSystolic(120.0);
+        bp.setDiastolic(80.0);
+        bp.setTime(morning);
+        day.setBloodPressure(List.of(bp));
+
+        HealthData.WeightRecord weight = new HealthData.WeightRecord();
+        weight.setWeight(78.4);
+        weight.setTime(morning);
+        day.setWeight(List.of(weight));
+
+        HealthData.HeightRecord height = new HealthData.HeightRecord();
+        height.setHeight(1.78);
+        height.setTime(morning);
+        day.setHeight(List.of(height));
+
+        day.setStressLevel("Faible");
+        day.setStressScore(25);
+        return day;
+    }
+}
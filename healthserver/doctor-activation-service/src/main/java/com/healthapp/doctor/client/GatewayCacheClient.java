@@ -0,0 +1,17 @@
+package com.healthapp.doctor.client;
+
+import com.healthapp.shared.util.IdentityEnvelope;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * ✅ Client Feign vers l'API Gateway (hors Eureka) : invalidation de son cache de réponses
+ */
+@FeignClient(name = "api-gateway", url = "${app.gateway.url:http://localhost:8080}", fallback = GatewayCacheClientFallback.class)
+public interface GatewayCacheClient {
+
+    @PostMapping("/internal/cache/invalidate")
+    void invalidate(@RequestHeader(IdentityEnvelope.HEADER) String serviceIdentity, @RequestParam("tag") String tag);
+}
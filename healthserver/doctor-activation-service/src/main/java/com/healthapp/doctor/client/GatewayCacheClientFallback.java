@@ -0,0 +1,17 @@
+package com.healthapp.doctor.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fallback si la gateway est injoignable : le cache expire de lui-même (TTL de la route)
+ */
+@Component
+@Slf4j
+public class GatewayCacheClientFallback implements GatewayCacheClient {
+
+    @Override
+    public void invalidate(String serviceIdentity, String tag) {
+        log.warn("⚠️ Invalidation du cache gateway impossible (tag={}), réponses servies jusqu'au TTL", tag);
+    }
+}
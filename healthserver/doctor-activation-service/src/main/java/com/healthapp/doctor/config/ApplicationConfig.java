@@ -1,8 +1,10 @@
 package com.healthapp.doctor.config;
 
+import com.healthapp.shared.util.AdaptivePasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 /**
  * ApplicationConfig - Définit les beans utilisés par le service
@@ -10,12 +12,30 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 @Configuration
 public class ApplicationConfig {
     
+    // bcrypt | argon2id (mêmes réglages qu'auth-service)
+    @Value("${app.auth.password-hashing.algorithm:bcrypt}")
+    private String algorithm;
+    
+    @Value("${app.auth.password-hashing.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
+    @Value("${app.auth.password-hashing.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+    
+    @Value("${app.auth.password-hashing.argon2.iterations:2}")
+    private int argon2Iterations;
+    
+    @Value("${app.auth.password-hashing.argon2.parallelism:1}")
+    private int argon2Parallelism;
+    
     /**
-     * Crée un bean BCryptPasswordEncoder
-     * Ce bean sera automatiquement injecté dans les services qui en ont besoin
+     * Hachage des mots de passe : algorithme et coût configurables
+     * Les anciens hashes BCrypt restent valides, ils sont refaits à la connexion (DoctorLoginService)
      */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder() {
+        return new AdaptivePasswordEncoder(new AdaptivePasswordEncoder.Settings(
+                AdaptivePasswordEncoder.Algorithm.from(algorithm), bcryptStrength,
+                argon2MemoryKib, argon2Iterations, argon2Parallelism));
     }
-}
\ No newline at end of file
+}
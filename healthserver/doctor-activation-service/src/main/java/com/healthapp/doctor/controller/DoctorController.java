@@ -3,12 +3,14 @@ package com.healthapp.doctor.controller;
 import com.healthapp.doctor.dto.request.UpdateDoctorProfileRequest;
 import com.healthapp.doctor.dto.response.DoctorResponse;
 import com.healthapp.doctor.entity.Doctor;
+import com.healthapp.doctor.event.DoctorDirectoryChangedEvent;
 import com.healthapp.doctor.repository.DoctorRepository;
 import com.healthapp.doctor.service.DoctorPasswordResetService;
 import com.healthapp.doctor.service.DoctorPasswordService;
 import com.healthapp.doctor.dto.request.ChangePasswordRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -32,6 +34,7 @@ public class DoctorController {
     private final DoctorRepository doctorRepository;
     private final DoctorPasswordService doctorPasswordService;
     private final DoctorPasswordResetService passwordResetService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @PostConstruct
     public void init() {
@@ -128,6 +131,11 @@ public class DoctorController {
         Doctor updatedDoctor = doctorRepository.save(doctor);
         log.info("✅ [UPDATE] Doctor profile updated: {}", doctor.getEmail());
         
+        if (Boolean.TRUE.equals(updatedDoctor.getIsActivated())) {
+            // Profil visible dans /api/doctors/available : cache de la gateway invalidé
+            eventPublisher.publishEvent(new DoctorDirectoryChangedEvent(updatedDoctor.getId(), "PROFILE_UPDATED"));
+        }
+        
         return ResponseEntity.ok(mapToDoctorResponse(updatedDoctor));
     }
     
@@ -0,0 +1,10 @@
+package com.healthapp.doctor.event;
+
+/**
+ * Publié quand la liste des médecins change (inscription, activation, rejet, profil modifié)
+ * La gateway vide alors ses réponses en cache portant le tag doctors
+ */
+public record DoctorDirectoryChangedEvent(String doctorId, String reason) {
+
+    public static final String CACHE_TAG = "doctors";
+}
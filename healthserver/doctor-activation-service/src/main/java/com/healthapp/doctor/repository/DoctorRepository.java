@@ -2,6 +2,8 @@ package com.healthapp.doctor.repository;
 
 import com.healthapp.doctor.entity.Doctor;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -29,4 +31,11 @@ public interface DoctorRepository extends MongoRepository<Doctor, String> {
     List<Doctor> findByHospitalAffiliation(String hospitalAffiliation);
     
     long countByActivationStatus(String activationStatus);
+    
+    /**
+     * Remplace le hash du mot de passe seulement s'il n'a pas changé entre-temps (rehash à la connexion)
+     */
+    @Query("{ '_id': ?0, 'password': ?1 }")
+    @Update("{ '$set': { 'password': ?2 } }")
+    long replacePasswordHash(String id, String currentHash, String newHash);
 }
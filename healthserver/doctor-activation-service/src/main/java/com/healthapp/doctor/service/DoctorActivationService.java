@@ -6,10 +6,12 @@ import com.healthapp.doctor.dto.request.EmailNotificationRequest;
 import com.healthapp.doctor.dto.response.DoctorPendingResponse;
 import com.healthapp.doctor.entity.Doctor;
 import com.healthapp.doctor.entity.DoctorActivationRequest;
+import com.healthapp.doctor.event.DoctorDirectoryChangedEvent;
 import com.healthapp.doctor.repository.DoctorActivationRequestRepository;
 import com.healthapp.doctor.repository.DoctorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +32,7 @@ public class DoctorActivationService {
     private final DoctorRepository doctorRepository;
     private final DoctorActivationRequestRepository activationRequestRepository;
     private final NotificationClient notificationClient;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Récupérer tous les médecins en attente d'activation
@@ -99,6 +102,9 @@ public class DoctorActivationService {
         activationRequest.markAsProcessed(adminId, adminEmail, "APPROVE", notes);
         activationRequestRepository.save(activationRequest);
         
+        // ✅ Liste des médecins disponibles modifiée : cache de la gateway invalidé
+        eventPublisher.publishEvent(new DoctorDirectoryChangedEvent(doctor.getId(), "APPROVED"));
+        
         // ✅ Envoyer email de confirmation au CONTACT EMAIL
         sendActivationConfirmationEmail(doctor);
         
@@ -123,6 +129,8 @@ public class DoctorActivationService {
         activationRequest.markAsProcessed(adminId, adminEmail, "REJECT", notes);
         activationRequestRepository.save(activationRequest);
         
+        eventPublisher.publishEvent(new DoctorDirectoryChangedEvent(doctor.getId(), "REJECTED"));
+        
         // ✅ Envoyer email de rejet au CONTACT EMAIL
         sendActivationRejectionEmail(doctor, notes);
         
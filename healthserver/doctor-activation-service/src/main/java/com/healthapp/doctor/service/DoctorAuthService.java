@@ -6,12 +6,14 @@ import com.healthapp.doctor.dto.request.EmailNotificationRequest;
 import com.healthapp.doctor.dto.response.DoctorResponse;
 import com.healthapp.doctor.entity.Doctor;
 import com.healthapp.doctor.entity.DoctorActivationRequest;
+import com.healthapp.doctor.event.DoctorDirectoryChangedEvent;
 import com.healthapp.doctor.repository.DoctorActivationRequestRepository;
 import com.healthapp.doctor.repository.DoctorRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,7 +33,8 @@ public class DoctorAuthService {
     private final DoctorRepository doctorRepository;
     private final DoctorActivationRequestRepository activationRequestRepository;
     private final NotificationClient notificationClient;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Value("${notification.admin-email}")
     private String adminEmail;
@@ -98,6 +101,9 @@ public class DoctorAuthService {
             log.info("📋 STEP 3: Creating activation request");
             createActivationRequest(savedDoctor);
             
+            // Nombre de médecins en attente modifié (stats admin en cache à la gateway)
+            eventPublisher.publishEvent(new DoctorDirectoryChangedEvent(savedDoctor.getId(), "REGISTERED"));
+            
             // ✅ STEP 4: Send email to DOCTOR
             log.info("========================================");
             log.info("📧 STEP 4: Sending email to DOCTOR");
@@ -6,7 +6,7 @@ import com.healthapp.shared.util.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.util.List;
 
@@ -22,7 +22,7 @@ import java.util.Map;
 public class DoctorLoginService {
     
     private final DoctorRepository doctorRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
     
     @Value("${app.jwt.secret}")
     private String jwtSecret;
@@ -46,6 +46,15 @@ public class DoctorLoginService {
             throw new RuntimeException("Invalid email or password");
         }
         
+        // Hash fait avec un autre algorithme / coût que app.auth.password-hashing : refait avec le mot de passe en clair
+        if (passwordEncoder.upgradeEncoding(doctor.getPassword())) {
+            String upgraded = passwordEncoder.encode(password);
+            if (doctorRepository.replacePasswordHash(doctor.getId(), doctor.getPassword(), upgraded) > 0) {
+                doctor.setPassword(upgraded);
+                log.info("🔐 Password hash upgraded for: {}", email);
+            }
+        }
+        
         // Check if account is activated
         if (!doctor.getIsActivated()) {
             log.warn("⚠️ Doctor account not activated: {}", email);
@@ -0,0 +1,45 @@
+package com.healthapp.doctor.service;
+
+import com.healthapp.doctor.client.GatewayCacheClient;
+import com.healthapp.doctor.event.DoctorDirectoryChangedEvent;
+import com.healthapp.shared.util.IdentityEnvelope;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Transmet les changements de la liste des médecins à la gateway (cache de /api/doctors/available, stats admin)
+ * Après l'enregistrement : la gateway ne peut pas remettre en cache l'ancienne liste
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GatewayCacheInvalidator {
+
+    private static final long IDENTITY_MAX_AGE_SECONDS = 30;
+
+    private final GatewayCacheClient gatewayCacheClient;
+
+    @Value("${spring.application.name}")
+    private String serviceName;
+
+    @Value("${app.identity.secret}")
+    private String identitySecret;
+
+    private IdentityEnvelope identityEnvelope;
+
+    @PostConstruct
+    void init() {
+        identityEnvelope = new IdentityEnvelope(identitySecret);  // Refuse un secret vide ou trop court
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDoctorDirectoryChanged(DoctorDirectoryChangedEvent event) {
+        log.debug("🧹 Invalidation du cache gateway: {} ({})", event.reason(), event.doctorId());
+        gatewayCacheClient.invalidate(identityEnvelope.signService(serviceName, IDENTITY_MAX_AGE_SECONDS),
+                DoctorDirectoryChangedEvent.CACHE_TAG);
+    }
+}
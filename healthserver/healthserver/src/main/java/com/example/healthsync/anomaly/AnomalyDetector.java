@@ -0,0 +1,354 @@
+package com.example.healthsync.anomaly;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricSample;
+import com.example.healthsync.model.SampleFamily;
+import com.example.healthsync.service.BiometricSampleService;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Détection d'anomalies en continu, alimentée directement par la sauvegarde des données
+ * (remplace la relecture périodique de biometric_data par model-ai-analyze.py).
+ *
+ * Pour chaque utilisateur et chaque signe vital (FC de repos, SpO2, tension, température),
+ * une ligne de base est tenue à jour par moyenne et variance exponentielles (EWMA).
+ * Chaque nouvelle mesure est comparée à la ligne de base par un z-score robuste :
+ * l'écart-type a un plancher par signe vital et une mesure aberrante est écrêtée
+ * avant la mise à jour, pour ne pas déplacer la ligne de base.
+ *
+ * Les lignes de base sont en mémoire (BaselineStore). Après un redémarrage, celle d'un utilisateur
+ * est reconstruite à sa première sauvegarde à partir des {@code historyDays} jours précédents.
+ * Les anomalies sont publiées en VitalAnomalyEvent.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnomalyDetector {
+
+    // FC de repos = 10e percentile des échantillons du jour
+    private static final double RESTING_PERCENTILE = 0.10;
+    private static final int MAX_BPM = 300;
+
+    private final MongoTemplate mongoTemplate;
+    private final BiometricSampleService sampleService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${healthsync.anomaly.enabled:true}")
+    private boolean enabled;
+
+    // Poids d'une nouvelle mesure dans la moyenne / variance exponentielles
+    @Value("${healthsync.anomaly.alpha:0.1}")
+    private double alpha;
+
+    @Value("${healthsync.anomaly.z-threshold:3.5}")
+    private double zThreshold;
+
+    // Nombre de mesures avant d'utiliser la ligne de base (les seuils cliniques s'appliquent toujours)
+    @Value("${healthsync.anomaly.warmup:7}")
+    private int warmup;
+
+    @Value("${healthsync.anomaly.history-days:30}")
+    private int historyDays;
+
+    @Value("${healthsync.anomaly.max-users:100000}")
+    private int maxUsers;
+
+    @Value("${healthsync.timeseries.enabled:false}")
+    private boolean timeSeriesEnabled;
+
+    private BaselineStore store;
+
+    @PostConstruct
+    void init() {
+        store = new BaselineStore(maxUsers);
+    }
+
+    /**
+     * Mesure d'un signe vital ; {@code time} en secondes epoch (UTC nominal)
+     */
+    @Data
+    @AllArgsConstructor
+    public static class Observation {
+        private VitalSign sign;
+        private long time;
+        private double value;
+    }
+
+    /**
+     * Ajoute les mesures de signes vitaux d'un jour (à appeler avant stripDetails).
+     * La FC de repos n'est mesurée qu'une fois le jour terminé (avant aujourd'hui, UTC) et envoyé en entier :
+     * pour un envoi partiel, voir collectStored.
+     */
+    public void collect(BiometricData day, boolean partial, List<Observation> into) {
+        if (enabled) {
+            addObservations(day, !partial, into);
+        }
+    }
+
+    /**
+     * FC de repos des jours terminés reçus en envoi partiel, lue sur le jour fusionné stocké
+     * (à appeler après l'écriture du lot). Sans effet en mode time-series : les échantillons
+     * ne sont plus dans biometric_data.
+     */
+    public void collectStored(String userId, Collection<String> partialDates, List<Observation> into) {
+        if (!enabled || timeSeriesEnabled || partialDates.isEmpty()) {
+            return;
+        }
+        Query query = new Query(Criteria.where("userId").is(userId).and("date").in(partialDates));
+        query.fields().include("date", "heartRate");
+        for (BiometricData day : mongoTemplate.find(query, BiometricData.class)) {
+            addRestingHeartRate(day, into);
+        }
+    }
+
+    /**
+     * Compare les mesures d'un lot sauvegardé aux lignes de base de l'utilisateur, les met à jour
+     * et publie les anomalies. Les mesures pas plus récentes que la dernière déjà vue
+     * (renvoi du téléphone, jour passé complété) sont ignorées.
+     */
+    public void process(String userId, List<Observation> observations) {
+        if (!enabled || observations.isEmpty()) {
+            return;
+        }
+        observations.sort(Comparator.comparingLong(Observation::getTime));
+
+        boolean known;
+        synchronized (store) {
+            known = store.find(userId) >= 0;
+        }
+        // Lecture MongoDB hors verrou, une seule fois par utilisateur et par démarrage
+        List<Observation> history = known ? List.of() : loadHistory(userId, observations.get(0).getTime());
+
+        List<VitalAnomalyEvent> anomalies = new ArrayList<>();
+        synchronized (store) {
+            int slot = store.find(userId);
+            if (slot < 0) {
+                slot = store.allocate(userId);
+                for (Observation observation : history) {
+                    observe(userId, slot, observation, false);
+                }
+            }
+            for (Observation observation : observations) {
+                VitalAnomalyEvent anomaly = observe(userId, slot, observation, true);
+                if (anomaly != null) {
+                    anomalies.add(anomaly);
+                }
+            }
+        }
+
+        for (VitalAnomalyEvent anomaly : anomalies) {
+            eventPublisher.publishEvent(anomaly);
+        }
+    }
+
+    // ========================================
+    // Helpers
+    // ========================================
+
+    /**
+     * Score la mesure contre la ligne de base, puis met la ligne de base à jour
+     *
+     * @return anomalie, ou null si la mesure est normale, déjà vue, ou {@code detect} est faux
+     */
+    private VitalAnomalyEvent observe(String userId, int slot, Observation observation, boolean detect) {
+        VitalSign sign = observation.getSign();
+        if (observation.getTime() <= store.get(slot, sign, BaselineStore.LAST_TIME)) {
+            return null;
+        }
+        double value = observation.getValue();
+        double count = store.get(slot, sign, BaselineStore.COUNT);
+        double mean = store.get(slot, sign, BaselineStore.MEAN);
+        double variance = store.get(slot, sign, BaselineStore.VARIANCE);
+        double scale = Math.max(Math.sqrt(variance), sign.getMinScale());
+        Double z = count >= warmup ? (value - mean) / scale : null;
+
+        VitalAnomalyEvent anomaly = null;
+        if (detect) {
+            String clinical = sign.clinicalSeverity(value);
+            String severity = clinical;
+            String reason = VitalAnomalyEvent.CLINICAL;
+            if (z != null && Math.abs(z) >= zThreshold) {
+                // Un écart extrême à la ligne de base aggrave une anomalie clinique
+                if (Math.abs(z) >= 2 * zThreshold) {
+                    severity = VitalAnomalyEvent.CRITICAL;
+                } else if (severity == null) {
+                    severity = VitalAnomalyEvent.WARNING;
+                }
+                if (clinical == null) {
+                    reason = VitalAnomalyEvent.BASELINE;
+                }
+            }
+            if (severity != null) {
+                anomaly = new VitalAnomalyEvent(userId, sign.getKey(), severity, reason, value,
+                        z != null ? mean : null, z, Instant.ofEpochSecond(observation.getTime()), Instant.now(),
+                        message(sign, severity, reason, value, mean, z));
+            }
+        }
+
+        if (count == 0) {
+            mean = value;
+            variance = 0;
+        } else {
+            // Écrêtage : une mesure aberrante ne compte que pour zThreshold écarts-types
+            double x = z == null ? value
+                    : Math.max(mean - zThreshold * scale, Math.min(mean + zThreshold * scale, value));
+            // Pendant la chauffe : moyenne simple (poids 1/n), plus stable qu'alpha sur peu de mesures
+            double weight = Math.max(alpha, 1.0 / (count + 1));
+            double diff = x - mean;
+            double increment = weight * diff;
+            mean += increment;
+            variance = (1 - weight) * (variance + diff * increment);
+        }
+        store.set(slot, sign, BaselineStore.MEAN, mean);
+        store.set(slot, sign, BaselineStore.VARIANCE, variance);
+        store.set(slot, sign, BaselineStore.COUNT, count + 1);
+        store.set(slot, sign, BaselineStore.LAST_TIME, observation.getTime());
+        return anomaly;
+    }
+
+    private static String message(VitalSign sign, String severity, String reason, double value,
+                                  double mean, Double z) {
+        String prefix = VitalAnomalyEvent.CRITICAL.equals(severity) ? "🚨 " : "⚠️ ";
+        if (VitalAnomalyEvent.CLINICAL.equals(reason)) {
+            return String.format(Locale.US, "%s%s hors normes: %.1f %s", prefix, sign.getLabel(), value, sign.getUnit());
+        }
+        return String.format(Locale.US, "%s%s inhabituelle: %.1f %s (habituellement %.1f, z=%.1f)",
+                prefix, sign.getLabel(), value, sign.getUnit(), mean, z);
+    }
+
+    /**
+     * Mesures des {@code historyDays} jours précédant le lot, pour reconstruire une ligne de base
+     */
+    private List<Observation> loadHistory(String userId, long firstObservation) {
+        LocalDate before = LocalDate.ofInstant(Instant.ofEpochSecond(firstObservation), ZoneOffset.UTC);
+        LocalDate from = before.minusDays(historyDays);
+        List<Observation> history = new ArrayList<>();
+
+        Query query = new Query(Criteria.where("userId").is(userId)
+                .and("date").gte(from.toString()).lt(before.toString()));
+        query.fields().include("date", "heartRate", "oxygenSaturation", "bodyTemperature", "bloodPressure");
+        for (BiometricData day : mongoTemplate.find(query, BiometricData.class)) {
+            addObservations(day, true, history);
+        }
+
+        if (timeSeriesEnabled) {
+            // Les listes de biometric_data sont vides : mesures lues dans la collection time-series.
+            // La FC de repos n'est pas reconstruite (trop d'échantillons), sa ligne de base repart de zéro.
+            for (BiometricSample sample : sampleService.findSamples(userId, SampleFamily.VITALS,
+                    from.atStartOfDay().toInstant(ZoneOffset.UTC), before.atStartOfDay().toInstant(ZoneOffset.UTC))) {
+                VitalSign sign = VitalSign.fromSampleType(sample.getType());
+                if (sign != null && sample.getValue() != null) {
+                    history.add(new Observation(sign, sample.getTime().getEpochSecond(), sample.getValue()));
+                }
+            }
+        }
+
+        history.sort(Comparator.comparingLong(Observation::getTime));
+        log.debug("🔄 Ligne de base reconstruite: userId={}, mesures={}", userId, history.size());
+        return history;
+    }
+
+    private static void addObservations(BiometricData day, boolean resting, List<Observation> into) {
+        if (resting) {
+            addRestingHeartRate(day, into);
+        }
+        if (day.getOxygenSaturation() != null) {
+            day.getOxygenSaturation().forEach(o2 -> add(into, VitalSign.SPO2, o2.getTime(), o2.getPercentage()));
+        }
+        if (day.getBodyTemperature() != null) {
+            day.getBodyTemperature().forEach(t -> add(into, VitalSign.TEMPERATURE, t.getTime(), t.getTemperature()));
+        }
+        if (day.getBloodPressure() != null) {
+            day.getBloodPressure().forEach(bp -> {
+                add(into, VitalSign.SYSTOLIC, bp.getTime(), bp.getSystolic());
+                add(into, VitalSign.DIASTOLIC, bp.getTime(), bp.getDiastolic());
+            });
+        }
+    }
+
+    /**
+     * FC de repos d'un jour terminé seulement : un envoi en cours de journée biaiserait le percentile,
+     * et la garde LAST_TIME ignorerait ensuite les envois suivants du même jour
+     */
+    private static void addRestingHeartRate(BiometricData day, List<Observation> into) {
+        LocalDate date = parseDate(day.getDate());
+        if (date == null || !date.isBefore(LocalDate.now(ZoneOffset.UTC))) {
+            return;
+        }
+        Double resting = restingHeartRate(day);
+        if (resting != null) {
+            into.add(new Observation(VitalSign.RESTING_HEART_RATE,
+                    date.atStartOfDay().toEpochSecond(ZoneOffset.UTC), resting));
+        }
+    }
+
+    private static void add(List<Observation> into, VitalSign sign, String time, Double value) {
+        Instant instant = BiometricSampleService.parseTime(time);
+        if (instant != null && value != null) {
+            into.add(new Observation(sign, instant.getEpochSecond(), value));
+        }
+    }
+
+    /**
+     * 10e percentile des échantillons cardiaques du jour (histogramme, sans tri ni boxing) ;
+     * null si le jour n'a aucun échantillon
+     */
+    private static Double restingHeartRate(BiometricData day) {
+        if (day.getHeartRate() == null) {
+            return null;
+        }
+        int[] histogram = new int[MAX_BPM + 1];
+        int total = 0;
+        for (BiometricData.HeartRateRecord record : day.getHeartRate()) {
+            for (long bpm : record.sampleArray()) {
+                if (bpm > 0 && bpm <= MAX_BPM) {
+                    histogram[(int) bpm]++;
+                    total++;
+                }
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(total * RESTING_PERCENTILE);
+        int seen = 0;
+        for (int bpm = 1; bpm <= MAX_BPM; bpm++) {
+            seen += histogram[bpm];
+            if (seen >= rank) {
+                return (double) bpm;
+            }
+        }
+        return null;
+    }
+
+    private static LocalDate parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.healthsync.anomaly;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Abonné aux VitalAnomalyEvent : journalise chaque anomalie et garde les dernières
+ * de chaque utilisateur pour GET /fetch/anomalies/{userId}
+ */
+@Slf4j
+@Component
+public class AnomalyHistory {
+
+    @Value("${healthsync.anomaly.history-size:50}")
+    private int historySize;
+
+    @Value("${healthsync.anomaly.max-users:100000}")
+    private int maxUsers;
+
+    private Map<String, Deque<VitalAnomalyEvent>> recent;
+
+    @PostConstruct
+    void init() {
+        recent = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Deque<VitalAnomalyEvent>> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    @EventListener
+    public void onAnomaly(VitalAnomalyEvent anomaly) {
+        log.warn("{} (userId={}, {})", anomaly.getMessage(), anomaly.getUserId(), anomaly.getTime());
+        synchronized (recent) {
+            Deque<VitalAnomalyEvent> events = recent.computeIfAbsent(anomaly.getUserId(), id -> new ArrayDeque<>());
+            events.addFirst(anomaly);
+            if (events.size() > historySize) {
+                events.removeLast();
+            }
+        }
+    }
+
+    /**
+     * Dernières anomalies de l'utilisateur, la plus récente en premier
+     */
+    public List<VitalAnomalyEvent> recent(String userId) {
+        synchronized (recent) {
+            Deque<VitalAnomalyEvent> events = recent.get(userId);
+            return events == null ? List.of() : new ArrayList<>(events);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.healthsync.anomaly;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lignes de base par utilisateur, en mémoire : un slot entier par utilisateur et un seul
+ * tableau de doubles pour tous les slots (mean, variance, count, lastTime par signe vital),
+ * soit 160 octets par utilisateur sans aucun objet par mesure.
+ *
+ * Au-delà de {@code maxUsers}, le slot de l'utilisateur le moins récemment vu est réutilisé.
+ * Pas thread-safe : AnomalyDetector synchronise les accès.
+ */
+final class BaselineStore {
+
+    static final int MEAN = 0;
+    static final int VARIANCE = 1;
+    static final int COUNT = 2;
+    static final int LAST_TIME = 3;
+
+    private static final int FIELDS = 4;
+    private static final int STRIDE = VitalSign.values().length * FIELDS;
+
+    private final Map<String, Integer> slots;
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private double[] values;
+    private int nextSlot;
+
+    BaselineStore(int maxUsers) {
+        this.values = new double[Math.min(maxUsers, 1024) * STRIDE];
+        this.slots = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                if (size() > maxUsers) {
+                    freeSlots.push(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Slot de l'utilisateur, -1 s'il n'a pas (ou plus) de ligne de base
+     */
+    int find(String userId) {
+        Integer slot = slots.get(userId);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * Nouveau slot vide pour l'utilisateur
+     */
+    int allocate(String userId) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            slot = nextSlot++;
+            if ((slot + 1) * STRIDE > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+        }
+        Arrays.fill(values, slot * STRIDE, (slot + 1) * STRIDE, 0);
+        for (VitalSign sign : VitalSign.values()) {
+            set(slot, sign, LAST_TIME, Long.MIN_VALUE);
+        }
+        slots.put(userId, slot);
+        return slot;
+    }
+
+    double get(int slot, VitalSign sign, int field) {
+        return values[slot * STRIDE + sign.ordinal() * FIELDS + field];
+    }
+
+    void set(int slot, VitalSign sign, int field, double value) {
+        values[slot * STRIDE + sign.ordinal() * FIELDS + field] = value;
+    }
+
+    int size() {
+        return slots.size();
+    }
+}
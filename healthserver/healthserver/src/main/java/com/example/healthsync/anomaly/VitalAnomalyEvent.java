@@ -0,0 +1,35 @@
+package com.example.healthsync.anomaly;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Anomalie détectée sur un signe vital, publiée via ApplicationEventPublisher
+ * dès la sauvegarde des données (voir AnomalyDetector)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalAnomalyEvent {
+
+    public static final String WARNING = "WARNING";
+    public static final String CRITICAL = "CRITICAL";
+
+    // "clinical" : seuil médical franchi, "baseline" : écart inhabituel pour cet utilisateur
+    public static final String CLINICAL = "clinical";
+    public static final String BASELINE = "baseline";
+
+    private String userId;
+    private String vitalSign;       // VitalSign.key
+    private String severity;        // WARNING / CRITICAL
+    private String reason;          // clinical / baseline
+    private double value;
+    private Double baseline;        // Moyenne EWMA avant cette mesure (null pendant la chauffe)
+    private Double zScore;          // Écart robuste à la ligne de base (null pendant la chauffe)
+    private Instant time;           // Heure de la mesure (UTC nominal, comme BiometricSample)
+    private Instant detectedAt;
+    private String message;
+}
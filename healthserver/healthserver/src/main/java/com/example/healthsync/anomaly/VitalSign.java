@@ -0,0 +1,80 @@
+package com.example.healthsync.anomaly;
+
+/**
+ * Signes vitaux suivis par AnomalyDetector.
+ *
+ * Seuils cliniques repris de model-ai-analyze.py (detect_anomalies) : ils s'appliquent dès la
+ * première mesure, la ligne de base personnelle n'intervient qu'après la période de chauffe.
+ * {@code minScale} est l'écart-type minimal retenu, pour qu'un utilisateur très régulier
+ * ne déclenche pas d'alerte sur une variation insignifiante (ex: SpO2 98 → 97).
+ */
+public enum VitalSign {
+
+    RESTING_HEART_RATE("restingHeartRate", "FC de repos", "bpm", 2.0, 50, 100, Double.NaN, Double.NaN),
+    SPO2("spo2", "SpO2", "%", 0.8, 95, Double.NaN, 90, Double.NaN),
+    SYSTOLIC("systolic", "Tension systolique", "mmHg", 4.0, 90, 140, Double.NaN, 180),
+    DIASTOLIC("diastolic", "Tension diastolique", "mmHg", 3.0, 60, 90, Double.NaN, 120),
+    TEMPERATURE("temperature", "Température", "°C", 0.2, 36.0, 38.0, Double.NaN, Double.NaN);
+
+    private final String key;
+    private final String label;
+    private final String unit;
+    private final double minScale;
+    private final double low;
+    private final double high;
+    private final double criticalLow;
+    private final double criticalHigh;
+
+    VitalSign(String key, String label, String unit, double minScale, double low, double high,
+              double criticalLow, double criticalHigh) {
+        this.key = key;
+        this.label = label;
+        this.unit = unit;
+        this.minScale = minScale;
+        this.low = low;
+        this.high = high;
+        this.criticalLow = criticalLow;
+        this.criticalHigh = criticalHigh;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public double getMinScale() {
+        return minScale;
+    }
+
+    /**
+     * Type de mesure time-series correspondant (BiometricSample.type), null pour la FC de repos
+     */
+    public static VitalSign fromSampleType(String type) {
+        for (VitalSign sign : values()) {
+            if (sign != RESTING_HEART_RATE && sign.key.equals(type)) {
+                return sign;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sévérité du seuil clinique franchi par {@code value}, null si la valeur est dans les normes
+     */
+    public String clinicalSeverity(double value) {
+        if (value < criticalLow || value >= criticalHigh) {
+            return VitalAnomalyEvent.CRITICAL;
+        }
+        if (value < low || value >= high) {
+            return VitalAnomalyEvent.WARNING;
+        }
+        return null;
+    }
+}
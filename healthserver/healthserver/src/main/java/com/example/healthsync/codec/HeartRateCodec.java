@@ -0,0 +1,110 @@
+package com.example.healthsync.codec;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Encodage compact des échantillons de fréquence cardiaque : delta entre deux échantillons
+ * successifs, zigzag (deltas négatifs) puis varint. À 1 Hz les deltas tiennent presque toujours
+ * sur un octet, contre ~10 octets par élément dans un tableau BSON d'Int64.
+ *
+ * Format : [version:1][nombre d'échantillons:varint][deltas:varint zigzag...]
+ */
+public final class HeartRateCodec {
+
+    private static final byte VERSION = 1;
+
+    private HeartRateCodec() {
+    }
+
+    public static byte[] encode(long[] samples) {
+        // Pire cas : 10 octets par varint 64 bits
+        byte[] out = new byte[1 + 5 + samples.length * 10];
+        int pos = 0;
+        out[pos++] = VERSION;
+        pos = writeVarint(out, pos, samples.length);
+
+        long previous = 0;
+        for (long sample : samples) {
+            long delta = sample - previous;
+            pos = writeVarint(out, pos, (delta << 1) ^ (delta >> 63));
+            previous = sample;
+        }
+        return Arrays.copyOf(out, pos);
+    }
+
+    public static long[] decode(byte[] encoded) {
+        if (encoded.length == 0 || encoded[0] != VERSION) {
+            throw new IllegalArgumentException("Encodage fréquence cardiaque inconnu");
+        }
+        int[] pos = {1};
+        long count = readVarint(encoded, pos);
+        // Au moins un octet par échantillon : un nombre plus grand est une donnée corrompue, pas une allocation
+        if (count < 0 || count > encoded.length - pos[0]) {
+            throw new IllegalArgumentException("Encodage fréquence cardiaque invalide: " + count
+                    + " échantillons annoncés pour " + (encoded.length - pos[0]) + " octets");
+        }
+        long[] samples = new long[(int) count];
+
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long zigzag = readVarint(encoded, pos);
+            previous += (zigzag >>> 1) ^ -(zigzag & 1);
+            samples[i] = previous;
+        }
+        return samples;
+    }
+
+    /**
+     * List<Long> reçue du téléphone → long[] (les valeurs nulles sont ignorées)
+     */
+    public static long[] toArray(List<Long> samples) {
+        if (samples == null) {
+            return new long[0];
+        }
+        return samples.stream().filter(sample -> sample != null).mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Vue List<Long> en lecture seule sur un long[] (pas de copie boxée)
+     */
+    public static List<Long> asList(long[] samples) {
+        return new AbstractList<>() {
+            @Override
+            public Long get(int index) {
+                return samples[index];
+            }
+
+            @Override
+            public int size() {
+                return samples.length;
+            }
+        };
+    }
+
+    private static int writeVarint(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static long readVarint(byte[] in, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            if (pos[0] >= in.length || shift > 63) {
+                throw new IllegalArgumentException("Encodage fréquence cardiaque tronqué");
+            }
+            byte b = in[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.healthsync.codec;
+
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+
+/**
+ * Lecture des agrégats décimaux de biometric_data (@ValueConverter sur totalDistanceKm,
+ * totalSleepHours et totalHydrationLiters uniquement, pas de conversion String → Double globale).
+ *
+ * Avant schemaVersion 2 ces valeurs étaient stockées en String ("1.25", parfois "1,25"), en attendant
+ * leur ré-encodage (POST /fetch/admin/reencode-aggregates). Une chaîne illisible est lue comme absente,
+ * mais loguée et comptée (healthsync.storage.legacy-decimal.failures) ; le document stocké n'est pas modifié.
+ */
+@Slf4j
+public class LegacyDecimalConverter implements MongoValueConverter<Double, Object> {
+
+    public static final String FAILURES_METRIC = "healthsync.storage.legacy-decimal.failures";
+
+    @Override
+    public Double read(Object value, MongoConversionContext context) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text) {
+            String field = context.getProperty().getName();
+            try {
+                return parse(text);
+            } catch (NumberFormatException e) {
+                log.warn("⚠️ Agrégat {} illisible, ignoré à la lecture: \"{}\"", field, text);
+                Metrics.counter(FAILURES_METRIC, "field", field).increment();
+                return null;
+            }
+        }
+        throw new IllegalArgumentException("Type inattendu pour " + context.getProperty().getName()
+                + ": " + value.getClass().getName());
+    }
+
+    @Override
+    public Object write(Double value, MongoConversionContext context) {
+        return value;
+    }
+
+    /**
+     * Format historique : point ou virgule décimale, chaîne vide = pas de valeur
+     * @throws NumberFormatException si la chaîne n'est pas un nombre
+     */
+    public static Double parse(String text) {
+        if (text.isBlank()) {
+            return null;
+        }
+        return Double.parseDouble(text.trim().replace(',', '.'));
+    }
+}
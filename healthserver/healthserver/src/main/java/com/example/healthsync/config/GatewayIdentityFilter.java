@@ -0,0 +1,55 @@
+package com.example.healthsync.config;
+
+import com.example.healthsync.security.GatewayIdentity;
+import com.example.healthsync.security.IdentityEnvelopeVerifier;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Identité de l'appelant : enveloppe X-Auth-Identity signée par la gateway, vérifiée une fois par requête.
+ * ✅ Enveloppe valide : GatewayIdentity en attribut de requête (GatewayIdentity.from)
+ * ✅ Enveloppe falsifiée ou expirée : 401
+ * ✅ Pas d'enveloppe : requête anonyme ; les en-têtes X-User-* bruts ne sont jamais pris en compte
+ *    (healthsync écoute sur 0.0.0.0, un client direct pourrait les envoyer)
+ */
+@Slf4j
+@Component
+public class GatewayIdentityFilter extends OncePerRequestFilter {
+
+    // Secret partagé avec la gateway, obligatoire (IDENTITY_SECRET)
+    @Value("${app.identity.secret}")
+    private String identitySecret;
+
+    private IdentityEnvelopeVerifier verifier;
+
+    @PostConstruct
+    void init() {
+        verifier = new IdentityEnvelopeVerifier(identitySecret);  // Refuse un secret vide ou trop court
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String envelope = request.getHeader(IdentityEnvelopeVerifier.HEADER);
+        if (envelope != null) {
+            try {
+                request.setAttribute(GatewayIdentity.ATTRIBUTE, verifier.verify(envelope));
+            } catch (IllegalArgumentException e) {
+                log.warn("⚠️ Enveloppe d'identité refusée ({}): {}", request.getRequestURI(), e.getMessage());
+                response.sendError(HttpStatus.UNAUTHORIZED.value(), "Identité invalide");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
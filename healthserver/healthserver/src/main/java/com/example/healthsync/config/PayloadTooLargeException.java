@@ -0,0 +1,13 @@
+package com.example.healthsync.config;
+
+import java.io.IOException;
+
+/**
+ * Body décompressé au-delà de healthsync.ingestion.max-decompressed-mb : l'upload est refusé (413)
+ */
+public class PayloadTooLargeException extends IOException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.healthsync.config;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Décompression des uploads du téléphone : Content-Encoding gzip ou zstd.
+ * Le body décompressé est limité (protection contre les "zip bombs") ; les contrôleurs lisent
+ * le JSON sans savoir qu'il était compressé.
+ */
+@Slf4j
+@Component
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    // Taille du body tel que reçu (compressé), pour les métriques d'ingestion
+    public static final String WIRE_LENGTH = RequestDecompressionFilter.class.getName() + ".wireLength";
+
+    @Value("${healthsync.ingestion.max-decompressed-mb:64}")
+    private long maxDecompressedMb;
+
+    /**
+     * Taille réellement transférée : body compressé si le filtre l'a décompressé
+     */
+    public static long wireLength(HttpServletRequest request) {
+        Object wire = request.getAttribute(WIRE_LENGTH);
+        return wire instanceof Long length ? length : request.getContentLengthLong();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getHeader(HttpHeaders.CONTENT_ENCODING) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING).trim().toLowerCase();
+        InputStream decoded;
+        switch (encoding) {
+            case "gzip", "x-gzip" -> decoded = new GZIPInputStream(request.getInputStream(), 8192);
+            case "zstd" -> decoded = new ZstdInputStream(request.getInputStream());
+            case "identity" -> {
+                chain.doFilter(request, response);
+                return;
+            }
+            default -> {
+                response.sendError(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(),
+                        "Content-Encoding non supporté: " + encoding);
+                return;
+            }
+        }
+
+        request.setAttribute(WIRE_LENGTH, request.getContentLengthLong());
+        chain.doFilter(new DecompressedRequest(request,
+                new LimitedInputStream(decoded, maxDecompressedMb * 1024 * 1024)), response);
+    }
+
+    /**
+     * Requête vue par les contrôleurs : body décompressé, sans Content-Encoding ni Content-Length
+     */
+    private static final class DecompressedRequest extends HttpServletRequestWrapper {
+
+        private final ServletInputStream body;
+
+        DecompressedRequest(HttpServletRequest request, InputStream decoded) {
+            super(request);
+            this.body = new ServletInputStream() {
+                private boolean finished;
+
+                @Override
+                public int read() throws IOException {
+                    return track(decoded.read());
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    return track(decoded.read(b, off, len));
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return finished;
+                }
+
+                // Lecture bloquante du flux d'origine : toujours prêt
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * Lecture "asynchrone" servie immédiatement : le listener lit tant que isReady(),
+                 * c'est-à-dire jusqu'à la fin du body décompressé
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!finished) {
+                            readListener.onDataAvailable();
+                        }
+                        if (finished) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (Throwable e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public void close() throws IOException {
+                    decoded.close();
+                }
+
+                private int track(int result) {
+                    if (result < 0) {
+                        finished = true;
+                    }
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            return body;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isStripped(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isStripped(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                    .filter(name -> !isStripped(name))
+                    .toList());
+        }
+
+        private static boolean isStripped(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * Coupe la lecture au-delà de {@code limit} octets décompressés (413 côté contrôleurs)
+     */
+    private static final class LimitedInputStream extends InputStream {
+
+        private final InputStream in;
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        private void consume(int n) throws PayloadTooLargeException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new PayloadTooLargeException("Body décompressé trop volumineux");
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.healthsync.controller;
+
+import com.example.healthsync.journal.JournalFullException;
+import com.example.healthsync.model.IngestionStatus;
+import com.example.healthsync.security.GatewayIdentity;
+import com.example.healthsync.service.AsyncIngestionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/fetch")
+@CrossOrigin(origins = "*") // TODO: Restreindre en production
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "healthsync.ingestion.async.enabled", havingValue = "true")
+public class AsyncIngestionController {
+
+    private static final int RETRY_AFTER_SECONDS = 30;
+
+    private final AsyncIngestionService asyncIngestionService;
+
+    // ✅ Accept-then-process : 202 dès que l'upload est dans le journal
+    @PostMapping(value = "/async", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> acceptHealthData(
+            @RequestBody byte[] body,
+            HttpServletRequest request) {
+        GatewayIdentity identity = GatewayIdentity.from(request);
+        if (identity == null) {
+            return HealthDataController.unauthenticated();
+        }
+        try {
+            IngestionStatus status = asyncIngestionService.accept(body, identity.userId());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/fetch/ingestions/" + status.getIngestionId()))
+                    .body(status);
+
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        } catch (JournalFullException e) {
+            // ✅ Backpressure : le téléphone garde l'upload et réessaie plus tard
+            log.warn("Health data rejected, ingestion backlog full: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(RETRY_AFTER_SECONDS))
+                    .body("❌ Erreur: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error journaling health data", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Avancement d'un upload asynchrone
+    @GetMapping("/ingestions/{ingestionId}")
+    public ResponseEntity<?> getIngestionStatus(@PathVariable String ingestionId) {
+        return asyncIngestionService.getStatus(ingestionId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("❌ Ingestion inconnue: " + ingestionId));
+    }
+}
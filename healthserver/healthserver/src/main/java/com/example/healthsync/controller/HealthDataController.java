@@ -1,16 +1,39 @@
 package com.example.healthsync.controller;
 
+import com.example.healthsync.anomaly.AnomalyHistory;
+import com.example.healthsync.config.PayloadTooLargeException;
+import com.example.healthsync.config.RequestDecompressionFilter;
+import com.example.healthsync.metrics.IngestionMetrics;
 import com.example.healthsync.model.BiometricData;
-import com.example.healthsync.model.HealthData;
-import com.example.healthsync.model.HealthData.*;
+import com.example.healthsync.model.BiometricSample;
+import com.example.healthsync.model.CursorPage;
+import com.example.healthsync.model.IngestionResult;
+import com.example.healthsync.model.MigrationReport;
+import com.example.healthsync.model.SampleFamily;
+import com.example.healthsync.model.SeriesMetric;
+import com.example.healthsync.model.SeriesResponse;
+import com.example.healthsync.model.UserRollup;
+import com.example.healthsync.security.GatewayIdentity;
+import com.example.healthsync.service.AggregateReencodeJob;
 import com.example.healthsync.service.BiometricDataService;
+import com.example.healthsync.service.IngestionWriteException;
+import com.example.healthsync.service.TimeSeriesMigrationJob;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/fetch")
@@ -20,212 +43,89 @@ import java.util.List;
 public class HealthDataController {
 
     private final BiometricDataService biometricDataService;
+    private final IngestionMetrics ingestionMetrics;
+    private final TimeSeriesMigrationJob timeSeriesMigrationJob;
+    private final AggregateReencodeJob aggregateReencodeJob;
+    private final AnomalyHistory anomalyHistory;
 
     @GetMapping
     public ResponseEntity<String> testConnection() {
         return ResponseEntity.ok("✅ Serveur Spring Boot accessible depuis le téléphone!");
     }
 
-    @PostMapping
-    public ResponseEntity<String> receiveHealthData(@RequestBody HealthData healthData) {
+    // ✅ Ingestion streaming : le body est lu jour par jour (mémoire bornée), sur /fetch comme sur /fetch/stream
+    // ✅ SAUVEGARDE DANS MONGODB (bulk upsert sur userId + date) ; le "userId" du body est ignoré
+    @PostMapping(value = {"", "/stream"}, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> receiveHealthDataStream(
+            InputStream body,
+            HttpServletRequest request) {
+        GatewayIdentity identity = GatewayIdentity.from(request);
+        if (identity == null) {
+            return unauthenticated();
+        }
+        Timer.Sample sample = ingestionMetrics.startRequest();
         try {
-            System.out.println("\n╔═════════════════════════════════════════════════════════════╗");
-            System.out.println("║  🔔 DONNÉES HEALTH CONNECT REÇUES DEPUIS ANDROID          ║");
-            System.out.println("╚═════════════════════════════════════════════════════════════╝\n");
-
-            // ✅ SAUVEGARDE DANS MONGODB
-            List<BiometricData> savedData = biometricDataService.saveBiometricData(healthData);
-            String userId = savedData.isEmpty() ? "unknown" : savedData.get(0).getUserId();
-
-            System.out.println("💾 DONNÉES SAUVEGARDÉES DANS MONGODB");
-            System.out.println("   • User ID: " + userId);
-            System.out.println("   • Nombre de jours: " + savedData.size());
-            System.out.println("   • IDs MongoDB: ");
-            savedData.forEach(data ->
-                    System.out.println("      - " + data.getDate() + " → " + data.getId())
-            );
-            System.out.println();
-
-            // ✅ Validation des données
-            List<DailyData> dailyDataList = healthData.getDailyData();
-            if (dailyDataList == null || dailyDataList.isEmpty()) {
-                return ResponseEntity.badRequest().body("❌ Format de données invalide: dailyData vide");
-            }
-
-            int totalDataPoints = 0;
-
-            // ✅ Parcours direct des données avec getters
-            for (DailyData day : dailyDataList) {
-                String date = day.getDate();
-
-                System.out.println("\n╭─────────────────────────────────────────────────────────────╮");
-                System.out.println("│  📅 DATE: " + date + "                                   │");
-                System.out.println("╰─────────────────────────────────────────────────────────────╯\n");
-
-                // 👣 STEPS
-                Integer totalSteps = day.getTotalSteps();
-                if (totalSteps != null && totalSteps > 0) {
-                    System.out.println("👣 STEPS: " + totalSteps + " pas");
-                    totalDataPoints++;
-                }
-
-                // ❤️ HEART RATE
-                Integer avgHR = day.getAvgHeartRate();
-                if (avgHR != null && avgHR > 0) {
-                    Integer minHR = day.getMinHeartRate();
-                    Integer maxHR = day.getMaxHeartRate();
-
-                    System.out.println("❤️  HEART RATE:");
-                    System.out.println("   • Moyenne: " + avgHR + " bpm");
-                    if (minHR != null && maxHR != null) {
-                        System.out.println("   • Min: " + minHR + " bpm | Max: " + maxHR + " bpm");
-                    }
-                    totalDataPoints++;
-                }
-
-                // 📏 DISTANCE
-                String distKm = day.getTotalDistanceKm();
-                if (distKm != null && !distKm.equals("0.00")) {
-                    System.out.println("📏 DISTANCE: " + distKm + " km");
-                    totalDataPoints++;
-                }
-
-                // 💤 SLEEP
-                String sleepHours = day.getTotalSleepHours();
-                List<SleepRecord> sleepRecords = day.getSleep();
-                if (sleepHours != null && sleepRecords != null && !sleepRecords.isEmpty()) {
-                    System.out.println("💤 SOMMEIL: " + sleepHours + " heures");
-
-                    for (SleepRecord sleep : sleepRecords) {
-                        System.out.println("   • " + sleep.getTitle() + ": " +
-                                sleep.getStartTime() + " → " + sleep.getEndTime() +
-                                " (" + sleep.getDurationMinutes() + " min)");
-                    }
-                    totalDataPoints++;
-                }
-
-                // 🏋️ EXERCISE
-                List<ExerciseRecord> exercises = day.getExercise();
-                if (exercises != null && !exercises.isEmpty()) {
-                    System.out.println("\n🏋️  EXERCICES (" + exercises.size() + " sessions):");
-
-                    for (int i = 0; i < exercises.size(); i++) {
-                        ExerciseRecord ex = exercises.get(i);
-
-                        System.out.println("\n   ┌─ Session " + (i + 1) + " ─────────────────────────────");
-                        System.out.println("   │ 🏃 Type: " + ex.getExerciseTypeName());
-                        System.out.println("   │ ⏱️  Durée: " + ex.getDurationMinutes() + " minutes");
-                        System.out.println("   │ 🕐 Début: " + ex.getStartTime());
-
-                        if (ex.getDistanceKm() != null && !ex.getDistanceKm().equals("0.00")) {
-                            System.out.println("   │ 📏 Distance: " + ex.getDistanceKm() + " km");
-                        }
-                        if (ex.getSteps() != null && ex.getSteps() > 0) {
-                            System.out.println("   │ 👣 Pas: " + ex.getSteps());
-                        }
-                        if (ex.getActiveCalories() != null && ex.getActiveCalories() > 0) {
-                            System.out.println("   │ 🔥 Calories: " + ex.getActiveCalories() + " kcal");
-                        }
-                        if (ex.getAvgHeartRate() != null && ex.getAvgHeartRate() > 0) {
-                            System.out.println("   │ ❤️  BPM: " + ex.getAvgHeartRate() + " bpm");
-                        }
-
-                        // Métriques avancées
-                        if (ex.getAvgSpeedKmh() != null) {
-                            System.out.println("   │ 🚀 Vitesse moy: " + ex.getAvgSpeedKmh() + " km/h");
-                        }
-                        if (ex.getAvgCadence() != null && ex.getAvgCadence() > 0) {
-                            System.out.println("   │ 🎯 Cadence: " + ex.getAvgCadence() + " rpm");
-                        }
-                        if (ex.getAvgPowerWatts() != null && ex.getAvgPowerWatts() > 0) {
-                            System.out.println("   │ ⚡ Puissance: " + ex.getAvgPowerWatts() + " W");
-                        }
-
-                        System.out.println("   └────────────────────────────────────────────");
-                    }
-                    totalDataPoints += exercises.size();
-                }
-
-                // 💧 HYDRATION
-                String hydrationLiters = day.getTotalHydrationLiters();
-                List<HydrationRecord> hydrationRecords = day.getHydration();
-                if (hydrationLiters != null && hydrationRecords != null && !hydrationRecords.isEmpty()) {
-                    System.out.println("\n💧 HYDRATATION: " + hydrationLiters + " L (" +
-                            hydrationRecords.size() + " prises)");
-                    totalDataPoints++;
-                }
-
-                // 😰 STRESS
-                String stressLevel = day.getStressLevel();
-                Integer stressScore = day.getStressScore();
-                if (stressLevel != null && stressScore != null) {
-                    System.out.println("😰 STRESS: " + stressLevel + " (score: " + stressScore + ")");
-                    totalDataPoints++;
-                }
-
-                // 🫁 OXYGEN SATURATION
-                List<OxygenSaturationRecord> oxygenRecords = day.getOxygenSaturation();
-                if (oxygenRecords != null && !oxygenRecords.isEmpty()) {
-                    System.out.println("\n🫁 SATURATION O2: " + oxygenRecords.size() + " mesures");
-                    totalDataPoints += oxygenRecords.size();
-                }
-
-                // 🌡️ BODY TEMPERATURE
-                List<BodyTemperatureRecord> tempRecords = day.getBodyTemperature();
-                if (tempRecords != null && !tempRecords.isEmpty()) {
-                    System.out.println("🌡️  TEMPÉRATURE: " + tempRecords.size() + " mesures");
-                    totalDataPoints += tempRecords.size();
-                }
-
-                // 💉 BLOOD PRESSURE
-                List<BloodPressureRecord> bpRecords = day.getBloodPressure();
-                if (bpRecords != null && !bpRecords.isEmpty()) {
-                    System.out.println("💉 PRESSION: " + bpRecords.size() + " mesures");
-                    totalDataPoints += bpRecords.size();
-                }
-
-                // ⚖️ WEIGHT
-                List<WeightRecord> weightRecords = day.getWeight();
-                if (weightRecords != null && !weightRecords.isEmpty()) {
-                    System.out.println("⚖️  POIDS: " + weightRecords.size() + " mesures");
-                    totalDataPoints += weightRecords.size();
-                }
-
-                // 📏 HEIGHT
-                List<HeightRecord> heightRecords = day.getHeight();
-                if (heightRecords != null && !heightRecords.isEmpty()) {
-                    System.out.println("📏 TAILLE: " + heightRecords.size() + " mesures");
-                    totalDataPoints += heightRecords.size();
-                }
-
-                System.out.println("\n" + "─".repeat(65));
-            }
-
-            System.out.println("\n╔═════════════════════════════════════════════════════════════╗");
-            System.out.println("║  ✅ SUCCÈS - " + totalDataPoints + " points sauvegardés dans MongoDB   ║");
-            System.out.println("╚═════════════════════════════════════════════════════════════╝\n");
-
-            log.info("Health data processed successfully - User: {}, Records: {}, Data points: {}",
-                    userId, savedData.size(), totalDataPoints);
+            IngestionResult result = biometricDataService.saveBiometricDataStream(body, identity.userId());
+            ingestionMetrics.recordRequest(sample, result, RequestDecompressionFilter.wireLength(request));
 
             return ResponseEntity.ok(String.format(
-                    "✅ %d données reçues et sauvegardées!\n👤 User ID: %s\n💾 %d enregistrements MongoDB",
-                    totalDataPoints, userId, savedData.size()
+                    "✅ %d données reçues et sauvegardées!\n👤 User ID: %s\n💾 %d nouveaux jours, %d jours mis à jour",
+                    result.getPoints(), result.getUserId(), result.getInserted(), result.getUpdated()
             ));
 
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            ingestionMetrics.recordFailure(sample);
+            log.warn("Rejected health data: {}", e.getMessage());
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        } catch (PayloadTooLargeException e) {
+            ingestionMetrics.recordFailure(sample);
+            log.warn("Rejected health data: {}", e.getMessage());
+            return IngestionExceptionHandler.payloadTooLarge(e);
+        } catch (IngestionWriteException e) {
+            ingestionMetrics.recordFailure(sample);
+            log.error("Error streaming health data", e);
+            return writeFailure(e);
         } catch (Exception e) {
-            log.error("Error processing health data", e);
-            System.err.println("\n❌ ERREUR: " + e.getMessage() + "\n");
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            ingestionMetrics.recordFailure(sample);
+            log.error("Error streaming health data", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("❌ Erreur: " + e.getMessage());
         }
     }
 
-    // ✅ Récupérer les données d'un utilisateur
+    // ✅ Upload sans enveloppe X-Auth-Identity (token absent, ou appel direct sans la gateway) : 401
+    static ResponseEntity<String> unauthenticated() {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body("❌ Erreur: authentification requise (Authorization: Bearer via la gateway)");
+    }
+
+    // ✅ Endpoints /admin : enveloppe X-Auth-Identity de rôle ADMIN ou SERVICE, sinon 401 / 403
+    private static ResponseEntity<String> requireAdmin(HttpServletRequest request) {
+        GatewayIdentity identity = GatewayIdentity.from(request);
+        if (identity == null) {
+            return unauthenticated();
+        }
+        if (!identity.isAdminOrService()) {
+            log.warn("Admin endpoint refused for user {}: {}", identity.userId(), request.getRequestURI());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("❌ Erreur: rôle ADMIN requis");
+        }
+        return null;
+    }
+
+    // ✅ Erreur MongoDB : 500 + jours déjà sauvegardés (le renvoi complet est idempotent)
+    private ResponseEntity<String> writeFailure(IngestionWriteException e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .header("X-Committed-Days", String.valueOf(e.getCommittedDays()))
+                .body(String.format("❌ Erreur: %s\n💾 %d jours déjà sauvegardés pour %s, renvoyer l'upload",
+                        e.getMessage(), e.getCommittedDays(), e.getUserId()));
+    }
+
+    // ✅ Récupérer toutes les données d'un utilisateur (format historique : tableau de BiometricData)
+    // Conservé pour les clients existants ; les nouveaux écrans utilisent /fetch/user/{userId}/page
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getUserData(@PathVariable String userId) {
         try {
-            log.info("Fetching data for user: {}", userId);
+            log.debug("Fetching data for user: {}", userId);
             List<BiometricData> data = biometricDataService.getUserData(userId);
             return ResponseEntity.ok(data);
         } catch (Exception e) {
@@ -235,6 +135,183 @@ public class HealthDataController {
         }
     }
 
+    // ✅ Données d'un utilisateur paginées par date (curseur), projection optionnelle
+    // Réponse CursorPage : { content, limit, nextCursor, hasMore } ; page suivante avec after=nextCursor
+    // ex: /fetch/user/{userId}/page?from=2025-10-01&fields=aggregates&limit=14
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<?> getUserDataPage(
+            @PathVariable String userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate after,
+            @RequestParam(defaultValue = "30") int limit,
+            @RequestParam(required = false) Set<String> fields) {
+        try {
+            log.debug("Fetching data for user: {}", userId);
+            CursorPage<BiometricData> page = biometricDataService.getUserDataPage(
+                    userId,
+                    from == null ? null : from.toString(),
+                    to == null ? null : to.toString(),
+                    after == null ? null : after.toString(),
+                    limit,
+                    fields);
+            return ResponseEntity.ok(page);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching user data: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Mesures détaillées (collections time-series) d'une famille sur une plage de dates
+    @GetMapping("/user/{userId}/samples")
+    public ResponseEntity<?> getUserSamples(
+            @PathVariable String userId,
+            @RequestParam String family,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            List<BiometricSample> samples = biometricDataService.getUserSamples(
+                    userId,
+                    SampleFamily.fromParam(family),
+                    from == null ? null : from.atStartOfDay().toInstant(ZoneOffset.UTC),
+                    to == null ? null : to.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+            return ResponseEntity.ok(samples);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching user samples: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Série sous-échantillonnée pour les graphiques
+    // ex: /fetch/user/{userId}/series?metric=bpm&from=2025-10-01&to=2025-10-07&resolution=5m
+    //     /fetch/user/{userId}/series?metric=spo2&from=2025-09-01&method=lttb&points=300
+    @GetMapping("/user/{userId}/series")
+    public ResponseEntity<?> getUserSeries(
+            @PathVariable String userId,
+            @RequestParam String metric,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "buckets") String method,
+            @RequestParam(defaultValue = "1h") String resolution,
+            @RequestParam(defaultValue = "500") int points) {
+        try {
+            LocalDate lastDay = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+            SeriesResponse series = biometricDataService.getUserSeries(
+                    userId,
+                    SeriesMetric.fromParam(metric),
+                    from.atStartOfDay().toInstant(ZoneOffset.UTC),
+                    lastDay.plusDays(1).atStartOfDay().toInstant(ZoneOffset.UTC),
+                    method,
+                    resolution,
+                    points);
+            return ResponseEntity.ok(series);
+
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("❌ Erreur: " + e.getMessage());
+        } catch (Exception e) {
+            log.error("Error fetching user series: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Migration des mesures embarquées vers les collections time-series (tâche de fond, ADMIN ou SERVICE)
+    @PostMapping("/admin/timeseries-migration")
+    public ResponseEntity<?> migrateToTimeSeries(HttpServletRequest request) {
+        ResponseEntity<String> denied = requireAdmin(request);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            timeSeriesMigrationJob.start();
+            return ResponseEntity.accepted().body("🔄 Migration time-series lancée");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Avancement de la migration : bilan de la dernière exécution terminée
+    @GetMapping("/admin/timeseries-migration")
+    public ResponseEntity<?> getTimeSeriesMigrationStatus(HttpServletRequest request) {
+        ResponseEntity<String> denied = requireAdmin(request);
+        if (denied != null) {
+            return denied;
+        }
+        if (timeSeriesMigrationJob.isRunning()) {
+            return ResponseEntity.accepted().body("🔄 Migration time-series en cours");
+        }
+        MigrationReport report = timeSeriesMigrationJob.getLastReport();
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("❌ Aucune migration time-series exécutée");
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // ✅ Ré-encodage en Double des agrégats stockés en String (tâche de fond, ADMIN ou SERVICE)
+    @PostMapping("/admin/reencode-aggregates")
+    public ResponseEntity<?> reencodeAggregates(HttpServletRequest request) {
+        ResponseEntity<String> denied = requireAdmin(request);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            aggregateReencodeJob.start();
+            return ResponseEntity.accepted().body("🔄 Ré-encodage lancé");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Avancement du ré-encodage : bilan de la dernière exécution terminée
+    @GetMapping("/admin/reencode-aggregates")
+    public ResponseEntity<?> getReencodeStatus(HttpServletRequest request) {
+        ResponseEntity<String> denied = requireAdmin(request);
+        if (denied != null) {
+            return denied;
+        }
+        if (aggregateReencodeJob.isRunning()) {
+            return ResponseEntity.accepted().body("🔄 Ré-encodage en cours");
+        }
+        MigrationReport report = aggregateReencodeJob.getLastReport();
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("❌ Aucun ré-encodage exécuté");
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    // ✅ Jeton de synchronisation : heure du dernier enregistrement stocké, par métrique
+    // Un envoi limité aux enregistrements plus récents marque ses jours "partial": true (agrégats du jour entier)
+    @GetMapping("/sync/{userId}")
+    public ResponseEntity<?> getSyncState(@PathVariable String userId) {
+        try {
+            return ResponseEntity.ok(biometricDataService.getSyncState(userId));
+        } catch (Exception e) {
+            log.error("Error fetching sync state: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
+    // ✅ Dernières anomalies détectées sur les signes vitaux (FC de repos, SpO2, tension, température)
+    @GetMapping("/anomalies/{userId}")
+    public ResponseEntity<?> getAnomalies(@PathVariable String userId) {
+        try {
+            return ResponseEntity.ok(anomalyHistory.recent(userId));
+        } catch (Exception e) {
+            log.error("Error fetching anomalies: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+
     // ✅ Stats d'un utilisateur
     @GetMapping("/stats/{userId}")
     public ResponseEntity<String> getUserStats(@PathVariable String userId) {
@@ -248,4 +325,21 @@ public class HealthDataController {
                     .body("❌ Erreur: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    // ✅ Statistiques glissantes 7/30/90 jours (lecture d'un seul document)
+    @GetMapping("/stats/{userId}/rolling")
+    public ResponseEntity<?> getUserRollingStats(@PathVariable String userId) {
+        try {
+            UserRollup rollup = biometricDataService.getUserRollup(userId);
+            if (rollup == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body("❌ Aucune donnée récente pour l'utilisateur: " + userId);
+            }
+            return ResponseEntity.ok(rollup);
+        } catch (Exception e) {
+            log.error("Error fetching rolling stats: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("❌ Erreur: " + e.getMessage());
+        }
+    }
+}
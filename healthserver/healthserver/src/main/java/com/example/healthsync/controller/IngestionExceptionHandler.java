@@ -0,0 +1,32 @@
+package com.example.healthsync.controller;
+
+import com.example.healthsync.config.PayloadTooLargeException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Body lu par Spring avant l'appel du contrôleur (@RequestBody) : l'erreur de lecture arrive
+ * enveloppée dans HttpMessageNotReadableException
+ */
+@Slf4j
+@RestControllerAdvice
+public class IngestionExceptionHandler {
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<String> unreadableBody(HttpMessageNotReadableException e) {
+        // ✅ Body décompressé trop volumineux : 413 (et non 400 ou 500)
+        if (e.getCause() instanceof PayloadTooLargeException tooLarge) {
+            log.warn("Rejected health data: {}", tooLarge.getMessage());
+            return payloadTooLarge(tooLarge);
+        }
+        return ResponseEntity.badRequest().body("❌ Erreur: body illisible");
+    }
+
+    static ResponseEntity<String> payloadTooLarge(PayloadTooLargeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("❌ Erreur: " + e.getMessage());
+    }
+}
@@ -0,0 +1,302 @@
+package com.example.healthsync.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal local append-only des uploads acceptés par POST /fetch/async.
+ *
+ * Le journal est découpé en segments de taille fixe, mappés en mémoire. Chaque enregistrement :
+ * [type:1][id:16][userIdLen:2][payloadLen:4][crc32:4][userId][payload]
+ * - ACCEPTED : un upload reçu (payload JSON brut)
+ * - DONE     : l'upload du même id a été traité (en succès ou en échec définitif)
+ *
+ * Au démarrage, les segments existants sont relus : tout ACCEPTED sans DONE est rejoué.
+ * Un segment n'est supprimé que lorsque lui et tous les segments plus anciens sont entièrement traités.
+ * La taille totale des segments est plafonnée (maxSize) : au-delà, append refuse l'upload (JournalFullException).
+ * Les marqueurs DONE ne sont jamais refusés, sinon les segments pleins ne pourraient plus être libérés.
+ */
+@Slf4j
+public class IngestionJournal implements Closeable {
+
+    static final byte ACCEPTED = 1;
+    static final byte DONE = 2;
+
+    private static final int HEADER_SIZE = 1 + 16 + 2 + 4 + 4;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSize;
+    private final boolean fsync;
+
+    // Segments du plus ancien au plus récent ; le dernier est le segment actif
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final List<JournalEntry> recovered = new ArrayList<>();
+    private long nextSegmentNumber = 0;
+    private long totalSize = 0;
+
+    public IngestionJournal(Path directory, int segmentSize, long maxSize, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.fsync = fsync;
+
+        Files.createDirectories(directory);
+        recover();
+        openSegment(segmentSize);
+    }
+
+    /**
+     * Uploads acceptés avant l'arrêt (ou le crash) et jamais marqués DONE
+     */
+    public synchronized List<JournalEntry> pendingEntries() {
+        return List.copyOf(recovered);
+    }
+
+    /**
+     * Écrit un upload dans le journal ; il est durable au retour si fsync est activé
+     */
+    public synchronized JournalEntry append(String userId, byte[] payload) throws IOException {
+        byte[] user = userId == null ? new byte[0] : userId.getBytes(StandardCharsets.UTF_8);
+        if (user.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("userId trop long");
+        }
+
+        int recordSize = HEADER_SIZE + user.length + payload.length;
+        Segment segment = segmentFor(recordSize, true);
+        int offset = segment.position;
+        MappedByteBuffer buffer = segment.buffer;
+
+        UUID id = UUID.randomUUID();
+        CRC32 crc = new CRC32();
+        crc.update(user);
+        crc.update(payload);
+
+        buffer.putLong(offset + 1, id.getMostSignificantBits());
+        buffer.putLong(offset + 9, id.getLeastSignificantBits());
+        buffer.putShort(offset + 17, (short) user.length);
+        buffer.putInt(offset + 19, payload.length);
+        buffer.putInt(offset + 23, (int) crc.getValue());
+        buffer.put(offset + HEADER_SIZE, user);
+        buffer.put(offset + HEADER_SIZE + user.length, payload);
+        // Le type est écrit en dernier : un enregistrement tronqué est vu comme la fin du segment
+        buffer.put(offset, ACCEPTED);
+        flush(segment, offset, recordSize);
+
+        segment.position += recordSize;
+        segment.pending++;
+        return new JournalEntry(id, userId, segment, offset + HEADER_SIZE + user.length, payload.length);
+    }
+
+    /**
+     * Marque un lot d'uploads comme traités (un seul fsync pour le lot)
+     */
+    public synchronized void markDone(Collection<JournalEntry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        Segment segment = segmentFor(HEADER_SIZE * entries.size(), false);
+        int start = segment.position;
+        for (JournalEntry entry : entries) {
+            int offset = segment.position;
+            segment.buffer.putLong(offset + 1, entry.getId().getMostSignificantBits());
+            segment.buffer.putLong(offset + 9, entry.getId().getLeastSignificantBits());
+            segment.buffer.put(offset, DONE);
+            segment.position += HEADER_SIZE;
+        }
+        flush(segment, start, segment.position - start);
+
+        for (JournalEntry entry : entries) {
+            entry.getSegment().pending--;
+        }
+        recovered.removeAll(entries);
+        retireCompletedSegments();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+        segments.clear();
+    }
+
+    // ========================================
+    // Segments
+    // ========================================
+
+    /**
+     * @param bounded false pour les marqueurs DONE, qui peuvent dépasser maxSize
+     */
+    private Segment segmentFor(int recordSize, boolean bounded) throws IOException {
+        Segment active = segments.peekLast();
+        if (active.position + recordSize <= active.buffer.capacity()) {
+            return active;
+        }
+        // Un upload plus gros qu'un segment obtient un segment dédié
+        int size = Math.max(segmentSize, recordSize);
+        if (bounded && totalSize + size > maxSize) {
+            throw new JournalFullException(String.format("Journal plein (%d Mo en attente de traitement)",
+                    totalSize / (1024 * 1024)));
+        }
+        return openSegment(size);
+    }
+
+    private Segment openSegment(int size) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSegmentNumber++, SEGMENT_SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Segment segment = new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        segments.addLast(segment);
+        totalSize += size;
+        return segment;
+    }
+
+    private void retireCompletedSegments() {
+        while (segments.size() > 1 && segments.peekFirst().pending == 0) {
+            Segment segment = segments.pollFirst();
+            totalSize -= segment.buffer.capacity();
+            try {
+                segment.channel.close();
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                // Sera re-scanné (et supprimé) au prochain démarrage
+                log.warn("⚠️ Impossible de supprimer le segment {}: {}", segment.path, e.getMessage());
+            }
+        }
+    }
+
+    private void flush(Segment segment, int offset, int length) {
+        if (fsync) {
+            segment.buffer.force(offset, length);
+        }
+    }
+
+    // ========================================
+    // Relecture au démarrage
+    // ========================================
+
+    private void recover() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .sorted()
+                    .toList();
+        }
+
+        Map<UUID, JournalEntry> pending = new LinkedHashMap<>();
+        for (Path path : paths) {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            Segment segment = new Segment(path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+            segment.position = scan(segment, pending);
+            segment.pending = 0;
+            segments.addLast(segment);
+            totalSize += segment.buffer.capacity();
+
+            String name = path.getFileName().toString();
+            long number = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            nextSegmentNumber = Math.max(nextSegmentNumber, number + 1);
+        }
+
+        for (JournalEntry entry : pending.values()) {
+            entry.getSegment().pending++;
+        }
+        recovered.addAll(pending.values());
+
+        if (!paths.isEmpty()) {
+            log.info("📼 Journal relu: {} segments, {} uploads à rejouer", paths.size(), recovered.size());
+        }
+        // Segments déjà entièrement traités : le nouveau segment actif sera ouvert juste après
+        while (!segments.isEmpty() && segments.peekFirst().pending == 0) {
+            Segment segment = segments.pollFirst();
+            totalSize -= segment.buffer.capacity();
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        }
+    }
+
+    /**
+     * Parcourt un segment et met à jour les uploads en attente
+     * @return position de fin des données valides
+     */
+    private int scan(Segment segment, Map<UUID, JournalEntry> pending) {
+        MappedByteBuffer buffer = segment.buffer;
+        int offset = 0;
+
+        while (offset + HEADER_SIZE <= buffer.capacity()) {
+            byte type = buffer.get(offset);
+            UUID id = new UUID(buffer.getLong(offset + 1), buffer.getLong(offset + 9));
+
+            if (type == DONE) {
+                pending.remove(id);
+                offset += HEADER_SIZE;
+                continue;
+            }
+            if (type != ACCEPTED) {
+                break;
+            }
+
+            int userLength = buffer.getShort(offset + 17);
+            int payloadLength = buffer.getInt(offset + 19);
+            int end = offset + HEADER_SIZE + userLength + payloadLength;
+            if (userLength < 0 || payloadLength < 0 || end > buffer.capacity()) {
+                break;
+            }
+
+            byte[] user = new byte[userLength];
+            buffer.get(offset + HEADER_SIZE, user);
+            CRC32 crc = new CRC32();
+            crc.update(user);
+            crc.update(buffer.duplicate().position(offset + HEADER_SIZE + userLength).limit(end));
+            if ((int) crc.getValue() != buffer.getInt(offset + 23)) {
+                log.warn("⚠️ Enregistrement corrompu dans {} à l'offset {}, fin du segment", segment.path, offset);
+                break;
+            }
+
+            String userId = userLength == 0 ? null : new String(user, StandardCharsets.UTF_8);
+            pending.put(id, new JournalEntry(id, userId, segment, offset + HEADER_SIZE + userLength, payloadLength));
+            offset = end;
+        }
+        return offset;
+    }
+
+    static final class Segment {
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int pending;
+
+        private Segment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        MappedByteBuffer buffer() {
+            return buffer;
+        }
+    }
+}
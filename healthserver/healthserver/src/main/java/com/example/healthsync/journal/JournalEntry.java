@@ -0,0 +1,38 @@
+package com.example.healthsync.journal;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Upload accepté et écrit dans le journal, en attente de traitement
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class JournalEntry {
+
+    private final UUID id;
+
+    private final String userId;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final IngestionJournal.Segment segment;
+
+    private final int payloadOffset;
+
+    private final int payloadLength;
+
+    /**
+     * Vue en lecture seule du payload JSON, directement dans le segment mappé (aucune copie)
+     */
+    public ByteBuffer payload() {
+        return segment.buffer().duplicate()
+                .position(payloadOffset)
+                .limit(payloadOffset + payloadLength)
+                .slice()
+                .asReadOnlyBuffer();
+    }
+}
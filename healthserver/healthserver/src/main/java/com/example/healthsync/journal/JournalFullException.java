@@ -0,0 +1,13 @@
+package com.example.healthsync.journal;
+
+import java.io.IOException;
+
+/**
+ * Upload refusé avant d'être journalisé : journal ou file de traitement pleins (le client doit réessayer)
+ */
+public class JournalFullException extends IOException {
+
+    public JournalFullException(String message) {
+        super(message);
+    }
+}
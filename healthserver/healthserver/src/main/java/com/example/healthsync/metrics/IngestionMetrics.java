@@ -0,0 +1,161 @@
+package com.example.healthsync.metrics;
+
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestionResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Métriques Micrometer de l'ingestion Health Connect (exposées via /actuator/metrics)
+ * Remplace l'affichage console de /fetch : aucun appel bloquant sur stdout par requête.
+ */
+@Slf4j
+@Component
+public class IngestionMetrics {
+
+    public static final String STEPS = "steps";
+    public static final String HEART_RATE = "heart_rate";
+    public static final String DISTANCE = "distance";
+    public static final String SLEEP = "sleep";
+    public static final String EXERCISE = "exercise";
+    public static final String HYDRATION = "hydration";
+    public static final String STRESS = "stress";
+    public static final String OXYGEN_SATURATION = "oxygen_saturation";
+    public static final String BODY_TEMPERATURE = "body_temperature";
+    public static final String BLOOD_PRESSURE = "blood_pressure";
+    public static final String WEIGHT = "weight";
+    public static final String HEIGHT = "height";
+
+    // Compteurs pré-enregistrés : pas de lookup dans le registry sur le chemin chaud
+    private final Map<String, Counter> pointCounters;
+    private final DistributionSummary daysPerRequest;
+    private final DistributionSummary bytesPerRequest;
+    private final Timer successTimer;
+    private final Timer errorTimer;
+
+    // Un résumé DEBUG toutes les N requêtes (0 = désactivé)
+    private final int debugSampleRate;
+    private final AtomicLong requestCount = new AtomicLong();
+
+    public IngestionMetrics(MeterRegistry registry,
+                            @Value("${healthsync.metrics.debug-sample-rate:100}") int debugSampleRate) {
+        this.debugSampleRate = debugSampleRate;
+
+        this.pointCounters = Stream.of(STEPS, HEART_RATE, DISTANCE, SLEEP, EXERCISE, HYDRATION, STRESS,
+                        OXYGEN_SATURATION, BODY_TEMPERATURE, BLOOD_PRESSURE, WEIGHT, HEIGHT)
+                .collect(Collectors.toUnmodifiableMap(Function.identity(), metric -> Counter
+                        .builder("healthsync.ingestion.points")
+                        .description("Points de données ingérés par type de métrique")
+                        .tag("metric", metric)
+                        .register(registry)));
+
+        this.daysPerRequest = DistributionSummary.builder("healthsync.ingestion.days")
+                .description("Jours reçus par requête d'ingestion")
+                .register(registry);
+
+        this.bytesPerRequest = DistributionSummary.builder("healthsync.ingestion.request.size")
+                .description("Taille du body par requête d'ingestion")
+                .baseUnit("bytes")
+                .register(registry);
+
+        this.successTimer = requestTimer(registry, "success");
+        this.errorTimer = requestTimer(registry, "error");
+    }
+
+    private static Timer requestTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("healthsync.ingestion.latency")
+                .description("Durée de traitement d'une requête d'ingestion")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Compte les points d'un jour par type de métrique
+     * @return nombre total de points du jour
+     */
+    public int recordDay(HealthData.DailyData day) {
+        int points = 0;
+
+        if (day.getTotalSteps() != null && day.getTotalSteps() > 0) {
+            points += increment(STEPS, 1);
+        }
+        if (day.getAvgHeartRate() != null && day.getAvgHeartRate() > 0) {
+            points += increment(HEART_RATE, 1);
+        }
+        if (day.getTotalDistanceKm() != null && day.getTotalDistanceKm() > 0) {
+            points += increment(DISTANCE, 1);
+        }
+        if (day.getTotalSleepHours() != null && isNotEmpty(day.getSleep())) {
+            points += increment(SLEEP, 1);
+        }
+        if (day.getTotalHydrationLiters() != null && isNotEmpty(day.getHydration())) {
+            points += increment(HYDRATION, 1);
+        }
+        if (day.getStressLevel() != null && day.getStressScore() != null) {
+            points += increment(STRESS, 1);
+        }
+
+        points += increment(EXERCISE, size(day.getExercise()));
+        points += increment(OXYGEN_SATURATION, size(day.getOxygenSaturation()));
+        points += increment(BODY_TEMPERATURE, size(day.getBodyTemperature()));
+        points += increment(BLOOD_PRESSURE, size(day.getBloodPressure()));
+        points += increment(WEIGHT, size(day.getWeight()));
+        points += increment(HEIGHT, size(day.getHeight()));
+
+        return points;
+    }
+
+    public Timer.Sample startRequest() {
+        return Timer.start();
+    }
+
+    /**
+     * Enregistre une requête réussie
+     * @param bytes taille du body (-1 si inconnue, ex. chunked)
+     */
+    public void recordRequest(Timer.Sample sample, IngestionResult result, long bytes) {
+        long nanos = sample.stop(successTimer);
+        daysPerRequest.record(result.getDays());
+        if (bytes >= 0) {
+            bytesPerRequest.record(bytes);
+        }
+
+        if (debugSampleRate > 0 && log.isDebugEnabled()
+                && requestCount.incrementAndGet() % debugSampleRate == 0) {
+            log.debug("Ingestion sample - User: {}, Days: {}, Inserted: {}, Updated: {}, Points: {}, Bytes: {}, Took: {} ms",
+                    result.getUserId(), result.getDays(), result.getInserted(), result.getUpdated(),
+                    result.getPoints(), bytes, nanos / 1_000_000);
+        }
+    }
+
+    public void recordFailure(Timer.Sample sample) {
+        sample.stop(errorTimer);
+    }
+
+    private int increment(String metric, int points) {
+        if (points > 0) {
+            pointCounters.get(metric).increment(points);
+        }
+        return points;
+    }
+
+    private static boolean isNotEmpty(List<?> records) {
+        return records != null && !records.isEmpty();
+    }
+
+    private static int size(List<?> records) {
+        return records == null ? 0 : records.size();
+    }
+}
@@ -1,10 +1,18 @@
 package com.example.healthsync.model;
 
+import com.example.healthsync.codec.HeartRateCodec;
+import com.example.healthsync.codec.LegacyDecimalConverter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.convert.ValueConverter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -13,25 +21,35 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "biometric_data")
+@CompoundIndex(name = "user_date_idx", def = "{'userId': 1, 'date': 1}", unique = true)  // Un seul document par (userId, date)
 public class BiometricData {
 
+    public static final int SCHEMA_VERSION = 2;
+
     @Id
     private String id;  // MongoDB génère automatiquement
 
-    private String userId;  // Clé étrangère vers User (temporairement aléatoire)
+    private String userId;  // Clé étrangère vers User (identité du token, jamais générée)
 
     private LocalDateTime receivedAt;  // Date de réception
 
     private String date;  // Date des données (format: "2025-10-30")
 
+    // 2 = agrégats numériques ; absent = ancien format (nombres en String, convertis à la lecture)
+    private Integer schemaVersion;
+
     // ✅ TOUTES LES DONNÉES AGRÉGÉES
     private Integer totalSteps;
     private Integer avgHeartRate;
     private Integer minHeartRate;
     private Integer maxHeartRate;
-    private String totalDistanceKm;
-    private String totalSleepHours;
-    private String totalHydrationLiters;
+    // Anciens documents : String, convertie à la lecture (LegacyDecimalConverter)
+    @ValueConverter(LegacyDecimalConverter.class)
+    private Double totalDistanceKm;
+    @ValueConverter(LegacyDecimalConverter.class)
+    private Double totalSleepHours;
+    @ValueConverter(LegacyDecimalConverter.class)
+    private Double totalHydrationLiters;
     private String stressLevel;
     private Integer stressScore;
 
@@ -59,13 +77,58 @@ public class BiometricData {
         private String endTime;
     }
 
+    /**
+     * Échantillons stockés soit en tableau (samples), soit encodés delta + varint (encodedSamples,
+     * voir HeartRateCodec). Les lecteurs passent par sampleArray() ou getSamples(), décodés à la demande.
+     */
     @Data
     @NoArgsConstructor
-    @AllArgsConstructor
     public static class HeartRateRecord {
         private List<Long> samples;
+        @JsonIgnore
+        private byte[] encodedSamples;
         private String startTime;
         private String endTime;
+
+        @Transient
+        @JsonIgnore
+        @ToString.Exclude
+        @EqualsAndHashCode.Exclude
+        private long[] decoded;
+
+        public HeartRateRecord(List<Long> samples, String startTime, String endTime) {
+            this.samples = samples;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        public static HeartRateRecord encoded(List<Long> samples, String startTime, String endTime) {
+            HeartRateRecord record = new HeartRateRecord(null, startTime, endTime);
+            if (samples != null) {
+                record.setEncodedSamples(HeartRateCodec.encode(HeartRateCodec.toArray(samples)));
+            }
+            return record;
+        }
+
+        /**
+         * Échantillons en long[], décodés une seule fois
+         */
+        public long[] sampleArray() {
+            if (decoded == null) {
+                decoded = encodedSamples != null
+                        ? HeartRateCodec.decode(encodedSamples)
+                        : HeartRateCodec.toArray(samples);
+            }
+            return decoded;
+        }
+
+        // Réponse JSON inchangée pour les clients : "samples" reste un tableau
+        public List<Long> getSamples() {
+            if (samples == null && encodedSamples != null) {
+                return HeartRateCodec.asList(sampleArray());
+            }
+            return samples;
+        }
     }
 
     @Data
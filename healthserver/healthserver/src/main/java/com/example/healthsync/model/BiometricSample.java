@@ -0,0 +1,31 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.time.Instant;
+
+/**
+ * Un point de mesure détaillé dans une collection time-series (voir SampleFamily)
+ * Les heures du téléphone ("yyyy-MM-dd HH:mm:ss", heure locale) sont stockées telles quelles en UTC nominal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BiometricSample {
+
+    @Id
+    private String id;
+
+    private Instant time;       // timeField
+
+    private String userId;      // metaField
+
+    private String type;        // ex: "bpm", "steps", "systolic"
+
+    private Double value;
+
+    private Instant endTime;    // Fin d'intervalle (steps, distance), sinon null
+}
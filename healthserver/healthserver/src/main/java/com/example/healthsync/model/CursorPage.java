@@ -0,0 +1,24 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Page de résultats paginée par curseur : passer nextCursor en paramètre "after" pour la page suivante
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> content;
+
+    private int limit;
+
+    private String nextCursor;  // null sur la dernière page
+
+    private boolean hasMore;
+}
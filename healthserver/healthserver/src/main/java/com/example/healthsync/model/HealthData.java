@@ -7,12 +7,18 @@ import java.util.List;
 @Data
 public class HealthData {
 
+    private String userId;  // Ignoré par les contrôleurs : utilisateur de l'enveloppe X-Auth-Identity (gateway)
+
     @JsonProperty("dailyData")
     private List<DailyData> dailyData;
 
     @Data
     public static class DailyData {
         private String date;
+        // true : envoi limité aux enregistrements plus récents que les watermarks (GET /fetch/sync).
+        // Les agrégats (totalSteps, min/max/avgHeartRate...) restent ceux de la journée entière et
+        // remplacent ceux du jour stocké ; un agrégat omis garde la valeur stockée
+        private Boolean partial;
         private List<StepRecord> steps;
         private Integer totalSteps;
         private List<HeartRateRecord> heartRate;
@@ -20,9 +26,9 @@ public class HealthData {
         private Integer maxHeartRate;
         private Integer avgHeartRate;
         private List<DistanceRecord> distance;
-        private String totalDistanceKm;
+        private Double totalDistanceKm;  // L'app envoie "1.25" : Jackson convertit la chaîne
         private List<SleepRecord> sleep;
-        private String totalSleepHours;
+        private Double totalSleepHours;
         private List<ExerciseRecord> exercise;
         private List<OxygenSaturationRecord> oxygenSaturation;
         private List<BodyTemperatureRecord> bodyTemperature;
@@ -30,7 +36,7 @@ public class HealthData {
         private List<WeightRecord> weight;
         private List<HeightRecord> height;
         private List<HydrationRecord> hydration;
-        private String totalHydrationLiters;
+        private Double totalHydrationLiters;
         private String stressLevel;
         private Integer stressScore;
     }
@@ -0,0 +1,24 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Résultat d'une écriture groupée (bulk upsert) des jours reçus
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionResult {
+
+    private String userId;
+
+    private int days;       // Jours présents dans la requête
+
+    private int inserted;   // Nouveaux documents (userId, date)
+
+    private int updated;    // Jours existants fusionnés
+
+    private int points;     // Points de données ingérés (tous types confondus)
+}
@@ -0,0 +1,36 @@
+package com.example.healthsync.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Suivi d'un upload accepté en mode asynchrone (GET /fetch/ingestions/{ingestionId})
+ */
+@Data
+@NoArgsConstructor
+public class IngestionStatus {
+
+    public enum State { ACCEPTED, PROCESSING, COMPLETED, FAILED }
+
+    private String ingestionId;
+
+    private String userId;
+
+    private State state;
+
+    private LocalDateTime acceptedAt;
+
+    private LocalDateTime completedAt;
+
+    private int attempts;
+
+    // Renseignés une fois l'upload traité
+    private int days;
+    private int inserted;
+    private int updated;
+    private int points;
+
+    private String error;
+}
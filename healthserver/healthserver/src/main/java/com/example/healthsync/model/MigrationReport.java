@@ -0,0 +1,22 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bilan d'un job de migration des documents biometric_data
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MigrationReport {
+
+    private long documents;     // Documents migrés
+
+    private long samples;       // Mesures écrites (ou valeurs ré-encodées)
+
+    private long failures;      // Valeurs illisibles (ré-encodage : conservées sous legacyAggregates)
+
+    private long durationMs;
+}
@@ -0,0 +1,45 @@
+package com.example.healthsync.model;
+
+import org.springframework.data.mongodb.core.timeseries.Granularity;
+
+import java.util.Arrays;
+
+/**
+ * Familles de métriques détaillées, chacune stockée dans sa collection time-series MongoDB
+ * (timeField = "time", metaField = "userId")
+ */
+public enum SampleFamily {
+
+    HEART_RATE("biometric_ts_heart_rate", Granularity.SECONDS),   // bpm
+    ACTIVITY("biometric_ts_activity", Granularity.MINUTES),       // steps, distance
+    VITALS("biometric_ts_vitals", Granularity.MINUTES),           // spo2, temperature, systolic, diastolic
+    BODY("biometric_ts_body", Granularity.HOURS),                 // weight, height
+    HYDRATION("biometric_ts_hydration", Granularity.MINUTES);     // hydration (ml)
+
+    private final String collection;
+    private final Granularity granularity;
+
+    SampleFamily(String collection, Granularity granularity) {
+        this.collection = collection;
+        this.granularity = granularity;
+    }
+
+    public String getCollection() {
+        return collection;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    /**
+     * Accepte "heart_rate", "HEART_RATE", "heart-rate"...
+     */
+    public static SampleFamily fromParam(String value) {
+        String normalized = value.trim().toUpperCase().replace('-', '_');
+        return Arrays.stream(values())
+                .filter(f -> f.name().equals(normalized))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Famille de métriques inconnue: " + value));
+    }
+}
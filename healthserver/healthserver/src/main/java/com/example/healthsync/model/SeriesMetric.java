@@ -0,0 +1,51 @@
+package com.example.healthsync.model;
+
+import java.util.Arrays;
+
+/**
+ * Métriques interrogeables par GET /fetch/user/{userId}/series :
+ * type de mesure (BiometricSample.type), famille time-series et liste embarquée de BiometricData
+ */
+public enum SeriesMetric {
+
+    BPM("bpm", SampleFamily.HEART_RATE, "heartRate"),
+    STEPS("steps", SampleFamily.ACTIVITY, "steps"),
+    DISTANCE("distance", SampleFamily.ACTIVITY, "distance"),
+    SPO2("spo2", SampleFamily.VITALS, "oxygenSaturation"),
+    TEMPERATURE("temperature", SampleFamily.VITALS, "bodyTemperature"),
+    SYSTOLIC("systolic", SampleFamily.VITALS, "bloodPressure"),
+    DIASTOLIC("diastolic", SampleFamily.VITALS, "bloodPressure"),
+    WEIGHT("weight", SampleFamily.BODY, "weight"),
+    HEIGHT("height", SampleFamily.BODY, "height"),
+    HYDRATION("hydration", SampleFamily.HYDRATION, "hydration");
+
+    private final String type;
+    private final SampleFamily family;
+    private final String detailField;
+
+    SeriesMetric(String type, SampleFamily family, String detailField) {
+        this.type = type;
+        this.family = family;
+        this.detailField = detailField;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public SampleFamily getFamily() {
+        return family;
+    }
+
+    public String getDetailField() {
+        return detailField;
+    }
+
+    public static SeriesMetric fromParam(String value) {
+        String normalized = value.trim().toLowerCase();
+        return Arrays.stream(values())
+                .filter(m -> m.type.equals(normalized))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Métrique inconnue: " + value));
+    }
+}
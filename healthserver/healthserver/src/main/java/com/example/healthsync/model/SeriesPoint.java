@@ -0,0 +1,27 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Un point d'une série sous-échantillonnée.
+ * Mode "buckets" : time = début du bucket, value = moyenne ; mode "lttb" : min = max = value, count = 1
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesPoint {
+
+    private Instant time;
+
+    private Double value;
+
+    private Double min;
+
+    private Double max;
+
+    private int count;  // Mesures brutes agrégées dans le point
+}
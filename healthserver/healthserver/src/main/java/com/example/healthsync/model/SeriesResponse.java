@@ -0,0 +1,31 @@
+package com.example.healthsync.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Série d'une métrique sur une plage de temps, calculée côté serveur
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeriesResponse {
+
+    private String userId;
+
+    private String metric;
+
+    private String method;  // "buckets" ou "lttb"
+
+    private Long bucketSeconds;  // Mode "buckets" uniquement
+
+    private Instant from;
+
+    private Instant to;
+
+    private List<SeriesPoint> points;
+}
@@ -0,0 +1,32 @@
+package com.example.healthsync.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Jeton de synchronisation d'un utilisateur : pour chaque liste détaillée ("heartRate", "steps"...),
+ * l'heure du plus récent enregistrement déjà stocké. Le téléphone n'envoie ensuite que les
+ * enregistrements plus récents (les jours partiels sont fusionnés côté serveur).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "sync_state")
+public class SyncState {
+
+    @Id
+    private String userId;
+
+    // Heures en UTC nominal, comme les heures envoyées par le téléphone
+    private Map<String, Instant> watermarks = new LinkedHashMap<>();
+
+    private LocalDateTime updatedAt;
+}
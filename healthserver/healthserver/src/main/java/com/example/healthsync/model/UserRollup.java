@@ -0,0 +1,87 @@
+package com.example.healthsync.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statistiques glissantes d'un utilisateur (7/30/90 jours), un document par utilisateur.
+ * Mis à jour à chaque sauvegarde : la lecture ne touche jamais biometric_data.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "user_rollups")
+public class UserRollup {
+
+    @Id
+    private String userId;
+
+    private long version;  // Incrémenté à chaque écriture (mise à jour conditionnelle des fenêtres)
+
+    private String lastDate;  // Jour le plus récent reçu (format: "2025-10-30")
+
+    private String asOf;  // Dernier jour des fenêtres calculées
+
+    private LocalDateTime updatedAt;
+
+    // Agrégats par jour, limités à la plus grande fenêtre (clé = date)
+    @JsonIgnore
+    private Map<String, Day> days = new LinkedHashMap<>();
+
+    // Clé = "7d", "30d", "90d"
+    private Map<String, Window> windows = new LinkedHashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+        private Integer steps;
+        private Integer avgHeartRate;
+        private Integer minHeartRate;
+        private Integer maxHeartRate;
+        private Double sleepHours;
+        private Double hydrationLiters;
+        private Double weightKg;  // Moyenne des pesées du jour
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Window {
+        private String from;
+        private String to;
+        private int days;  // Jours avec au moins une donnée
+        private Metric steps = new Metric();
+        private Metric heartRate = new Metric();  // sum/avg sur les moyennes journalières, min/max sur les extrêmes
+        private Metric sleepHours = new Metric();
+        private Metric hydrationLiters = new Metric();
+        private Metric weightKg = new Metric();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Metric {
+        private double sum;
+        private int count;
+        private Double min;
+        private Double max;
+        private Double avg;
+
+        public void add(double value, double low, double high) {
+            sum += value;
+            count++;
+            min = min == null ? low : Math.min(min, low);
+            max = max == null ? high : Math.max(max, high);
+            avg = sum / count;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.healthsync.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Appelant authentifié par l'API Gateway (enveloppe X-Auth-Identity vérifiée par GatewayIdentityFilter).
+ * Les en-têtes X-User-* bruts ne sont jamais lus : seul ce qui est signé par la gateway fait foi.
+ */
+public record GatewayIdentity(String userId, String email, List<String> roles, Instant expiresAt) {
+
+    public static final String ATTRIBUTE = GatewayIdentity.class.getName();
+
+    public static final String ADMIN_ROLE = "ADMIN";
+    public static final String SERVICE_ROLE = "SERVICE";
+
+    /**
+     * Identité vérifiée de la requête, null si elle n'a pas d'enveloppe (appel anonyme)
+     */
+    public static GatewayIdentity from(HttpServletRequest request) {
+        return request.getAttribute(ATTRIBUTE) instanceof GatewayIdentity identity ? identity : null;
+    }
+
+    public boolean hasRole(String role) {
+        return roles.contains(role) || roles.contains("ROLE_" + role);
+    }
+
+    /**
+     * Administrateur ou appel d'un autre service (enveloppe de rôle SERVICE)
+     */
+    public boolean isAdminOrService() {
+        return hasRole(ADMIN_ROLE) || hasRole(SERVICE_ROLE);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.healthsync.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Vérification des enveloppes X-Auth-Identity signées par la gateway (HMAC-SHA256, app.identity.secret).
+ * Même format que IdentityEnvelope de shared-library, dont healthsync ne dépend pas (projet Spring Boot séparé) :
+ * base64url(userId \n email \n role,role \n expEpochSeconds) "." base64url(hmac)
+ */
+public class IdentityEnvelopeVerifier {
+
+    public static final String HEADER = "X-Auth-Identity";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public IdentityEnvelopeVerifier(String secret) {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalArgumentException("app.identity.secret doit faire au moins 32 caractères");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Vérifie signature et expiration
+     * @throws IllegalArgumentException si l'enveloppe est malformée, falsifiée ou expirée
+     */
+    public GatewayIdentity verify(String envelope) {
+        int dot = envelope == null ? -1 : envelope.indexOf('.');
+        if (dot <= 0) {
+            throw new IllegalArgumentException("Enveloppe d'identité malformée");
+        }
+        String payload = envelope.substring(0, dot);
+        byte[] signature = DECODER.decode(envelope.substring(dot + 1));
+        if (!MessageDigest.isEqual(mac(payload), signature)) {
+            throw new IllegalArgumentException("Signature de l'enveloppe d'identité invalide");
+        }
+
+        String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\n", -1);
+        if (fields.length != 4 || fields[0].isBlank()) {
+            throw new IllegalArgumentException("Enveloppe d'identité malformée");
+        }
+        Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[3]));
+        if (!expiresAt.isAfter(Instant.now())) {
+            throw new IllegalArgumentException("Enveloppe d'identité expirée");
+        }
+        List<String> roles = fields[2].isEmpty() ? List.of() : List.copyOf(Arrays.asList(fields[2].split(",")));
+        return new GatewayIdentity(fields[0], fields[1], roles, expiresAt);
+    }
+
+    private byte[] mac(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.codec.LegacyDecimalConverter;
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.MigrationReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Ré-encodage des agrégats stockés en String (ancien format) en Double, puis schemaVersion = 2.
+ * Les documents sont lus bruts (org.bson.Document) : les chaînes sont converties ici, avec le format
+ * de LegacyDecimalConverter. Une valeur illisible n'est pas perdue : elle est loguée, comptée dans
+ * le bilan (failures) et déplacée sous legacyAggregates.<champ>.
+ * Relançable sans risque : seuls les documents qui ont encore un agrégat en String sont traités.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AggregateReencodeJob {
+
+    private static final String[] DECIMAL_FIELDS = {"totalDistanceKm", "totalSleepHours", "totalHydrationLiters"};
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${healthsync.reencode.batch-size:500}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile MigrationReport lastReport;
+
+    /**
+     * Lance le ré-encodage dans un thread dédié (la collection peut être volumineuse)
+     */
+    public void start() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ré-encodage déjà en cours");
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                lastReport = reencode();
+            } catch (Exception e) {
+                log.error("❌ Ré-encodage agrégats interrompu: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        }, "aggregate-reencode");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public MigrationReport getLastReport() {
+        return lastReport;
+    }
+
+    private MigrationReport reencode() {
+        long start = System.currentTimeMillis();
+        MigrationReport report = new MigrationReport();
+        String collection = mongoTemplate.getCollectionName(BiometricData.class);
+        try (Stream<Document> documents = mongoTemplate.stream(legacyDocuments(), Document.class, collection)) {
+            Iterator<Document> cursor = documents.iterator();
+            BulkOperations bulk = newBulk();
+            int pending = 0;
+
+            while (cursor.hasNext()) {
+                Document day = cursor.next();
+                Update update = new Update().set("schemaVersion", BiometricData.SCHEMA_VERSION);
+                for (String field : DECIMAL_FIELDS) {
+                    reencode(update, day, field, report);
+                }
+                bulk.updateOne(new Query(Criteria.where("_id").is(day.get("_id"))), update);
+                report.setDocuments(report.getDocuments() + 1);
+
+                if (++pending == batchSize) {
+                    bulk.execute();
+                    bulk = newBulk();
+                    pending = 0;
+                    log.info("🔄 Ré-encodage agrégats: {} documents", report.getDocuments());
+                }
+            }
+            if (pending > 0) {
+                bulk.execute();
+            }
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        log.info("✅ Ré-encodage agrégats terminé: {} documents, {} valeurs, {} illisibles en {} ms",
+                report.getDocuments(), report.getSamples(), report.getFailures(), report.getDurationMs());
+        return report;
+    }
+
+    /**
+     * Chaîne → Double ; chaîne vide supprimée ; valeur illisible déplacée sous legacyAggregates
+     */
+    private void reencode(Update update, Document day, String field, MigrationReport report) {
+        if (!(day.get(field) instanceof String text)) {
+            return;  // Déjà numérique ou absent
+        }
+        try {
+            Double value = LegacyDecimalConverter.parse(text);
+            if (value == null) {
+                update.unset(field);
+            } else {
+                update.set(field, value);
+                report.setSamples(report.getSamples() + 1);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("⚠️ Document {}: {} illisible (\"{}\"), conservé sous legacyAggregates.{}",
+                    day.get("_id"), field, text, field);
+            update.set("legacyAggregates." + field, text).unset(field);
+            report.setFailures(report.getFailures() + 1);
+        }
+    }
+
+    /**
+     * Documents qui ont encore au moins un agrégat stocké en String
+     */
+    private Query legacyDocuments() {
+        Criteria[] legacy = new Criteria[DECIMAL_FIELDS.length];
+        for (int i = 0; i < DECIMAL_FIELDS.length; i++) {
+            legacy[i] = Criteria.where(DECIMAL_FIELDS[i]).type(BsonType.STRING.getValue());
+        }
+        Query query = new Query(new Criteria().orOperator(legacy));
+        query.fields().include(DECIMAL_FIELDS);
+        return query;
+    }
+
+    private BulkOperations newBulk() {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.journal.IngestionJournal;
+import com.example.healthsync.journal.JournalEntry;
+import com.example.healthsync.journal.JournalFullException;
+import com.example.healthsync.model.IngestionResult;
+import com.example.healthsync.model.IngestionStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ingestion asynchrone : l'upload est écrit dans le journal local puis la requête
+ * reçoit 202 immédiatement. Un pool de workers vide le journal par lots vers MongoDB.
+ *
+ * Activé par healthsync.ingestion.async.enabled=true
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "healthsync.ingestion.async.enabled", havingValue = "true")
+public class AsyncIngestionService {
+
+    private final BiometricDataService biometricDataService;
+
+    @Value("${healthsync.ingestion.async.journal-dir:./data/journal}")
+    private String journalDir;
+
+    @Value("${healthsync.ingestion.async.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    // Taille maximale du journal sur disque : au-delà, les uploads sont refusés (503)
+    @Value("${healthsync.ingestion.async.max-journal-mb:1024}")
+    private long maxJournalMb;
+
+    // Uploads acceptés mais pas encore traités (en file, en cours ou en attente de retry)
+    @Value("${healthsync.ingestion.async.max-pending:1000}")
+    private int maxPending;
+
+    @Value("${healthsync.ingestion.async.fsync:true}")
+    private boolean fsync;
+
+    @Value("${healthsync.ingestion.async.workers:2}")
+    private int workerCount;
+
+    // Uploads traités par un worker avant d'écrire les marqueurs DONE (un seul fsync)
+    @Value("${healthsync.ingestion.async.batch-size:16}")
+    private int batchSize;
+
+    @Value("${healthsync.ingestion.async.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${healthsync.ingestion.async.max-tracked:10000}")
+    private int maxTracked;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private BlockingQueue<JournalEntry> queue;
+    private Map<String, IngestionStatus> statuses;
+    private IngestionJournal journal;
+    private ExecutorService workers;
+    private ScheduledExecutorService retryScheduler;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() throws IOException {
+        statuses = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IngestionStatus> eldest) {
+                return size() > maxTracked;
+            }
+        });
+
+        journal = new IngestionJournal(Path.of(journalDir), segmentSizeMb * 1024 * 1024,
+                maxJournalMb * 1024 * 1024, fsync);
+        List<JournalEntry> replayed = journal.pendingEntries();
+        // File bornée : chaque élément est un upload en attente, leur nombre est limité par accept()
+        queue = new LinkedBlockingQueue<>(Math.max(maxPending, replayed.size()));
+        for (JournalEntry entry : replayed) {
+            track(entry);
+            pending.incrementAndGet();
+            queue.add(entry);
+        }
+
+        running = true;
+        AtomicInteger threadIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount,
+                r -> new Thread(r, "ingestion-worker-" + threadIndex.incrementAndGet()));
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::drainLoop);
+        }
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "ingestion-retry"));
+
+        log.info("🚀 Ingestion asynchrone: journal={}, workers={}, uploads rejoués={}",
+                journalDir, workerCount, replayed.size());
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running = false;
+        retryScheduler.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+        // Les uploads non marqués DONE seront rejoués au prochain démarrage
+        journal.close();
+    }
+
+    /**
+     * Écrit l'upload dans le journal et le met en file de traitement
+     * @throws JournalFullException si maxPending uploads attendent déjà ou si le journal est plein
+     */
+    public IngestionStatus accept(byte[] payload, String userId) throws IOException {
+        if (payload.length == 0) {
+            throw new IllegalArgumentException("Body vide");
+        }
+        // Utilisateur fixé avant le journal (un upload non identifié est refusé sans être journalisé)
+        String resolvedUserId = biometricDataService.resolveUserId(payload, userId);
+
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new JournalFullException("Trop d'uploads en attente de traitement (" + maxPending + ")");
+        }
+        JournalEntry entry;
+        try {
+            entry = journal.append(resolvedUserId, payload);
+        } catch (IOException | RuntimeException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+        IngestionStatus status = track(entry);
+        queue.add(entry);
+        return snapshot(status);
+    }
+
+    public Optional<IngestionStatus> getStatus(String ingestionId) {
+        return Optional.ofNullable(statuses.get(ingestionId)).map(this::snapshot);
+    }
+
+    private IngestionStatus track(JournalEntry entry) {
+        IngestionStatus status = new IngestionStatus();
+        status.setIngestionId(entry.getId().toString());
+        status.setUserId(entry.getUserId());
+        status.setState(IngestionStatus.State.ACCEPTED);
+        status.setAcceptedAt(LocalDateTime.now());
+        statuses.put(status.getIngestionId(), status);
+        return status;
+    }
+
+    private IngestionStatus snapshot(IngestionStatus status) {
+        IngestionStatus copy = new IngestionStatus();
+        synchronized (status) {
+            BeanUtils.copyProperties(status, copy);
+        }
+        return copy;
+    }
+
+    // ========================================
+    // Workers
+    // ========================================
+
+    private void drainLoop() {
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                JournalEntry first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                List<JournalEntry> done = new ArrayList<>(batch.size());
+                try {
+                    for (JournalEntry entry : batch) {
+                        if (process(entry)) {
+                            done.add(entry);
+                        }
+                    }
+                    journal.markDone(done);
+                } finally {
+                    // Terminés même si markDone échoue : ils ne doivent plus compter dans maxPending
+                    pending.addAndGet(-done.size());
+                }
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Marqueurs DONE non écrits : les uploads seront retraités au redémarrage (upserts idempotents)
+                log.error("❌ Erreur worker d'ingestion: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * @return true si l'upload est terminé (succès ou échec définitif), false s'il sera retenté
+     */
+    private boolean process(JournalEntry entry) {
+        IngestionStatus status = statuses.get(entry.getId().toString());
+        if (status == null) {
+            status = track(entry);
+        }
+        synchronized (status) {
+            status.setState(IngestionStatus.State.PROCESSING);
+            status.setAttempts(status.getAttempts() + 1);
+        }
+
+        try (InputStream body = new ByteBufferBackedInputStream(entry.payload())) {
+            IngestionResult result = biometricDataService.saveBiometricDataStream(body, entry.getUserId());
+            synchronized (status) {
+                status.setState(IngestionStatus.State.COMPLETED);
+                status.setCompletedAt(LocalDateTime.now());
+                status.setUserId(result.getUserId());
+                status.setDays(result.getDays());
+                status.setInserted(result.getInserted());
+                status.setUpdated(result.getUpdated());
+                status.setPoints(result.getPoints());
+                status.setError(null);
+            }
+            return true;
+
+        } catch (IllegalArgumentException | JsonProcessingException e) {
+            // Payload invalide : inutile de réessayer
+            log.warn("⚠️ Upload {} rejeté: {}", entry.getId(), e.getMessage());
+            synchronized (status) {
+                status.setState(IngestionStatus.State.FAILED);
+                status.setCompletedAt(LocalDateTime.now());
+                status.setError(e.getMessage());
+            }
+            return true;
+
+        } catch (Exception e) {
+            // Erreur transitoire (MongoDB indisponible...) : l'upload reste dans le journal
+            log.warn("⚠️ Upload {} en échec (tentative {}), nouvel essai dans {} ms: {}",
+                    entry.getId(), status.getAttempts(), retryDelayMs, e.getMessage());
+            synchronized (status) {
+                status.setState(IngestionStatus.State.ACCEPTED);
+                status.setError(e.getMessage());
+            }
+            if (running) {
+                retryScheduler.schedule(() -> queue.add(entry), retryDelayMs, TimeUnit.MILLISECONDS);
+            }
+            return false;
+        }
+    }
+}
@@ -1,17 +1,49 @@
 package com.example.healthsync.service;
 
+import com.example.healthsync.anomaly.AnomalyDetector;
+import com.example.healthsync.metrics.IngestionMetrics;
 import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricSample;
+import com.example.healthsync.model.CursorPage;
 import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.IngestionResult;
+import com.example.healthsync.model.SampleFamily;
+import com.example.healthsync.model.SeriesMetric;
+import com.example.healthsync.model.SeriesResponse;
+import com.example.healthsync.model.SyncState;
+import com.example.healthsync.model.UserRollup;
 import com.example.healthsync.repository.BiometricDataRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -19,142 +51,365 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BiometricDataService {
 
+    public static final int MAX_PAGE_SIZE = 366;
+
+    // Projection "aggregates" : le dashboard n'a besoin que des agrégats journaliers
+    public static final String AGGREGATES = "aggregates";
+    private static final List<String> AGGREGATE_FIELDS = List.of(
+            "receivedAt", "totalSteps", "avgHeartRate", "minHeartRate", "maxHeartRate",
+            "totalDistanceKm", "totalSleepHours", "totalHydrationLiters", "stressLevel", "stressScore");
+    private static final Set<String> PROJECTABLE_FIELDS = Arrays.stream(BiometricData.class.getDeclaredFields())
+            .filter(field -> !Modifier.isStatic(field.getModifiers()))
+            .map(Field::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
     private final BiometricDataRepository repository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final IngestionMetrics ingestionMetrics;
+    private final BiometricSampleService sampleService;
+    private final UserRollupService rollupService;
+    private final DownsamplingService downsamplingService;
+    private final SyncStateService syncStateService;
+    private final AnomalyDetector anomalyDetector;
+    private final BiometricIndexManager indexManager;
 
-    private String generateTemporaryUserId() {
-        return "user_" + UUID.randomUUID().toString().substring(0, 8);
-    }
+    // Nombre de jours par bulk write en mode streaming
+    @Value("${healthsync.ingestion.batch-size:7}")
+    private int batchSize;
+
+    // Mesures détaillées dans les collections time-series au lieu des tableaux embarqués
+    @Value("${healthsync.timeseries.enabled:false}")
+    private boolean timeSeriesEnabled;
+
+    // Échantillons cardiaques stockés encodés delta + varint (BSON binaire) au lieu d'un tableau
+    @Value("${healthsync.storage.heart-rate-codec.enabled:false}")
+    private boolean heartRateCodecEnabled;
 
     /**
-     * Sauvegarde les données biométriques reçues de l'app Android
-     * Convertit HealthData → BiometricData pour MongoDB
+     * Upload sans identité stable : refusé, un id inventé par upload rendrait l'upsert (userId, date),
+     * les watermarks, les rollups et les lignes de base inopérants
      */
-    public List<BiometricData> saveBiometricData(HealthData healthData) {
-        List<BiometricData> savedRecords = new ArrayList<>();
+    private static IllegalArgumentException unidentified() {
+        return new IllegalArgumentException("Utilisateur non identifié: token ou \"userId\" requis");
+    }
 
-        if (healthData.getDailyData() == null || healthData.getDailyData().isEmpty()) {
-            throw new IllegalArgumentException("Aucune donnée quotidienne à sauvegarder");
+    /**
+     * Utilisateur auquel saveBiometricDataStream attribuera ce body : en-tête, sinon "userId" du body
+     * s'il précède "dailyData". Résolu avant la journalisation pour qu'un upload rejoué soit rattaché
+     * au même utilisateur.
+     * @throws IllegalArgumentException si aucun des deux n'identifie l'utilisateur
+     */
+    public String resolveUserId(byte[] body, String userId) throws IOException {
+        if (userId != null && !userId.isBlank()) {
+            return userId;
         }
-
-        String userId = generateTemporaryUserId();
-        log.info("📝 UserID généré: {}", userId);
-
-        for (HealthData.DailyData day : healthData.getDailyData()) {
-            try {
-                BiometricData data = new BiometricData();
-
-                // Métadonnées
-                data.setUserId(userId);
-                data.setReceivedAt(LocalDateTime.now());
-                data.setDate(day.getDate());
-
-                // ✅ Données agrégées
-                data.setTotalSteps(day.getTotalSteps());
-                data.setAvgHeartRate(day.getAvgHeartRate());
-                data.setMinHeartRate(day.getMinHeartRate());
-                data.setMaxHeartRate(day.getMaxHeartRate());
-                data.setTotalDistanceKm(day.getTotalDistanceKm());
-                data.setTotalSleepHours(day.getTotalSleepHours());
-                data.setTotalHydrationLiters(day.getTotalHydrationLiters());
-                data.setStressLevel(day.getStressLevel());
-                data.setStressScore(day.getStressScore());
-
-                // ✅ Conversion des listes détaillées
-                if (day.getSteps() != null) {
-                    data.setSteps(day.getSteps().stream()
-                            .map(s -> new BiometricData.StepRecord(s.getCount(), s.getStartTime(), s.getEndTime()))
-                            .collect(Collectors.toList()));
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Format de données invalide: objet JSON attendu");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("userId".equals(field) && value == JsonToken.VALUE_STRING && !parser.getText().isBlank()) {
+                    return parser.getText();
                 }
-
-                if (day.getHeartRate() != null) {
-                    data.setHeartRate(day.getHeartRate().stream()
-                            .map(hr -> new BiometricData.HeartRateRecord(hr.getSamples(), hr.getStartTime(), hr.getEndTime()))
-                            .collect(Collectors.toList()));
+                if ("dailyData".equals(field)) {
+                    break;
                 }
+                parser.skipChildren();
+            }
+        }
+        throw unidentified();
+    }
 
-                if (day.getDistance() != null) {
-                    data.setDistance(day.getDistance().stream()
-                            .map(d -> new BiometricData.DistanceRecord(d.getDistanceMeters(), d.getStartTime(), d.getEndTime()))
-                            .collect(Collectors.toList()));
-                }
+    /**
+     * Sauvegarde les données biométriques reçues de l'app Android. Le body JSON est lu avec un
+     * JsonParser, un jour de "dailyData" à la fois, sans jamais construire le graphe HealthData complet.
+     * Chaque jour est un upsert sur (userId, date), donc un renvoi du téléphone fusionne avec le
+     * jour existant au lieu de créer un doublon.
+     * Les jours sont envoyés à MongoDB par lots de {@code batchSize} upserts, donc la mémoire
+     * par requête reste bornée quel que soit le nombre de jours envoyés par le téléphone.
+     *
+     * Le champ "userId" du body n'est pris en compte que s'il précède "dailyData".
+     *
+     * @throws IllegalArgumentException si un élément de "dailyData" n'est pas un objet
+     * @throws IngestionWriteException  si MongoDB échoue : les lots précédents restent écrits (committedDays)
+     */
+    public IngestionResult saveBiometricDataStream(InputStream body, String userId) throws IOException {
+        String resolvedUserId = userId != null && !userId.isBlank() ? userId : null;
+        IngestionResult result = new IngestionResult();
+        LocalDateTime receivedAt = LocalDateTime.now();
 
-                if (day.getSleep() != null) {
-                    data.setSleep(day.getSleep().stream()
-                            .map(s -> new BiometricData.SleepRecord(s.getTitle(), s.getStartTime(), s.getEndTime(), s.getDurationMinutes()))
-                            .collect(Collectors.toList()));
-                }
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Format de données invalide: objet JSON attendu");
+            }
 
-                if (day.getExercise() != null) {
-                    data.setExercise(day.getExercise().stream()
-                            .map(e -> new BiometricData.ExerciseRecord(
-                                    e.getTitle(), e.getExerciseType(), e.getExerciseTypeName(),
-                                    e.getStartTime(), e.getEndTime(), e.getDurationMinutes(),
-                                    e.getSteps(), e.getDistanceMeters(), e.getDistanceKm(),
-                                    e.getActiveCalories(), e.getTotalCalories(),
-                                    e.getAvgHeartRate(), e.getMinHeartRate(), e.getMaxHeartRate(),
-                                    e.getAvgCadence(), e.getMinCadence(), e.getMaxCadence(),
-                                    e.getAvgSpeedKmh(), e.getMaxSpeedKmh(), e.getMinSpeedKmh(),
-                                    e.getAvgStrideLengthMeters(), e.getMinStrideLengthMeters(), e.getMaxStrideLengthMeters(),
-                                    e.getAvgPowerWatts()
-                            ))
-                            .collect(Collectors.toList()));
-                }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
 
-                if (day.getOxygenSaturation() != null) {
-                    data.setOxygenSaturation(day.getOxygenSaturation().stream()
-                            .map(o2 -> new BiometricData.OxygenSaturationRecord(o2.getPercentage(), o2.getTime()))
-                            .collect(Collectors.toList()));
-                }
+                if ("userId".equals(field) && value == JsonToken.VALUE_STRING) {
+                    if (resolvedUserId == null && !parser.getText().isBlank()) {
+                        resolvedUserId = parser.getText();
+                    }
+                } else if ("dailyData".equals(field) && value == JsonToken.START_ARRAY) {
+                    if (resolvedUserId == null) {
+                        throw unidentified();
+                    }
+                    result.setUserId(resolvedUserId);
+                    indexManager.ensureIndexes();
 
-                if (day.getBodyTemperature() != null) {
-                    data.setBodyTemperature(day.getBodyTemperature().stream()
-                            .map(temp -> new BiometricData.BodyTemperatureRecord(temp.getTemperature(), temp.getTime()))
-                            .collect(Collectors.toList()));
-                }
+                    DayBatch batch = new DayBatch();
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        HealthData.DailyData day = objectMapper.readValue(parser, HealthData.DailyData.class);
+                        result.setPoints(result.getPoints() + addDay(batch, resolvedUserId, receivedAt, day));
+                        result.setDays(result.getDays() + 1);
 
-                if (day.getBloodPressure() != null) {
-                    data.setBloodPressure(day.getBloodPressure().stream()
-                            .map(bp -> new BiometricData.BloodPressureRecord(bp.getSystolic(), bp.getDiastolic(), bp.getTime()))
-                            .collect(Collectors.toList()));
+                        if (batch.size == batchSize) {
+                            executeInto(batch, result);
+                            batch = new DayBatch();
+                        }
+                    }
+                    if (parser.currentToken() != JsonToken.END_ARRAY) {
+                        throw new IllegalArgumentException(invalidElement(parser.currentToken(), result));
+                    }
+                    if (batch.size > 0) {
+                        executeInto(batch, result);
+                    }
+                } else {
+                    parser.skipChildren();
                 }
+            }
+        }
 
-                if (day.getWeight() != null) {
-                    data.setWeight(day.getWeight().stream()
-                            .map(w -> new BiometricData.WeightRecord(w.getWeight(), w.getTime()))
-                            .collect(Collectors.toList()));
-                }
+        if (result.getDays() == 0) {
+            throw new IllegalArgumentException("Aucune donnée quotidienne à sauvegarder");
+        }
 
-                if (day.getHeight() != null) {
-                    data.setHeight(day.getHeight().stream()
-                            .map(h -> new BiometricData.HeightRecord(h.getHeight(), h.getTime()))
-                            .collect(Collectors.toList()));
-                }
+        log.info("✅ Bulk upsert (stream): userId={}, jours={}, insérés={}, fusionnés={}",
+                resolvedUserId, result.getDays(), result.getInserted(), result.getUpdated());
+        return result;
+    }
 
-                if (day.getHydration() != null) {
-                    data.setHydration(day.getHydration().stream()
-                            .map(hyd -> new BiometricData.HydrationRecord(hyd.getVolumeMl(), hyd.getTime()))
-                            .collect(Collectors.toList()));
-                }
+    /**
+     * Lot d'écriture : upserts des jours + mesures time-series de ces mêmes jours
+     */
+    private final class DayBatch {
+        private final BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+        private final Map<SampleFamily, List<BiometricSample>> samples = new EnumMap<>(SampleFamily.class);
+        private final Map<String, UserRollup.Day> rollupDays = new HashMap<>();
+        private final List<String> partialDays = new ArrayList<>();
+        private final Map<String, Instant> watermarks = new HashMap<>();
+        private final List<AnomalyDetector.Observation> vitals = new ArrayList<>();
+        private int size;
+    }
 
-                // ✅ Sauvegarde dans MongoDB
-                BiometricData saved = repository.save(data);
-                savedRecords.add(saved);
+    /**
+     * Ajoute l'upsert d'un jour au lot
+     * @return nombre de points de données du jour
+     */
+    private int addDay(DayBatch batch, String userId, LocalDateTime receivedAt, HealthData.DailyData day) {
+        if (day.getDate() == null || day.getDate().isBlank()) {
+            throw new IllegalArgumentException("Date manquante pour un jour de données");
+        }
+        BiometricData data = BiometricDataMapper.toBiometricData(userId, receivedAt, day, heartRateCodecEnabled);
+        boolean partial = Boolean.TRUE.equals(day.getPartial());
+        anomalyDetector.collect(data, partial, batch.vitals);
 
-                log.info("✅ Sauvegardé: userId={}, date={}, id={}",
-                        userId, data.getDate(), saved.getId());
+        if (timeSeriesEnabled) {
+            sampleService.extract(data).forEach((family, samples) ->
+                    batch.samples.computeIfAbsent(family, f -> new ArrayList<>()).addAll(samples));
+            sampleService.stripDetails(data);
+        }
 
-            } catch (Exception e) {
-                log.error("❌ Erreur sauvegarde jour {}: {}", day.getDate(), e.getMessage());
-                throw new RuntimeException("Erreur lors de la sauvegarde: " + e.getMessage(), e);
+        batch.bulk.upsert(dayQuery(userId, day.getDate()), mergeUpdate(data));
+        batch.size++;
+
+        syncStateService.collect(day, batch.watermarks);
+
+        if (partial) {
+            // Mesures de l'envoi incomplètes (FC de repos...) : rollup et détection reliront le jour fusionné
+            batch.partialDays.add(day.getDate());
+        } else {
+            UserRollup.Day summary = rollupService.summarize(day);
+            if (summary != null) {
+                batch.rollupDays.put(day.getDate(), summary);
+            }
+        }
+        return ingestionMetrics.recordDay(day);
+    }
+
+    /**
+     * Exécute un lot d'upserts (et l'insertion des mesures time-series) et cumule les compteurs
+     */
+    private void executeInto(DayBatch batch, IngestionResult result) {
+        try {
+            BulkWriteResult written = batch.bulk.execute();
+            result.setInserted(result.getInserted() + written.getUpserts().size());
+            result.setUpdated(result.getUpdated() + written.getMatchedCount());
+            sampleService.insert(batch.samples);
+            downsamplingService.invalidate(result.getUserId());
+            syncStateService.advance(result.getUserId(), batch.watermarks);
+
+        } catch (Exception e) {
+            int committed = result.getInserted() + result.getUpdated() + partiallyWritten(e);
+            log.error("❌ Erreur bulk upsert userId {} ({} jours déjà sauvegardés): {}",
+                    result.getUserId(), committed, e.getMessage());
+            throw new IngestionWriteException(result.getUserId(), committed, e);
+        }
+
+        try {
+            if (!batch.partialDays.isEmpty()) {
+                batch.rollupDays.putAll(rollupService.summarizeStored(result.getUserId(), batch.partialDays));
             }
+            rollupService.apply(result.getUserId(), batch.rollupDays);
+        } catch (Exception e) {
+            // Les jours sont sauvegardés : le rollup sera corrigé au prochain envoi (ou via rebuild)
+            log.warn("⚠️ Rollup non mis à jour pour userId {}: {}", result.getUserId(), e.getMessage());
+        }
+
+        try {
+            anomalyDetector.collectStored(result.getUserId(), batch.partialDays, batch.vitals);
+            anomalyDetector.process(result.getUserId(), batch.vitals);
+        } catch (Exception e) {
+            log.warn("⚠️ Détection d'anomalies ignorée pour userId {}: {}", result.getUserId(), e.getMessage());
         }
+    }
+
+    /**
+     * Jours écrits par un bulk non ordonné qui a échoué sur une partie de ses upserts
+     */
+    private static int partiallyWritten(Exception e) {
+        if (e instanceof BulkOperationException bulkError) {
+            BulkWriteResult written = bulkError.getResult();
+            return written.getUpserts().size() + written.getMatchedCount();
+        }
+        return 0;
+    }
 
-        return savedRecords;
+    private static String invalidElement(JsonToken token, IngestionResult result) {
+        String message = "Format de données invalide: objet attendu dans dailyData, reçu " + token;
+        int committed = result.getInserted() + result.getUpdated();
+        return committed > 0 ? message + " (" + committed + " jours précédents déjà sauvegardés)" : message;
+    }
+
+    private Query dayQuery(String userId, String date) {
+        return new Query(Criteria.where("userId").is(userId).and("date").is(date));
+    }
+
+    /**
+     * Fusion d'un jour avec le document stocké (voir DayMerge) : le jour est converti en BSON
+     * par le converter de MongoTemplate, comme pour un save
+     */
+    private AggregationUpdate mergeUpdate(BiometricData data) {
+        Document day = new Document();
+        mongoTemplate.getConverter().write(data, day);
+        return DayMerge.update(day);
     }
 
+    /**
+     * Historique complet d'un utilisateur, trié par date (réponse historique de GET /fetch/user/{userId})
+     */
     public List<BiometricData> getUserData(String userId) {
-        return repository.findByUserId(userId);
+        indexManager.ensureIndexes();
+        return mongoTemplate.find(
+                new Query(Criteria.where("userId").is(userId)).with(Sort.by(Sort.Direction.ASC, "date")),
+                BiometricData.class);
+    }
+
+    /**
+     * Historique paginé d'un utilisateur, trié par date croissante, via l'index (userId, date).
+     *
+     * @param from   première date incluse (yyyy-MM-dd), optionnelle
+     * @param to     dernière date incluse, optionnelle
+     * @param after  curseur : date du dernier jour de la page précédente
+     * @param fields champs à renvoyer ("aggregates" = agrégats journaliers seulement), null = document complet
+     */
+    public CursorPage<BiometricData> getUserDataPage(String userId, String from, String to, String after,
+                                                     int limit, Set<String> fields) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        indexManager.ensureIndexes();
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (from != null || to != null || after != null) {
+            Criteria date = Criteria.where("date");
+            if (from != null) {
+                date = date.gte(from);
+            }
+            if (to != null) {
+                date = date.lte(to);
+            }
+            if (after != null) {
+                date = date.gt(after);
+            }
+            criteria = new Criteria().andOperator(criteria, date);
+        }
+
+        // Une ligne de plus que la page pour savoir s'il reste des données
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "date"))
+                .limit(pageSize + 1);
+        if (fields != null && !fields.isEmpty()) {
+            projection(fields).forEach(field -> query.fields().include(field));
+        }
+
+        List<BiometricData> rows = mongoTemplate.find(query, BiometricData.class);
+        boolean hasMore = rows.size() > pageSize;
+        List<BiometricData> content = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasMore ? content.get(content.size() - 1).getDate() : null;
+
+        return new CursorPage<>(content, pageSize, nextCursor, hasMore);
+    }
+
+    private Set<String> projection(Set<String> fields) {
+        Set<String> resolved = new LinkedHashSet<>(List.of("userId", "date"));  // date = curseur
+        for (String field : fields) {
+            if (AGGREGATES.equals(field)) {
+                resolved.addAll(AGGREGATE_FIELDS);
+            } else if (PROJECTABLE_FIELDS.contains(field)) {
+                resolved.add(field);
+            } else {
+                throw new IllegalArgumentException("Champ inconnu: " + field);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Mesures détaillées d'un utilisateur (collections time-series), triées par heure
+     */
+    public List<BiometricSample> getUserSamples(String userId, SampleFamily family, Instant from, Instant to) {
+        return sampleService.findSamples(userId, family, from, to);
+    }
+
+    /**
+     * Statistiques glissantes 7/30/90 jours (document user_rollups), null si aucune donnée
+     */
+    public UserRollup getUserRollup(String userId) {
+        return rollupService.getRollup(userId);
+    }
+
+    /**
+     * Série d'une métrique à la résolution demandée ("buckets") ou réduite à N points ("lttb")
+     */
+    public SeriesResponse getUserSeries(String userId, SeriesMetric metric, Instant from, Instant to,
+                                        String method, String resolution, int points) {
+        if ("lttb".equalsIgnoreCase(method)) {
+            return downsamplingService.lttb(userId, metric, from, to, points);
+        }
+        if (!"buckets".equalsIgnoreCase(method)) {
+            throw new IllegalArgumentException("Méthode inconnue: " + method + " (buckets ou lttb)");
+        }
+        return downsamplingService.buckets(userId, metric, from, to, DownsamplingService.parseResolution(resolution));
+    }
+
+    /**
+     * High-water marks de l'utilisateur : le téléphone n'envoie que les enregistrements plus récents
+     */
+    public SyncState getSyncState(String userId) {
+        return syncStateService.get(userId);
     }
 
     public String getUserStats(String userId) {
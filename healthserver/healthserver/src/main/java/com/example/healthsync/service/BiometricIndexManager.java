@@ -0,0 +1,133 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index de biometric_data, créés au premier accès (pas au démarrage : le contexte doit démarrer sans MongoDB)
+ * ✅ Avant l'index unique user_date_idx : les doublons (userId, date) existants sont fusionnés en un document
+ * ✅ Échec de création : une erreur loguée, nouvel essai après RETRY_DELAY, les écritures continuent sans l'index
+ * ✅ État visible dans /actuator/health (composant biometricIndex, statut DEGRADED tant que l'index manque)
+ */
+@Slf4j
+@Component("biometricIndex")
+@RequiredArgsConstructor
+public class BiometricIndexManager implements HealthIndicator {
+
+    static final Duration RETRY_DELAY = Duration.ofMinutes(5);
+
+    private static final Status DEGRADED = new Status("DEGRADED", "Index user_date_idx absent");
+
+    private final MongoTemplate mongoTemplate;
+
+    private volatile boolean ready;
+    private volatile Instant retryAt = Instant.MIN;
+    private volatile String lastError;
+    private volatile long mergedDays;
+
+    /**
+     * Appelé avant chaque lecture / écriture : ne fait rien une fois les index créés
+     * (ni pendant RETRY_DELAY après un échec)
+     */
+    public void ensureIndexes() {
+        if (ready || Instant.now().isBefore(retryAt)) {
+            return;
+        }
+        synchronized (this) {
+            if (ready || Instant.now().isBefore(retryAt)) {
+                return;
+            }
+            try {
+                mergedDays += mergeDuplicateDays();
+                IndexOperations indexOps = mongoTemplate.indexOps(BiometricData.class);
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                        .resolveIndexFor(BiometricData.class)
+                        .forEach(indexOps::createIndex);
+                ready = true;
+                lastError = null;
+            } catch (RuntimeException e) {
+                retryAt = Instant.now().plus(RETRY_DELAY);
+                lastError = e.getMessage();
+                log.error("❌ Index biometric_data non créés (nouvel essai dans {} min), "
+                                + "les jours (userId, date) ne sont plus protégés contre les doublons: {}",
+                        RETRY_DELAY.toMinutes(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (ready) {
+            return Health.up().withDetail("mergedDuplicateDays", mergedDays).build();
+        }
+        if (lastError == null) {
+            return Health.unknown().build();  // Aucun accès à biometric_data depuis le démarrage
+        }
+        return Health.status(DEGRADED)
+                .withDetail("error", lastError)
+                .withDetail("retryAt", retryAt.toString())
+                .build();
+    }
+
+    /**
+     * Migration unique : fusionne les documents d'un même (userId, date), sans quoi l'index unique
+     * échoue (E11000). Fusion DayMerge : les agrégats du document le plus récent (receivedAt) gagnent,
+     * les listes détaillées sont réunies par clé temporelle ; le document le plus récent est conservé.
+     * Relançable : une interruption laisse au pire des doublons fusionnés au prochain essai.
+     *
+     * @return nombre de documents supprimés
+     */
+    int mergeDuplicateDays() {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(
+                mongoTemplate.getCollectionName(BiometricData.class));
+
+        List<Document> groups = collection.aggregate(List.of(
+                        new Document("$group", new Document("_id", new Document("userId", "$userId").append("date", "$date"))
+                                .append("ids", new Document("$push", "$_id"))
+                                .append("count", new Document("$sum", 1))),
+                        new Document("$match", new Document("count", new Document("$gt", 1)))))
+                .allowDiskUse(true)
+                .into(new ArrayList<>());
+        if (groups.isEmpty()) {
+            return 0;
+        }
+
+        int removed = 0;
+        for (Document group : groups) {
+            List<Document> days = collection.find(Filters.in("_id", group.getList("ids", Object.class)))
+                    .sort(new Document("receivedAt", 1))
+                    .into(new ArrayList<>());
+            if (days.size() < 2) {
+                continue;
+            }
+            Document merged = DayMerge.merge(days);
+            Object keptId = merged.get("_id");
+            collection.replaceOne(Filters.eq("_id", keptId), merged);
+
+            List<Object> duplicates = days.stream()
+                    .map(day -> day.get("_id"))
+                    .filter(id -> !id.equals(keptId))
+                    .toList();
+            removed += (int) collection.deleteMany(Filters.in("_id", duplicates)).getDeletedCount();
+        }
+        log.warn("🔀 biometric_data: {} jours en double fusionnés ({} documents supprimés) avant l'index user_date_idx",
+                groups.size(), removed);
+        return removed;
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricSample;
+import com.example.healthsync.model.SampleFamily;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stockage des mesures détaillées dans des collections time-series MongoDB (une par SampleFamily).
+ * Les agrégats journaliers restent dans biometric_data.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BiometricSampleService {
+
+    // Format envoyé par l'app Android (UserMetricsActivity.dateFormatter)
+    private static final DateTimeFormatter PHONE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final MongoTemplate mongoTemplate;
+
+    // Collections créées au premier write (le contexte doit démarrer sans MongoDB)
+    private volatile boolean collectionsReady = false;
+
+    /**
+     * Extrait les mesures détaillées d'un jour, regroupées par famille
+     */
+    public Map<SampleFamily, List<BiometricSample>> extract(BiometricData day) {
+        Map<SampleFamily, List<BiometricSample>> samples = new EnumMap<>(SampleFamily.class);
+        String userId = day.getUserId();
+
+        if (day.getHeartRate() != null) {
+            for (BiometricData.HeartRateRecord hr : day.getHeartRate()) {
+                addHeartRateSamples(samples, userId, hr);
+            }
+        }
+        if (day.getSteps() != null) {
+            day.getSteps().forEach(s -> add(samples, SampleFamily.ACTIVITY, userId, "steps",
+                    s.getCount() == null ? null : s.getCount().doubleValue(), s.getStartTime(), s.getEndTime()));
+        }
+        if (day.getDistance() != null) {
+            day.getDistance().forEach(d -> add(samples, SampleFamily.ACTIVITY, userId, "distance",
+                    d.getDistanceMeters(), d.getStartTime(), d.getEndTime()));
+        }
+        if (day.getOxygenSaturation() != null) {
+            day.getOxygenSaturation().forEach(o2 -> add(samples, SampleFamily.VITALS, userId, "spo2",
+                    o2.getPercentage(), o2.getTime(), null));
+        }
+        if (day.getBodyTemperature() != null) {
+            day.getBodyTemperature().forEach(t -> add(samples, SampleFamily.VITALS, userId, "temperature",
+                    t.getTemperature(), t.getTime(), null));
+        }
+        if (day.getBloodPressure() != null) {
+            day.getBloodPressure().forEach(bp -> {
+                add(samples, SampleFamily.VITALS, userId, "systolic", bp.getSystolic(), bp.getTime(), null);
+                add(samples, SampleFamily.VITALS, userId, "diastolic", bp.getDiastolic(), bp.getTime(), null);
+            });
+        }
+        if (day.getWeight() != null) {
+            day.getWeight().forEach(w -> add(samples, SampleFamily.BODY, userId, "weight",
+                    w.getWeight(), w.getTime(), null));
+        }
+        if (day.getHeight() != null) {
+            day.getHeight().forEach(h -> add(samples, SampleFamily.BODY, userId, "height",
+                    h.getHeight(), h.getTime(), null));
+        }
+        if (day.getHydration() != null) {
+            day.getHydration().forEach(hyd -> add(samples, SampleFamily.HYDRATION, userId, "hydration",
+                    hyd.getVolumeMl(), hyd.getTime(), null));
+        }
+
+        return samples;
+    }
+
+    /**
+     * Retire du document journalier les listes stockées en time-series
+     * (sleep et exercise restent embarqués : quelques sessions par jour)
+     */
+    public void stripDetails(BiometricData day) {
+        day.setHeartRate(null);
+        day.setSteps(null);
+        day.setDistance(null);
+        day.setOxygenSaturation(null);
+        day.setBodyTemperature(null);
+        day.setBloodPressure(null);
+        day.setWeight(null);
+        day.setHeight(null);
+        day.setHydration(null);
+    }
+
+    /**
+     * Insère les mesures (un insertMany par famille et par utilisateur).
+     * Les collections time-series n'acceptent pas d'index unique : les mesures déjà présentes
+     * (même type, même heure, même valeur) sont filtrées pour qu'un renvoi ne crée pas de doublons.
+     *
+     * @return nombre de mesures réellement insérées
+     */
+    public int insert(Map<SampleFamily, List<BiometricSample>> samples) {
+        if (samples.isEmpty()) {
+            return 0;
+        }
+        ensureCollections();
+
+        int inserted = 0;
+        for (Map.Entry<SampleFamily, List<BiometricSample>> entry : samples.entrySet()) {
+            Map<String, List<BiometricSample>> byUser = entry.getValue().stream()
+                    .collect(Collectors.groupingBy(BiometricSample::getUserId));
+
+            for (List<BiometricSample> userSamples : byUser.values()) {
+                List<BiometricSample> fresh = withoutExisting(entry.getKey(), userSamples);
+                if (!fresh.isEmpty()) {
+                    mongoTemplate.insert(fresh, entry.getKey().getCollection());
+                    inserted += fresh.size();
+                }
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Lecture des mesures d'une famille sur une plage de temps, triées par heure
+     */
+    public List<BiometricSample> findSamples(String userId, SampleFamily family, Instant from, Instant to) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (from != null || to != null) {
+            Criteria time = Criteria.where("time");
+            if (from != null) {
+                time = time.gte(from);
+            }
+            if (to != null) {
+                time = time.lt(to);
+            }
+            criteria = new Criteria().andOperator(criteria, time);
+        }
+
+        Query query = new Query(criteria).with(Sort.by(Sort.Direction.ASC, "time"));
+        return mongoTemplate.find(query, BiometricSample.class, family.getCollection());
+    }
+
+    /**
+     * Heure envoyée par le téléphone → Instant (UTC nominal) ; null si absente ou illisible
+     */
+    public static Instant parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value, PHONE_TIME).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException ignored) {
+            // Formats ISO acceptés en secours
+        }
+        try {
+            return OffsetDateTime.parse(value).toInstant();
+        } catch (DateTimeParseException ignored) {
+            // Pas de décalage horaire
+        }
+        try {
+            return LocalDateTime.parse(value).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // ========================================
+    // Helpers
+    // ========================================
+
+    /**
+     * Health Connect ne transmet pas l'heure de chaque battement : les échantillons
+     * sont répartis uniformément entre startTime et endTime de l'enregistrement.
+     */
+    private void addHeartRateSamples(Map<SampleFamily, List<BiometricSample>> samples, String userId,
+                                     BiometricData.HeartRateRecord hr) {
+        Instant start = parseTime(hr.getStartTime());
+        long[] bpm = hr.sampleArray();
+        if (start == null || bpm.length == 0) {
+            return;
+        }
+        Instant end = parseTime(hr.getEndTime());
+        int count = bpm.length;
+        long spanMillis = end != null && count > 1 ? end.toEpochMilli() - start.toEpochMilli() : 0;
+
+        List<BiometricSample> family = samples.computeIfAbsent(SampleFamily.HEART_RATE, f -> new ArrayList<>());
+        for (int i = 0; i < count; i++) {
+            Instant time = spanMillis > 0 ? start.plusMillis(spanMillis * i / (count - 1)) : start;
+            family.add(new BiometricSample(null, time, userId, "bpm", (double) bpm[i], null));
+        }
+    }
+
+    private void add(Map<SampleFamily, List<BiometricSample>> samples, SampleFamily family, String userId,
+                     String type, Double value, String time, String endTime) {
+        Instant start = parseTime(time);
+        if (value == null || start == null) {
+            return;
+        }
+        samples.computeIfAbsent(family, f -> new ArrayList<>())
+                .add(new BiometricSample(null, start, userId, type, value, parseTime(endTime)));
+    }
+
+    private List<BiometricSample> withoutExisting(SampleFamily family, List<BiometricSample> samples) {
+        Instant min = samples.stream().map(BiometricSample::getTime).min(Comparator.naturalOrder()).orElseThrow();
+        Instant max = samples.stream().map(BiometricSample::getTime).max(Comparator.naturalOrder()).orElseThrow();
+
+        Query query = new Query(Criteria.where("userId").is(samples.get(0).getUserId())
+                .and("time").gte(min).lte(max));
+        query.fields().include("time", "type", "value");
+
+        Set<String> existing = new HashSet<>();
+        for (BiometricSample sample : mongoTemplate.find(query, BiometricSample.class, family.getCollection())) {
+            existing.add(key(sample));
+        }
+
+        List<BiometricSample> fresh = new ArrayList<>(samples.size());
+        for (BiometricSample sample : samples) {
+            // add() renvoie false pour un doublon déjà stocké ou présent deux fois dans le lot
+            if (existing.add(key(sample))) {
+                fresh.add(sample);
+            }
+        }
+        return fresh;
+    }
+
+    private static String key(BiometricSample sample) {
+        return sample.getType() + '|' + sample.getTime().toEpochMilli() + '|' + sample.getValue();
+    }
+
+    private void ensureCollections() {
+        if (collectionsReady) {
+            return;
+        }
+        for (SampleFamily family : SampleFamily.values()) {
+            if (!mongoTemplate.collectionExists(family.getCollection())) {
+                try {
+                    mongoTemplate.createCollection(family.getCollection(), CollectionOptions.timeSeries("time",
+                            options -> options.metaField("userId").granularity(family.getGranularity())));
+                    log.info("🗂️ Collection time-series créée: {}", family.getCollection());
+                } catch (RuntimeException e) {
+                    // Créée entre-temps par une autre requête
+                    if (!mongoTemplate.collectionExists(family.getCollection())) {
+                        throw e;
+                    }
+                }
+            }
+        }
+        collectionsReady = true;
+    }
+}
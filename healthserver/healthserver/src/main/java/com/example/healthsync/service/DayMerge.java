@@ -0,0 +1,147 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Fusion d'un jour de biometric_data avec ce qui est déjà stocké (upload et migration des doublons).
+ *
+ * Un enregistrement détaillé est identifié par sa clé temporelle (startTime + endTime, ou time),
+ * pas par son contenu : un renvoi remplace l'enregistrement de même clé. Sans cela, un même
+ * enregistrement stocké sous deux formes (ex. samples puis encodedSamples après activation de
+ * HeartRateCodec) serait conservé deux fois.
+ */
+final class DayMerge {
+
+    private static final List<String> INTERVAL = List.of("startTime", "endTime");
+    private static final List<String> INSTANT = List.of("time");
+
+    // Liste détaillée → champs de la clé d'un enregistrement
+    private static final Map<String, List<String>> KEY_FIELDS = Map.ofEntries(
+            Map.entry("steps", INTERVAL),
+            Map.entry("heartRate", INTERVAL),
+            Map.entry("distance", INTERVAL),
+            Map.entry("sleep", INTERVAL),
+            Map.entry("exercise", INTERVAL),
+            Map.entry("oxygenSaturation", INSTANT),
+            Map.entry("bodyTemperature", INSTANT),
+            Map.entry("bloodPressure", INSTANT),
+            Map.entry("weight", INSTANT),
+            Map.entry("height", INSTANT),
+            Map.entry("hydration", INSTANT));
+
+    // Clé du document (filtre de l'upsert) ou métadonnées du mapping
+    private static final Set<String> IDENTITY_FIELDS = Set.of("_id", "_class", "userId", "date", "schemaVersion");
+
+    private DayMerge() {
+    }
+
+    /**
+     * Upsert en pipeline d'agrégation (MongoDB 4.2+) d'un jour converti en BSON :
+     * - agrégats : la dernière valeur non nulle envoyée par le téléphone gagne, y compris pour un jour
+     *   partiel (envoi filtré par watermark) : ses agrégats couvrent la journée entière, un agrégat
+     *   absent garde la valeur stockée
+     * - listes : enregistrements stockés sans équivalent (même clé) dans l'envoi, puis ceux de l'envoi
+     * - schemaVersion : posé seulement à la création du document
+     */
+    static AggregationUpdate update(Document day) {
+        Document set = new Document("schemaVersion", new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", "$receivedAt"), "missing")),
+                BiometricData.SCHEMA_VERSION,
+                "$schemaVersion")));
+
+        day.forEach((field, value) -> {
+            if (IDENTITY_FIELDS.contains(field) || value == null) {
+                return;
+            }
+            if (value instanceof List<?> records) {
+                if (!records.isEmpty()) {
+                    set.put(field, mergeList(field, records));
+                }
+            } else {
+                set.put(field, new Document("$literal", value));
+            }
+        });
+
+        AggregationOperation stage = context -> new Document("$set", set);
+        return AggregationUpdate.from(List.of(stage));
+    }
+
+    /**
+     * Fusion de documents d'un même (userId, date) triés par receivedAt croissant :
+     * champ scalaire = dernière valeur non nulle, liste = enregistrements par clé (le plus récent gagne)
+     */
+    static Document merge(List<Document> days) {
+        Document merged = new Document(days.get(days.size() - 1));
+        Map<String, Map<Object, Object>> lists = new LinkedHashMap<>();
+        for (Document day : days) {
+            day.forEach((field, value) -> {
+                if (value instanceof Collection<?> records) {
+                    Map<Object, Object> byKey = lists.computeIfAbsent(field, f -> new LinkedHashMap<>());
+                    records.forEach(record -> byKey.put(key(field, record), record));
+                } else if (value != null && !"_id".equals(field)) {
+                    merged.put(field, value);
+                }
+            });
+        }
+        lists.forEach((field, records) -> merged.put(field, new ArrayList<>(records.values())));
+        return merged;
+    }
+
+    /**
+     * $concatArrays( stockés dont la clé n'est pas envoyée, envoyés dédoublonnés par clé )
+     */
+    private static Document mergeList(String field, List<?> records) {
+        Map<Object, Object> incoming = new LinkedHashMap<>();
+        records.forEach(record -> incoming.put(key(field, record), record));
+
+        Document stored = new Document("$filter", new Document("input", new Document("$ifNull", List.of("$" + field, List.of())))
+                .append("as", "r")
+                .append("cond", new Document("$not", List.of(new Document("$in", List.of(
+                        keyExpression(field), new Document("$literal", new ArrayList<>(incoming.keySet()))))))));
+        return new Document("$concatArrays", List.of(stored, new Document("$literal", new ArrayList<>(incoming.values()))));
+    }
+
+    /**
+     * Clé d'un enregistrement côté Java, identique à keyExpression côté serveur
+     */
+    private static Object key(String field, Object record) {
+        List<String> keyFields = KEY_FIELDS.get(field);
+        if (keyFields == null || !(record instanceof Document document)) {
+            return record;  // Liste inconnue : égalité du contenu
+        }
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < keyFields.size(); i++) {
+            if (i > 0) {
+                key.append('|');
+            }
+            key.append(Objects.toString(document.get(keyFields.get(i)), ""));
+        }
+        return key.toString();
+    }
+
+    private static Object keyExpression(String field) {
+        List<String> keyFields = KEY_FIELDS.get(field);
+        if (keyFields == null) {
+            return "$$r";
+        }
+        List<Object> parts = new ArrayList<>();
+        for (String keyField : keyFields) {
+            if (!parts.isEmpty()) {
+                parts.add("|");
+            }
+            parts.add(new Document("$ifNull", List.of("$$r." + keyField, "")));
+        }
+        return new Document("$concat", parts);
+    }
+}
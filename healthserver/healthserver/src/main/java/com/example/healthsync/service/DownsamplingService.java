@@ -0,0 +1,294 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricSample;
+import com.example.healthsync.model.SeriesMetric;
+import com.example.healthsync.model.SeriesPoint;
+import com.example.healthsync.model.SeriesResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Séries sous-échantillonnées côté serveur pour les graphiques :
+ * - "buckets" : min / moyenne / max par intervalle fixe (ex: 5 minutes, 1 jour), alignés sur l'epoch UTC
+ * - "lttb" : Largest-Triangle-Three-Buckets, N points qui conservent la forme de la courbe
+ *
+ * Les buckets terminés sont mis en cache. Chaque sauvegarde d'un utilisateur incrémente sa génération :
+ * les buckets calculés avant ne sont plus lus (un envoi tardif du téléphone peut compléter un jour passé)
+ * et sortent du cache LRU.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DownsamplingService {
+
+    public static final int MAX_POINTS = 5000;
+
+    // Bucket terminé sans aucune mesure (évite de relire MongoDB pour un trou)
+    private static final SeriesPoint EMPTY = new SeriesPoint();
+
+    private final MongoTemplate mongoTemplate;
+    private final BiometricSampleService sampleService;
+
+    @Value("${healthsync.timeseries.enabled:false}")
+    private boolean timeSeriesEnabled;
+
+    @Value("${healthsync.series.cache.max-buckets:200000}")
+    private int maxCachedBuckets;
+
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private Map<String, SeriesPoint> buckets;
+
+    @PostConstruct
+    void init() {
+        buckets = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SeriesPoint> eldest) {
+                return size() > maxCachedBuckets;
+            }
+        });
+    }
+
+    /**
+     * Les données de l'utilisateur ont changé : ses buckets en cache ne sont plus valides
+     */
+    public void invalidate(String userId) {
+        generations.merge(userId, 1L, Long::sum);
+    }
+
+    /**
+     * min / avg / max par bucket de {@code resolution} sur [from, to[
+     */
+    public SeriesResponse buckets(String userId, SeriesMetric metric, Instant from, Instant to, Duration resolution) {
+        long step = resolution.toMillis();
+        if (step < 1000) {
+            throw new IllegalArgumentException("Résolution minimale: 1 seconde");
+        }
+        long start = Math.floorDiv(from.toEpochMilli(), step) * step;
+        long end = to.toEpochMilli();
+        long count = (end - start + step - 1) / step;
+        if (count <= 0) {
+            throw new IllegalArgumentException("Plage de temps vide");
+        }
+        if (count > MAX_POINTS) {
+            throw new IllegalArgumentException("Résolution trop fine: " + count + " buckets (max " + MAX_POINTS + ")");
+        }
+
+        long now = System.currentTimeMillis();
+        String prefix = userId + '|' + metric.getType() + '|' + step + '|' + generations.getOrDefault(userId, 0L) + '|';
+        SeriesPoint[] points = new SeriesPoint[(int) count];
+
+        // Plage à relire : du premier au dernier bucket absent du cache (ou non terminé)
+        long missingFrom = -1;
+        long missingTo = -1;
+        for (int i = 0; i < points.length; i++) {
+            long bucketStart = start + i * step;
+            if (bucketStart + step <= now) {
+                points[i] = buckets.get(prefix + bucketStart);
+            }
+            if (points[i] == null) {
+                if (missingFrom < 0) {
+                    missingFrom = bucketStart;
+                }
+                missingTo = bucketStart + step;
+            }
+        }
+
+        if (missingFrom >= 0) {
+            int first = (int) ((missingFrom - start) / step);
+            int last = (int) ((missingTo - start) / step);
+            double[] sum = new double[last - first];
+            double[] min = new double[last - first];
+            double[] max = new double[last - first];
+            int[] counts = new int[last - first];
+
+            for (BiometricSample sample : loadSamples(userId, metric,
+                    Instant.ofEpochMilli(missingFrom), Instant.ofEpochMilli(missingTo))) {
+                int index = (int) ((sample.getTime().toEpochMilli() - start) / step) - first;
+                double value = sample.getValue();
+                if (counts[index] == 0) {
+                    min[index] = value;
+                    max[index] = value;
+                } else {
+                    min[index] = Math.min(min[index], value);
+                    max[index] = Math.max(max[index], value);
+                }
+                sum[index] += value;
+                counts[index]++;
+            }
+
+            for (int i = first; i < last; i++) {
+                if (points[i] != null) {
+                    continue;
+                }
+                int j = i - first;
+                long bucketStart = start + i * step;
+                points[i] = counts[j] == 0 ? EMPTY
+                        : new SeriesPoint(Instant.ofEpochMilli(bucketStart), sum[j] / counts[j], min[j], max[j], counts[j]);
+                if (bucketStart + step <= now) {
+                    buckets.put(prefix + bucketStart, points[i]);
+                }
+            }
+        }
+
+        List<SeriesPoint> series = new ArrayList<>();
+        for (SeriesPoint point : points) {
+            if (point != EMPTY) {
+                series.add(point);
+            }
+        }
+        return new SeriesResponse(userId, metric.getType(), "buckets", step / 1000,
+                Instant.ofEpochMilli(start), to, series);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets : au plus {@code threshold} mesures brutes choisies sur [from, to[
+     */
+    public SeriesResponse lttb(String userId, SeriesMetric metric, Instant from, Instant to, int threshold) {
+        if (threshold < 3 || threshold > MAX_POINTS) {
+            throw new IllegalArgumentException("Nombre de points entre 3 et " + MAX_POINTS);
+        }
+        List<BiometricSample> samples = loadSamples(userId, metric, from, to);
+        int n = samples.size();
+        long[] x = new long[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = samples.get(i).getTime().toEpochMilli();
+            y[i] = samples.get(i).getValue();
+        }
+
+        List<SeriesPoint> series = largestTriangleThreeBuckets(x, y, threshold);
+        return new SeriesResponse(userId, metric.getType(), "lttb", null, from, to, series);
+    }
+
+    /**
+     * Sélection LTTB sur des mesures triées par heure : première et dernière mesures conservées,
+     * puis dans chaque bucket la mesure qui forme le plus grand triangle avec la précédente retenue
+     */
+    static List<SeriesPoint> largestTriangleThreeBuckets(long[] x, double[] y, int threshold) {
+        int n = x.length;
+        List<SeriesPoint> series = new ArrayList<>(Math.min(n, threshold));
+        if (n <= threshold) {
+            for (int i = 0; i < n; i++) {
+                series.add(point(x[i], y[i]));
+            }
+        } else {
+            series.add(point(x[0], y[0]));
+            double every = (double) (n - 2) / (threshold - 2);
+            int a = 0;
+            for (int i = 0; i < threshold - 2; i++) {
+                // Moyenne du bucket suivant (troisième sommet du triangle)
+                int nextStart = (int) Math.floor((i + 1) * every) + 1;
+                int nextEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+                double avgX = 0;
+                double avgY = 0;
+                for (int j = nextStart; j < nextEnd; j++) {
+                    avgX += x[j];
+                    avgY += y[j];
+                }
+                avgX /= nextEnd - nextStart;
+                avgY /= nextEnd - nextStart;
+
+                // Point du bucket courant qui forme le plus grand triangle avec a et la moyenne suivante
+                int rangeStart = (int) Math.floor(i * every) + 1;
+                int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+                double maxArea = -1;
+                int selected = rangeStart;
+                for (int j = rangeStart; j < rangeEnd; j++) {
+                    double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+                    if (area > maxArea) {
+                        maxArea = area;
+                        selected = j;
+                    }
+                }
+                series.add(point(x[selected], y[selected]));
+                a = selected;
+            }
+            series.add(point(x[n - 1], y[n - 1]));
+        }
+        return series;
+    }
+
+    /**
+     * "5m", "1h", "1d", "30s" ou ISO-8601 ("PT5M")
+     */
+    public static Duration parseResolution(String value) {
+        String trimmed = value.trim().toLowerCase();
+        try {
+            if (trimmed.startsWith("p")) {
+                return Duration.parse(trimmed.toUpperCase());
+            }
+            long amount = Long.parseLong(trimmed.substring(0, trimmed.length() - 1));
+            switch (trimmed.charAt(trimmed.length() - 1)) {
+                case 's': return Duration.ofSeconds(amount);
+                case 'm': return Duration.ofMinutes(amount);
+                case 'h': return Duration.ofHours(amount);
+                case 'd': return Duration.ofDays(amount);
+                default: break;
+            }
+        } catch (DateTimeParseException | NumberFormatException | IndexOutOfBoundsException e) {
+            // Format invalide, voir ci-dessous
+        }
+        throw new IllegalArgumentException("Résolution invalide: " + value + " (ex: 5m, 1h, 1d)");
+    }
+
+    // ========================================
+    // Helpers
+    // ========================================
+
+    private static SeriesPoint point(long time, double value) {
+        return new SeriesPoint(Instant.ofEpochMilli(time), value, value, value, 1);
+    }
+
+    /**
+     * Mesures brutes d'une métrique sur [from, to[, triées par heure :
+     * collections time-series si activées, sinon listes embarquées de biometric_data
+     */
+    private List<BiometricSample> loadSamples(String userId, SeriesMetric metric, Instant from, Instant to) {
+        List<BiometricSample> samples = new ArrayList<>();
+        if (timeSeriesEnabled) {
+            for (BiometricSample sample : sampleService.findSamples(userId, metric.getFamily(), from, to)) {
+                if (metric.getType().equals(sample.getType()) && sample.getValue() != null) {
+                    samples.add(sample);
+                }
+            }
+            return samples;
+        }
+
+        // Un enregistrement peut déborder sur le lendemain (ex: sommeil, fréquence cardiaque de nuit)
+        String firstDate = LocalDate.ofInstant(from, ZoneOffset.UTC).minusDays(1).toString();
+        String lastDate = LocalDate.ofInstant(to, ZoneOffset.UTC).toString();
+        Query query = new Query(Criteria.where("userId").is(userId).and("date").gte(firstDate).lte(lastDate));
+        query.fields().include("userId", "date", metric.getDetailField());
+
+        for (BiometricData day : mongoTemplate.find(query, BiometricData.class)) {
+            for (BiometricSample sample : sampleService.extract(day).getOrDefault(metric.getFamily(), List.of())) {
+                if (metric.getType().equals(sample.getType())
+                        && !sample.getTime().isBefore(from) && sample.getTime().isBefore(to)) {
+                    samples.add(sample);
+                }
+            }
+        }
+        samples.sort(Comparator.comparing(BiometricSample::getTime));
+        return samples;
+    }
+}
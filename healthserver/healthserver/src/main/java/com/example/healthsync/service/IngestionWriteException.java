@@ -0,0 +1,22 @@
+package com.example.healthsync.service;
+
+import lombok.Getter;
+
+/**
+ * Échec d'écriture MongoDB pendant une ingestion (erreur serveur, pas une donnée invalide).
+ * Les lots déjà écrits restent sauvegardés : committedDays indique combien de jours le sont,
+ * le téléphone peut renvoyer le tout sans risque (upsert sur userId + date).
+ */
+@Getter
+public class IngestionWriteException extends RuntimeException {
+
+    private final String userId;
+
+    private final int committedDays;
+
+    public IngestionWriteException(String userId, int committedDays, Throwable cause) {
+        super("Erreur lors de la sauvegarde: " + cause.getMessage(), cause);
+        this.userId = userId;
+        this.committedDays = committedDays;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.SyncState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * High-water marks par utilisateur et par métrique (collection sync_state)
+ */
+@Service
+@RequiredArgsConstructor
+public class SyncStateService {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Ajoute à {@code watermarks} l'heure du plus récent enregistrement de chaque liste du jour
+     */
+    public void collect(HealthData.DailyData day, Map<String, Instant> watermarks) {
+        track(watermarks, "steps", day.getSteps(), HealthData.StepRecord::getEndTime);
+        track(watermarks, "heartRate", day.getHeartRate(), HealthData.HeartRateRecord::getEndTime);
+        track(watermarks, "distance", day.getDistance(), HealthData.DistanceRecord::getEndTime);
+        track(watermarks, "sleep", day.getSleep(), HealthData.SleepRecord::getEndTime);
+        track(watermarks, "exercise", day.getExercise(), HealthData.ExerciseRecord::getEndTime);
+        track(watermarks, "oxygenSaturation", day.getOxygenSaturation(), HealthData.OxygenSaturationRecord::getTime);
+        track(watermarks, "bodyTemperature", day.getBodyTemperature(), HealthData.BodyTemperatureRecord::getTime);
+        track(watermarks, "bloodPressure", day.getBloodPressure(), HealthData.BloodPressureRecord::getTime);
+        track(watermarks, "weight", day.getWeight(), HealthData.WeightRecord::getTime);
+        track(watermarks, "height", day.getHeight(), HealthData.HeightRecord::getTime);
+        track(watermarks, "hydration", day.getHydration(), HealthData.HydrationRecord::getTime);
+    }
+
+    /**
+     * Avance les watermarks ($max : un envoi ancien rejoué ne les fait jamais reculer)
+     */
+    public void advance(String userId, Map<String, Instant> watermarks) {
+        if (watermarks.isEmpty()) {
+            return;
+        }
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        watermarks.forEach((metric, time) -> update.max("watermarks." + metric, time));
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(userId)), update, SyncState.class);
+    }
+
+    /**
+     * État de synchronisation ; vide (pas de watermark) pour un nouvel utilisateur
+     */
+    public SyncState get(String userId) {
+        SyncState state = mongoTemplate.findById(userId, SyncState.class);
+        if (state == null) {
+            state = new SyncState();
+            state.setUserId(userId);
+        }
+        return state;
+    }
+
+    private <T> void track(Map<String, Instant> watermarks, String metric, List<T> records,
+                           Function<T, String> time) {
+        if (records == null) {
+            return;
+        }
+        for (T record : records) {
+            Instant instant = BiometricSampleService.parseTime(time.apply(record));
+            if (instant != null) {
+                watermarks.merge(metric, instant, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+    }
+}
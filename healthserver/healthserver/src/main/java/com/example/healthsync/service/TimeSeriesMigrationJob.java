@@ -0,0 +1,128 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.MigrationReport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Migration des documents biometric_data existants vers les collections time-series :
+ * les mesures embarquées sont copiées dans leur collection, puis retirées du document journalier.
+ * Relançable sans risque : les mesures déjà copiées sont ignorées par BiometricSampleService.insert.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimeSeriesMigrationJob {
+
+    // Listes déplacées vers les collections time-series (voir BiometricSampleService.stripDetails)
+    private static final List<String> DETAIL_FIELDS = List.of(
+            "heartRate", "steps", "distance", "oxygenSaturation", "bodyTemperature",
+            "bloodPressure", "weight", "height", "hydration");
+
+    private final MongoTemplate mongoTemplate;
+    private final BiometricSampleService sampleService;
+
+    @Value("${healthsync.timeseries.enabled:false}")
+    private boolean timeSeriesEnabled;
+
+    @Value("${healthsync.timeseries.migration-batch-size:100}")
+    private int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile MigrationReport lastReport;
+
+    /**
+     * Lance la migration dans un thread dédié (comme AggregateReencodeJob) : la requête HTTP
+     * ne reste pas ouverte pendant la copie de toute la collection
+     */
+    public void start() {
+        if (!timeSeriesEnabled) {
+            throw new IllegalStateException("healthsync.timeseries.enabled doit être activé avant la migration");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Migration déjà en cours");
+        }
+        Thread worker = new Thread(() -> {
+            try {
+                lastReport = migrate();
+            } catch (Exception e) {
+                log.error("❌ Migration time-series interrompue: {}", e.getMessage(), e);
+            } finally {
+                running.set(false);
+            }
+        }, "timeseries-migration");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public MigrationReport getLastReport() {
+        return lastReport;
+    }
+
+    private MigrationReport migrate() {
+        long start = System.currentTimeMillis();
+        MigrationReport report = new MigrationReport();
+        try (Stream<BiometricData> documents = mongoTemplate.stream(pendingDocuments(), BiometricData.class)) {
+            Iterator<BiometricData> cursor = documents.iterator();
+            BulkOperations unset = newBulk();
+            int pending = 0;
+
+            while (cursor.hasNext()) {
+                BiometricData day = cursor.next();
+                report.setSamples(report.getSamples() + sampleService.insert(sampleService.extract(day)));
+
+                Update update = new Update();
+                DETAIL_FIELDS.forEach(update::unset);
+                unset.updateOne(new Query(Criteria.where("_id").is(day.getId())), update);
+                report.setDocuments(report.getDocuments() + 1);
+
+                if (++pending == batchSize) {
+                    unset.execute();
+                    unset = newBulk();
+                    pending = 0;
+                    log.info("🔄 Migration time-series: {} documents, {} mesures", report.getDocuments(), report.getSamples());
+                }
+            }
+            if (pending > 0) {
+                unset.execute();
+            }
+        }
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        log.info("✅ Migration time-series terminée: {} documents, {} mesures en {} ms",
+                report.getDocuments(), report.getSamples(), report.getDurationMs());
+        return report;
+    }
+
+    /**
+     * Documents qui ont encore au moins une liste détaillée non vide
+     */
+    private Query pendingDocuments() {
+        Criteria[] withDetails = DETAIL_FIELDS.stream()
+                .map(field -> Criteria.where(field + ".0").exists(true))
+                .toArray(Criteria[]::new);
+        return new Query(new Criteria().orOperator(withDetails));
+    }
+
+    private BulkOperations newBulk() {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, BiometricData.class);
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import com.example.healthsync.model.BiometricSample;
+import com.example.healthsync.model.HealthData;
+import com.example.healthsync.model.SampleFamily;
+import com.example.healthsync.model.UserRollup;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.stream.Stream;
+
+/**
+ * Statistiques glissantes par utilisateur (collection user_rollups).
+ *
+ * Chaque sauvegarde fusionne les agrégats des jours reçus dans le document de l'utilisateur
+ * (findAndModify, même règle que biometric_data : la dernière valeur non nulle gagne),
+ * puis les fenêtres sont recalculées à partir des jours conservés (au plus la plus grande fenêtre).
+ * La lecture est un findById : elle ne dépend pas de la taille de l'historique.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserRollupService {
+
+    private final MongoTemplate mongoTemplate;
+    private final BiometricSampleService sampleService;
+
+    // Tailles des fenêtres glissantes, en jours
+    @Value("${healthsync.rollup.windows:7,30,90}")
+    private int[] windowDays;
+
+    @Value("${healthsync.timeseries.enabled:false}")
+    private boolean timeSeriesEnabled;
+
+    /**
+     * Résumé d'un jour reçu du téléphone, null si la date est invalide
+     */
+    public UserRollup.Day summarize(HealthData.DailyData day) {
+        if (parseDate(day.getDate()) == null) {
+            return null;
+        }
+        Double weight = day.getWeight() == null ? null
+                : average(day.getWeight().stream().map(HealthData.WeightRecord::getWeight));
+        return new UserRollup.Day(day.getTotalSteps(), day.getAvgHeartRate(), day.getMinHeartRate(),
+                day.getMaxHeartRate(), day.getTotalSleepHours(),
+                day.getTotalHydrationLiters(), weight);
+    }
+
+    /**
+     * Résumés de jours déjà fusionnés dans biometric_data (jours reçus partiellement)
+     */
+    public Map<String, UserRollup.Day> summarizeStored(String userId, Collection<String> dates) {
+        return readDays(new Query(Criteria.where("userId").is(userId).and("date").in(dates)));
+    }
+
+    /**
+     * Fusionne les jours d'un lot dans le rollup de l'utilisateur et recalcule les fenêtres
+     *
+     * @param days résumés par date (voir summarize)
+     */
+    public void apply(String userId, Map<String, UserRollup.Day> days) {
+        String cutoff = today().minusDays(maxWindow() - 1L).toString();
+        Update update = new Update()
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now());
+
+        String lastDate = null;
+        for (Map.Entry<String, UserRollup.Day> entry : days.entrySet()) {
+            String date = entry.getKey();
+            if (date.compareTo(cutoff) < 0) {
+                continue;  // Hors de la plus grande fenêtre
+            }
+            String prefix = "days." + date + ".";
+            UserRollup.Day day = entry.getValue();
+            setIfPresent(update, prefix + "steps", day.getSteps());
+            setIfPresent(update, prefix + "avgHeartRate", day.getAvgHeartRate());
+            setIfPresent(update, prefix + "minHeartRate", day.getMinHeartRate());
+            setIfPresent(update, prefix + "maxHeartRate", day.getMaxHeartRate());
+            setIfPresent(update, prefix + "sleepHours", day.getSleepHours());
+            setIfPresent(update, prefix + "hydrationLiters", day.getHydrationLiters());
+            setIfPresent(update, prefix + "weightKg", day.getWeightKg());
+            if (lastDate == null || date.compareTo(lastDate) > 0) {
+                lastDate = date;
+            }
+        }
+        if (lastDate == null) {
+            return;
+        }
+        update.max("lastDate", lastDate);
+
+        UserRollup rollup = mongoTemplate.findAndModify(byUser(userId), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), UserRollup.class);
+
+        if (rollup.getVersion() == 1) {
+            // Premier rollup de cet utilisateur : reprise de l'historique déjà stocké
+            rebuild(userId);
+        } else {
+            publish(rollup);
+        }
+    }
+
+    /**
+     * Rollup d'un utilisateur, fenêtres à jour ; null si l'utilisateur n'a aucune donnée récente
+     */
+    public UserRollup getRollup(String userId) {
+        UserRollup rollup = mongoTemplate.findById(userId, UserRollup.class);
+        if (rollup == null) {
+            rollup = rebuild(userId);
+            if (rollup == null) {
+                return null;
+            }
+        }
+
+        LocalDate anchor = anchor(rollup);
+        if (!anchor.toString().equals(rollup.getAsOf())) {
+            // Aucun envoi depuis le changement de jour : fenêtres recalculées sur les jours conservés
+            rollup.setWindows(computeWindows(rollup.getDays(), anchor));
+            rollup.setAsOf(anchor.toString());
+        }
+        return rollup;
+    }
+
+    /**
+     * Reconstruit le rollup depuis biometric_data (plus grande fenêtre uniquement)
+     */
+    public UserRollup rebuild(String userId) {
+        LocalDate cutoff = today().minusDays(maxWindow() - 1L);
+
+        Map<String, UserRollup.Day> days = readDays(
+                new Query(Criteria.where("userId").is(userId).and("date").gte(cutoff.toString())));
+        if (timeSeriesEnabled) {
+            addTimeSeriesWeights(userId, cutoff, days);
+        }
+        if (days.isEmpty()) {
+            return null;
+        }
+
+        String lastDate = days.keySet().stream().max(String::compareTo).orElseThrow();
+        Update update = new Update()
+                .inc("version", 1)
+                .set("updatedAt", LocalDateTime.now())
+                .set("days", days)
+                .max("lastDate", lastDate);
+        UserRollup rollup = mongoTemplate.findAndModify(byUser(userId), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), UserRollup.class);
+
+        log.info("🔄 Rollup reconstruit: userId={}, jours={}", userId, days.size());
+        return publish(rollup);
+    }
+
+    // ========================================
+    // Helpers
+    // ========================================
+
+    private Map<String, UserRollup.Day> readDays(Query query) {
+        query.fields().include("date", "totalSteps", "avgHeartRate", "minHeartRate", "maxHeartRate",
+                "totalSleepHours", "totalHydrationLiters", "weight");
+
+        Map<String, UserRollup.Day> days = new HashMap<>();
+        for (BiometricData data : mongoTemplate.find(query, BiometricData.class)) {
+            if (parseDate(data.getDate()) == null) {
+                continue;
+            }
+            Double weight = data.getWeight() == null ? null
+                    : average(data.getWeight().stream().map(BiometricData.WeightRecord::getWeight));
+            days.put(data.getDate(), new UserRollup.Day(data.getTotalSteps(), data.getAvgHeartRate(),
+                    data.getMinHeartRate(), data.getMaxHeartRate(), data.getTotalSleepHours(),
+                    data.getTotalHydrationLiters(), weight));
+        }
+        return days;
+    }
+
+    /**
+     * Recalcule les fenêtres et retire les jours sortis de la plus grande fenêtre.
+     * L'écriture est conditionnée à la version lue : si une autre sauvegarde est passée entre-temps,
+     * c'est elle qui publiera des fenêtres à jour.
+     */
+    private UserRollup publish(UserRollup rollup) {
+        LocalDate anchor = anchor(rollup);
+        String cutoff = anchor.minusDays(maxWindow() - 1L).toString();
+        Map<String, UserRollup.Window> windows = computeWindows(rollup.getDays(), anchor);
+
+        Update update = new Update()
+                .set("asOf", anchor.toString())
+                .set("windows", windows);
+        rollup.getDays().keySet().removeIf(date -> {
+            if (date.compareTo(cutoff) < 0) {
+                update.unset("days." + date);
+                return true;
+            }
+            return false;
+        });
+
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(rollup.getUserId()).and("version").is(rollup.getVersion())),
+                update, UserRollup.class);
+
+        rollup.setAsOf(anchor.toString());
+        rollup.setWindows(windows);
+        return rollup;
+    }
+
+    /**
+     * Un seul passage sur les jours conservés (au plus la plus grande fenêtre) : chaque jour est
+     * ajouté à toutes les fenêtres qui le contiennent. Pas de sommes cumulées entretenues en base :
+     * min / max ne se retirent pas quand un jour sort d'une fenêtre ou est renvoyé par le téléphone.
+     */
+    private Map<String, UserRollup.Window> computeWindows(Map<String, UserRollup.Day> days, LocalDate anchor) {
+        Map<String, UserRollup.Window> windows = new LinkedHashMap<>();
+        String to = anchor.toString();
+        for (int size : windowDays) {
+            UserRollup.Window window = new UserRollup.Window();
+            window.setFrom(anchor.minusDays(size - 1L).toString());
+            window.setTo(to);
+            windows.put(size + "d", window);
+        }
+
+        for (Map.Entry<String, UserRollup.Day> entry : days.entrySet()) {
+            String date = entry.getKey();
+            if (date.compareTo(to) > 0) {
+                continue;
+            }
+            for (UserRollup.Window window : windows.values()) {
+                if (date.compareTo(window.getFrom()) >= 0) {
+                    add(window, entry.getValue());
+                }
+            }
+        }
+        return windows;
+    }
+
+    private void add(UserRollup.Window window, UserRollup.Day day) {
+        boolean counted = false;
+        if (day.getSteps() != null) {
+            window.getSteps().add(day.getSteps(), day.getSteps(), day.getSteps());
+            counted = true;
+        }
+        if (day.getAvgHeartRate() != null) {
+            int avg = day.getAvgHeartRate();
+            window.getHeartRate().add(avg,
+                    day.getMinHeartRate() != null ? day.getMinHeartRate() : avg,
+                    day.getMaxHeartRate() != null ? day.getMaxHeartRate() : avg);
+            counted = true;
+        }
+        counted |= addValue(window.getSleepHours(), day.getSleepHours());
+        counted |= addValue(window.getHydrationLiters(), day.getHydrationLiters());
+        counted |= addValue(window.getWeightKg(), day.getWeightKg());
+        if (counted) {
+            window.setDays(window.getDays() + 1);
+        }
+    }
+
+    private boolean addValue(UserRollup.Metric metric, Double value) {
+        if (value == null) {
+            return false;
+        }
+        metric.add(value, value, value);
+        return true;
+    }
+
+    /**
+     * Pesées stockées en time-series (absentes de biometric_data) : moyenne par jour
+     */
+    private void addTimeSeriesWeights(String userId, LocalDate cutoff, Map<String, UserRollup.Day> days) {
+        Map<String, double[]> sums = new HashMap<>();
+        for (BiometricSample sample : sampleService.findSamples(userId, SampleFamily.BODY,
+                cutoff.atStartOfDay().toInstant(ZoneOffset.UTC), null)) {
+            if ("weight".equals(sample.getType()) && sample.getValue() != null) {
+                String date = LocalDate.ofInstant(sample.getTime(), ZoneOffset.UTC).toString();
+                double[] sum = sums.computeIfAbsent(date, d -> new double[2]);
+                sum[0] += sample.getValue();
+                sum[1]++;
+            }
+        }
+        sums.forEach((date, sum) -> days.computeIfAbsent(date, d -> new UserRollup.Day())
+                .setWeightKg(sum[0] / sum[1]));
+    }
+
+    /**
+     * Dernier jour des fenêtres : aujourd'hui, ou le dernier jour reçu s'il est en avance
+     * (fuseau du téléphone en avance sur le serveur)
+     */
+    private LocalDate anchor(UserRollup rollup) {
+        LocalDate today = today();
+        LocalDate last = parseDate(rollup.getLastDate());
+        return last != null && last.isAfter(today) ? last : today;
+    }
+
+    // Jour UTC, comme les bornes des séries et des mesures time-series (indépendant du fuseau du serveur)
+    private LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+
+    private int maxWindow() {
+        return Arrays.stream(windowDays).max().orElse(90);
+    }
+
+    private Query byUser(String userId) {
+        return new Query(Criteria.where("_id").is(userId));
+    }
+
+    private void setIfPresent(Update update, String field, Object value) {
+        if (value != null) {
+            update.set(field, value);
+        }
+    }
+
+    private static LocalDate parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Double average(Stream<Double> values) {
+        OptionalDouble average = values.filter(Objects::nonNull).mapToDouble(Double::doubleValue).average();
+        return average.isPresent() ? average.getAsDouble() : null;
+    }
+}
@@ -3,7 +3,7 @@ package com.example.healthsync;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+@SpringBootTest(properties = "app.identity.secret=test-identity-secret-0123456789abcdef")
 class HealthserverApplicationTests {
 
     @Test
@@ -0,0 +1,81 @@
+package com.example.healthsync.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HeartRateCodecTest {
+
+    @Test
+    void roundTripsSamples() {
+        long[] samples = {72, 75, 74, 74, 180, 41, 0, -3, Long.MAX_VALUE / 4};
+
+        assertThat(HeartRateCodec.decode(HeartRateCodec.encode(samples))).containsExactly(samples);
+    }
+
+    @Test
+    void roundTripsEmptySeries() {
+        assertThat(HeartRateCodec.decode(HeartRateCodec.encode(new long[0]))).isEmpty();
+    }
+
+    @Test
+    void encodesSmallDeltasOnOneByte() {
+        long[] samples = new long[3600];
+        Arrays.fill(samples, 70);
+        for (int i = 0; i < samples.length; i += 2) {
+            samples[i] += 3;
+        }
+
+        // Version + nombre d'échantillons (2 octets) + premier échantillon (2 octets) + 1 octet par delta
+        assertThat(HeartRateCodec.encode(samples)).hasSize(1 + 2 + 2 + (samples.length - 1));
+    }
+
+    @Test
+    void rejectsUnknownVersion() {
+        byte[] encoded = HeartRateCodec.encode(new long[]{70, 71});
+        encoded[0] = 9;
+
+        assertThatThrownBy(() -> HeartRateCodec.decode(encoded)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> HeartRateCodec.decode(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        byte[] encoded = HeartRateCodec.encode(new long[]{70, 200, 70});
+
+        assertThatThrownBy(() -> HeartRateCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsSampleCountLargerThanPayload() {
+        // Version 1, puis 2^31 - 1 échantillons annoncés (varint) pour 1 octet de données
+        byte[] encoded = {1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07, 0x00};
+
+        assertThatThrownBy(() -> HeartRateCodec.decode(encoded))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("échantillons annoncés");
+    }
+
+    @Test
+    void rejectsOverlongVarint() {
+        byte[] encoded = new byte[12];
+        encoded[0] = 1;
+        Arrays.fill(encoded, 1, encoded.length, (byte) 0x80);
+
+        assertThatThrownBy(() -> HeartRateCodec.decode(encoded)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void convertsPhoneSamplesSkippingNulls() {
+        long[] samples = HeartRateCodec.toArray(Arrays.asList(70L, null, 72L));
+
+        assertThat(samples).containsExactly(70, 72);
+        assertThat(HeartRateCodec.asList(samples)).isEqualTo(List.of(70L, 72L));
+        assertThat(HeartRateCodec.toArray(null)).isEmpty();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.healthsync.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IngestionJournalTest {
+
+    private static final int HEADER_SIZE = 27;
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysAcceptedUploadsWithoutDoneMarker() throws IOException {
+        try (IngestionJournal journal = open(1024 * 1024)) {
+            JournalEntry first = journal.append("user-1", bytes("{\"a\":1}"));
+            JournalEntry second = journal.append("user-2", bytes("{\"b\":2}"));
+            journal.append(null, bytes("{\"c\":3}"));
+            journal.markDone(List.of(second));
+            assertThat(text(first.payload())).isEqualTo("{\"a\":1}");
+        }
+
+        try (IngestionJournal journal = open(1024 * 1024)) {
+            List<JournalEntry> pending = journal.pendingEntries();
+            assertThat(pending).extracting(JournalEntry::getUserId).containsExactly("user-1", null);
+            assertThat(pending).extracting(entry -> text(entry.payload())).containsExactly("{\"a\":1}", "{\"c\":3}");
+        }
+    }
+
+    @Test
+    void deletesSegmentsOnceEveryUploadIsDone() throws IOException {
+        try (IngestionJournal journal = open(1024 * 1024)) {
+            // Un segment par upload : chaque payload remplit presque un segment
+            JournalEntry first = journal.append("user-1", new byte[SEGMENT_SIZE - 100]);
+            JournalEntry second = journal.append("user-1", new byte[SEGMENT_SIZE - 100]);
+            assertThat(segmentFiles()).hasSize(2);
+
+            journal.markDone(List.of(first, second));
+            assertThat(segmentFiles()).hasSize(1);
+        }
+
+        try (IngestionJournal journal = open(1024 * 1024)) {
+            assertThat(journal.pendingEntries()).isEmpty();
+            assertThat(segmentFiles()).hasSize(1);
+        }
+    }
+
+    @Test
+    void stopsReplayAtCorruptedRecord() throws IOException {
+        byte[] first = bytes("{\"a\":1}");
+        byte[] second = bytes("{\"b\":2}");
+        try (IngestionJournal journal = open(1024 * 1024)) {
+            journal.append("u", first);
+            journal.append("u", second);
+            journal.append("u", bytes("{\"c\":3}"));
+        }
+
+        // Octet du payload du 2e enregistrement modifié : CRC invalide
+        int secondPayload = HEADER_SIZE + 1 + first.length + HEADER_SIZE + 1;
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondPayload);
+        }
+
+        try (IngestionJournal journal = open(1024 * 1024)) {
+            assertThat(journal.pendingEntries()).extracting(entry -> text(entry.payload()))
+                    .containsExactly("{\"a\":1}");
+        }
+    }
+
+    @Test
+    void refusesUploadsBeyondMaxSizeButStillAcceptsDoneMarkers() throws IOException {
+        try (IngestionJournal journal = open(SEGMENT_SIZE)) {
+            JournalEntry entry = journal.append("u", new byte[SEGMENT_SIZE - 100]);
+
+            assertThatThrownBy(() -> journal.append("u", new byte[200]))
+                    .isInstanceOf(JournalFullException.class);
+
+            journal.markDone(List.of(entry));
+            assertThat(journal.pendingEntries()).isEmpty();
+        }
+    }
+
+    private IngestionJournal open(long maxSize) throws IOException {
+        return new IngestionJournal(directory, SEGMENT_SIZE, maxSize, false);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.BiometricData;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayMergeTest {
+
+    @Test
+    void setsAggregatesAndSkipsIdentityAndNullFields() {
+        Document day = new Document("_id", "x")
+                .append("userId", "u1")
+                .append("date", "2026-10-01")
+                .append("totalSteps", 4200)
+                .append("avgHeartRate", null)
+                .append("steps", List.of());
+
+        Document set = set(DayMerge.update(day));
+
+        assertThat(set.get("totalSteps")).isEqualTo(new Document("$literal", 4200));
+        assertThat(set).doesNotContainKeys("_id", "userId", "date", "avgHeartRate", "steps");
+    }
+
+    @Test
+    void setsSchemaVersionOnlyOnInsert() {
+        Document set = set(DayMerge.update(new Document("totalSteps", 1)));
+
+        Document condition = (Document) set.get("schemaVersion");
+        List<?> branches = (List<?>) condition.get("$cond");
+        assertThat(branches).element(0).isEqualTo(new Document("$eq",
+                List.of(new Document("$type", "$receivedAt"), "missing")));
+        assertThat(branches).element(1).isEqualTo(BiometricData.SCHEMA_VERSION);
+        assertThat(branches).element(2).isEqualTo("$schemaVersion");
+    }
+
+    @Test
+    void keepsStoredRecordsWhoseTimeKeyIsNotSent() {
+        Document record = new Document("count", 10).append("startTime", "2026-10-01 08:00:00")
+                .append("endTime", "2026-10-01 08:10:00");
+        Document resent = new Document("count", 12).append("startTime", "2026-10-01 08:00:00")
+                .append("endTime", "2026-10-01 08:10:00");
+
+        Document set = set(DayMerge.update(new Document("steps", List.of(record, resent))));
+
+        List<?> concat = (List<?>) ((Document) set.get("steps")).get("$concatArrays");
+        Document filter = (Document) ((Document) concat.get(0)).get("$filter");
+        assertThat(filter.get("input")).isEqualTo(new Document("$ifNull", List.of("$steps", List.of())));
+        // Clés envoyées exclues des enregistrements stockés ; un seul envoi par clé (le dernier)
+        Document in = (Document) ((List<?>) ((Document) filter.get("cond")).get("$not")).get(0);
+        assertThat(((List<?>) in.get("$in")).get(1))
+                .isEqualTo(new Document("$literal", List.of("2026-10-01 08:00:00|2026-10-01 08:10:00")));
+        assertThat(concat.get(1)).isEqualTo(new Document("$literal", List.of(resent)));
+    }
+
+    @Test
+    void partialUploadOverwritesAggregatesWithFullDayValues() {
+        // Envoi filtré par watermark : seulement les nouveaux enregistrements, agrégats de la journée entière
+        Document partialDay = new Document("totalSteps", 9800)
+                .append("maxHeartRate", 142)
+                .append("minHeartRate", null)
+                .append("heartRate", List.of(new Document("startTime", "2026-10-01 18:00:00")
+                        .append("endTime", "2026-10-01 18:05:00")));
+
+        Document set = set(DayMerge.update(partialDay));
+
+        assertThat(set.get("totalSteps")).isEqualTo(new Document("$literal", 9800));
+        assertThat(set.get("maxHeartRate")).isEqualTo(new Document("$literal", 142));
+        // Agrégat omis : la valeur stockée est conservée
+        assertThat(set).doesNotContainKey("minHeartRate");
+    }
+
+    @Test
+    void mergesDuplicateDaysByTimeKeyWithLatestWinning() {
+        Document older = new Document("_id", "a")
+                .append("totalSteps", 100)
+                .append("stressLevel", "Faible")
+                .append("oxygenSaturation", new ArrayList<>(List.of(
+                        new Document("time", "2026-10-01 08:00:00").append("percentage", 97.0),
+                        new Document("time", "2026-10-01 09:00:00").append("percentage", 98.0))));
+        Document newer = new Document("_id", "b")
+                .append("totalSteps", 250)
+                .append("stressLevel", null)
+                .append("oxygenSaturation", new ArrayList<>(List.of(
+                        new Document("time", "2026-10-01 09:00:00").append("percentage", 95.0))));
+
+        Document merged = DayMerge.merge(List.of(older, newer));
+
+        assertThat(merged.get("_id")).isEqualTo("b");
+        assertThat(merged.get("totalSteps")).isEqualTo(250);
+        assertThat(merged.get("stressLevel")).isEqualTo("Faible");
+        assertThat(merged.getList("oxygenSaturation", Document.class))
+                .extracting(record -> record.get("percentage"))
+                .containsExactly(97.0, 95.0);
+    }
+
+    private static Document set(AggregationUpdate update) {
+        List<Document> pipeline = update.toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertThat(pipeline).hasSize(1);
+        return (Document) pipeline.get(0).get("$set");
+    }
+}
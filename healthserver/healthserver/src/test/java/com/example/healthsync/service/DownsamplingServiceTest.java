@@ -0,0 +1,75 @@
+package com.example.healthsync.service;
+
+import com.example.healthsync.model.SeriesMetric;
+import com.example.healthsync.model.SeriesPoint;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DownsamplingServiceTest {
+
+    @Test
+    void keepsEverySampleUnderThreshold() {
+        List<SeriesPoint> series = DownsamplingService.largestTriangleThreeBuckets(
+                new long[]{0, 1000, 2000}, new double[]{60, 61, 62}, 10);
+
+        assertThat(series).extracting(SeriesPoint::getValue).containsExactly(60.0, 61.0, 62.0);
+        assertThat(series).allSatisfy(point -> {
+            assertThat(point.getMin()).isEqualTo(point.getValue());
+            assertThat(point.getMax()).isEqualTo(point.getValue());
+            assertThat(point.getCount()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void returnsThresholdPointsKeepingFirstAndLast() {
+        int n = 10_000;
+        long[] x = new long[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i * 1000L;
+            y[i] = 70 + 10 * Math.sin(i / 100.0);
+        }
+
+        List<SeriesPoint> series = DownsamplingService.largestTriangleThreeBuckets(x, y, 200);
+
+        assertThat(series).hasSize(200);
+        assertThat(series.get(0).getTime()).isEqualTo(Instant.ofEpochMilli(x[0]));
+        assertThat(series.get(199).getTime()).isEqualTo(Instant.ofEpochMilli(x[n - 1]));
+        assertThat(series).extracting(SeriesPoint::getTime).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void keepsIsolatedPeaks() {
+        int n = 3600;
+        long[] x = new long[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i * 1000L;
+            y[i] = 65;
+        }
+        y[1234] = 180;
+        y[2500] = 40;
+
+        List<SeriesPoint> series = DownsamplingService.largestTriangleThreeBuckets(x, y, 50);
+
+        assertThat(series).extracting(SeriesPoint::getValue).contains(180.0, 40.0);
+    }
+
+    @Test
+    void rejectsThresholdOutOfRangeBeforeReadingSamples() {
+        DownsamplingService service = new DownsamplingService(null, null);
+        Instant from = Instant.parse("2026-10-01T00:00:00Z");
+
+        assertThatThrownBy(() -> service.lttb("u1", SeriesMetric.BPM, from, from.plus(Duration.ofDays(1)), 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.lttb("u1", SeriesMetric.BPM, from, from.plus(Duration.ofDays(1)),
+                DownsamplingService.MAX_POINTS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.healthapp.shared.util;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Locale;
+
+/**
+ * AdaptivePasswordEncoder - Password hashing with a configurable algorithm and work factor
+ * ✅ New hashes use the configured algorithm: BCrypt (strength) or Argon2id (memory, iterations, parallelism)
+ * ✅ Existing hashes are verified with the algorithm and parameters they were created with
+ * ✅ upgradeEncoding() is true when a hash does not match the current settings, so callers can rehash on login
+ *
+ * Unlike DelegatingPasswordEncoder, hashes are stored without a "{id}" prefix: BCrypt ($2a$...) and
+ * Argon2 ($argon2id$...) hashes already identify themselves, and existing unprefixed hashes stay valid
+ * in every service that reads the same users collection.
+ */
+public class AdaptivePasswordEncoder implements PasswordEncoder {
+
+    private static final String BCRYPT_PREFIX = "$2";
+    private static final String ARGON2ID_PREFIX = "$argon2id$";
+
+    // Argon2id salt and output lengths (Spring Security defaults)
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+
+    public enum Algorithm {
+        BCRYPT, ARGON2ID;
+
+        public static Algorithm from(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace("-", ""));
+        }
+    }
+
+    /**
+     * Work factors for new hashes
+     *
+     * @param bcryptStrength    log2 of BCrypt rounds (4 - 31)
+     * @param argon2MemoryKib   Argon2id memory cost in KiB
+     * @param argon2Iterations  Argon2id time cost
+     * @param argon2Parallelism Argon2id lanes
+     */
+    public record Settings(Algorithm algorithm, int bcryptStrength,
+                           int argon2MemoryKib, int argon2Iterations, int argon2Parallelism) {
+
+        public static Settings bcrypt(int strength) {
+            return new Settings(Algorithm.BCRYPT, strength, 0, 0, 0);
+        }
+
+        public static Settings argon2id(int memoryKib, int iterations, int parallelism) {
+            return new Settings(Algorithm.ARGON2ID, 0, memoryKib, iterations, parallelism);
+        }
+
+        @Override
+        public String toString() {
+            return algorithm == Algorithm.BCRYPT
+                    ? "bcrypt(strength=" + bcryptStrength + ")"
+                    : "argon2id(m=" + argon2MemoryKib + ",t=" + argon2Iterations + ",p=" + argon2Parallelism + ")";
+        }
+    }
+
+    private final Settings settings;
+    private final PasswordEncoder encoder;
+
+    // Verifiers read the parameters from the hash itself, the configured ones only apply to encode()
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+    private final Argon2PasswordEncoder argon2 = Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8();
+
+    public AdaptivePasswordEncoder(Settings settings) {
+        this.settings = settings;
+        this.encoder = settings.algorithm() == Algorithm.BCRYPT
+                ? new BCryptPasswordEncoder(settings.bcryptStrength())
+                : new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH,
+                        settings.argon2Parallelism(), settings.argon2MemoryKib(), settings.argon2Iterations());
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        if (encodedPassword.startsWith(ARGON2ID_PREFIX)) {
+            return argon2.matches(rawPassword, encodedPassword);
+        }
+        if (encodedPassword.startsWith(BCRYPT_PREFIX)) {
+            return bcrypt.matches(rawPassword, encodedPassword);
+        }
+        return false;
+    }
+
+    /**
+     * True when the hash was made with another algorithm or other work factors than the current settings
+     * (stronger or weaker: lowering the cost is also applied on the next login)
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        if (encodedPassword.startsWith(ARGON2ID_PREFIX)) {
+            return settings.algorithm() != Algorithm.ARGON2ID || !argon2ParametersMatch(encodedPassword);
+        }
+        if (encodedPassword.startsWith(BCRYPT_PREFIX)) {
+            return settings.algorithm() != Algorithm.BCRYPT || bcryptStrength(encodedPassword) != settings.bcryptStrength();
+        }
+        return false;
+    }
+
+    /**
+     * "$2a$10$..." : strength is the two digits after the version
+     */
+    private static int bcryptStrength(String hash) {
+        int start = hash.indexOf('$', 1) + 1;
+        try {
+            return Integer.parseInt(hash.substring(start, start + 2));
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * "$argon2id$v=19$m=19456,t=2,p=1$salt$hash"
+     */
+    private boolean argon2ParametersMatch(String hash) {
+        String[] parts = hash.split("\\$");
+        if (parts.length < 4) {
+            return false;
+        }
+        String expected = "m=" + settings.argon2MemoryKib()
+                + ",t=" + settings.argon2Iterations()
+                + ",p=" + settings.argon2Parallelism();
+        return expected.equals(parts[3]);
+    }
+}
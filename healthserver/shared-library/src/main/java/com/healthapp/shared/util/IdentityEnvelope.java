@@ -0,0 +1,124 @@
+package com.healthapp.shared.util;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * IdentityEnvelope - Caller identity signed by the API Gateway for downstream services
+ * ✅ The gateway verifies the JWT once, then forwards id, email, roles and expiry in X-Auth-Identity
+ * ✅ Downstream filters check one HMAC-SHA256 instead of parsing the JWT again
+ * ✅ Forged or edited envelopes are rejected; plain X-User-* headers are never trusted
+ *
+ * Format: base64url(userId \n email \n role,role \n expEpochSeconds) "." base64url(hmac)
+ * Create one instance per secret (app.identity.secret) and share it.
+ */
+public class IdentityEnvelope {
+
+    public static final String HEADER = "X-Auth-Identity";
+
+    // Headers a client must never set itself: removed by the gateway before forwarding
+    public static final List<String> IDENTITY_HEADERS = List.of(HEADER, "X-User-Id", "X-User-Email", "X-User-Roles");
+
+    // Role of service-to-service calls (never present in user JWTs)
+    public static final String SERVICE_ROLE = "SERVICE";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public IdentityEnvelope(String secret) {
+        if (secret == null || secret.length() < 32) {
+            throw new IllegalArgumentException("app.identity.secret must be at least 32 characters");
+        }
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Envelope for a verified token, valid until the token expires and at most maxAgeSeconds
+     */
+    public String sign(VerifiedToken token, long maxAgeSeconds) {
+        long expiresAt = Instant.now().getEpochSecond() + maxAgeSeconds;
+        if (token.getExpiresAt() != null) {
+            expiresAt = Math.min(expiresAt, token.getExpiresAt().getEpochSecond());
+        }
+        String email = token.getEmail() != null ? token.getEmail() : token.getSubject();
+        String roles = String.join(",", token.getRoles());
+        if (hasSeparator(token.getUserId()) || hasSeparator(email) || roles.indexOf('\n') >= 0
+                || token.getRoles().stream().anyMatch(role -> role.indexOf(',') >= 0)) {
+            throw new IllegalArgumentException("Identity contains a reserved character");
+        }
+
+        String payload = ENCODER.encodeToString(
+                (token.getUserId() + '\n' + email + '\n' + roles + '\n' + expiresAt).getBytes(StandardCharsets.UTF_8));
+        return payload + '.' + ENCODER.encodeToString(mac(payload));
+    }
+
+    /**
+     * Envelope identifying a backend service itself (e.g. cache invalidation events sent to the gateway)
+     */
+    public String signService(String serviceName, long maxAgeSeconds) {
+        VerifiedToken service = new VerifiedToken(serviceName, serviceName, serviceName,
+                List.of(SERVICE_ROLE), List.of("ROLE_" + SERVICE_ROLE), null);
+        return sign(service, maxAgeSeconds);
+    }
+
+    /**
+     * Check signature and expiry
+     * @throws IllegalArgumentException if the envelope is malformed, forged or expired
+     */
+    public VerifiedToken verify(String envelope) {
+        int dot = envelope == null ? -1 : envelope.indexOf('.');
+        if (dot <= 0) {
+            throw new IllegalArgumentException("Malformed identity envelope");
+        }
+        String payload = envelope.substring(0, dot);
+        byte[] signature = DECODER.decode(envelope.substring(dot + 1));
+        if (!MessageDigest.isEqual(mac(payload), signature)) {
+            throw new IllegalArgumentException("Invalid identity envelope signature");
+        }
+
+        String[] fields = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\n", -1);
+        if (fields.length != 4) {
+            throw new IllegalArgumentException("Malformed identity envelope");
+        }
+        Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[3]));
+        if (!expiresAt.isAfter(Instant.now())) {
+            throw new IllegalArgumentException("Identity envelope expired");
+        }
+
+        List<String> roles = fields[2].isEmpty() ? List.of() : Arrays.asList(fields[2].split(","));
+        List<String> authorities = roles.stream()
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .toList();
+        return new VerifiedToken(fields[1], fields[0], fields[1], List.copyOf(roles), authorities, expiresAt);
+    }
+
+    private byte[] mac(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    private static boolean hasSeparator(String value) {
+        return value == null || value.indexOf('\n') >= 0;
+    }
+}
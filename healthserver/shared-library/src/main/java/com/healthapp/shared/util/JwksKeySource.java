@@ -0,0 +1,157 @@
+package com.healthapp.shared.util;
+
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.JwkSet;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * JwksKeySource - Public keys published by auth-service (GET /api/v1/auth/.well-known/jwks.json)
+ * ✅ Keys cached by kid, refreshed in the background once older than maxAge
+ * ✅ Unknown kid (key just rotated): refresh at most once per MIN_REFRESH_INTERVAL,
+ *    blocking in {@link #key} (servlet services), in the background in {@link #cachedKey} (gateway event loop)
+ * ✅ Endpoint down: the last known keys stay in use
+ */
+@Slf4j
+public class JwksKeySource {
+
+    private static final Duration MIN_REFRESH_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration TIMEOUT = Duration.ofSeconds(3);
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .build();
+    private final HttpRequest request;
+    private final long maxAgeNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    private volatile Map<String, Key> keys = Map.of();
+    private volatile long fetchedAt;
+    private volatile long attemptedAt;
+
+    public JwksKeySource(String jwksUri) {
+        this(jwksUri, Duration.ofMinutes(15));
+    }
+
+    public JwksKeySource(String jwksUri, Duration maxAge) {
+        this.request = HttpRequest.newBuilder(URI.create(jwksUri))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        this.maxAgeNanos = maxAge.toNanos();
+        this.fetchedAt = System.nanoTime() - maxAgeNanos;
+        this.attemptedAt = System.nanoTime() - MIN_REFRESH_INTERVAL.toNanos();
+    }
+
+    /**
+     * Public key for a kid, null if auth-service does not publish it
+     */
+    public Key key(String kid) {
+        Key key = keys.get(kid);
+        long now = System.nanoTime();
+        if (key != null) {
+            if (now - fetchedAt > maxAgeNanos) {
+                refreshAsync();
+            }
+            return key;
+        }
+        if (now - attemptedAt > MIN_REFRESH_INTERVAL.toNanos()) {
+            refresh();
+            key = keys.get(kid);
+        }
+        return key;
+    }
+
+    /**
+     * Public key for a kid, never blocks the calling thread (reactive callers).
+     * An unknown kid starts a background refresh and returns null: that token is rejected,
+     * the next ones signed with the new key are accepted once the refresh completes.
+     */
+    public Key cachedKey(String kid) {
+        Key key = keys.get(kid);
+        long now = System.nanoTime();
+        if (key != null ? now - fetchedAt > maxAgeNanos : now - attemptedAt > MIN_REFRESH_INTERVAL.toNanos()) {
+            refreshAsync();
+        }
+        return key;
+    }
+
+    /**
+     * Starts loading the keys in the background, so that the first tokens seen by
+     * {@link #cachedKey} are not rejected
+     */
+    public void prefetch() {
+        refreshAsync();
+    }
+
+    /**
+     * Blocking refresh (HTTP call up to TIMEOUT), serialized: a second caller waiting here reuses the result.
+     * Never called from {@link #cachedKey}.
+     */
+    private synchronized void refresh() {
+        if (System.nanoTime() - attemptedAt <= MIN_REFRESH_INTERVAL.toNanos()) {
+            return;
+        }
+        attemptedAt = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            apply(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("JWKS refresh failed ({}): {}", request.uri(), e.getMessage());
+        }
+    }
+
+    /**
+     * Refresh without blocking the caller; a refresh already running is not duplicated
+     */
+    private void refreshAsync() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        attemptedAt = System.nanoTime();
+        http.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    try {
+                        if (error != null) {
+                            log.warn("JWKS refresh failed ({}): {}", request.uri(), error.getMessage());
+                        } else {
+                            apply(response);
+                        }
+                    } catch (Exception e) {
+                        log.warn("JWKS refresh failed ({}): {}", request.uri(), e.getMessage());
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+    }
+
+    private void apply(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        JwkSet set = Jwks.setParser().build().parse(response.body());
+        Map<String, Key> parsed = new HashMap<>();
+        for (Jwk<?> jwk : set) {
+            if (jwk instanceof PublicJwk<?> publicJwk && jwk.getId() != null) {
+                parsed.put(jwk.getId(), publicJwk.toKey());
+            }
+        }
+        keys = Map.copyOf(parsed);
+        fetchedAt = System.nanoTime();
+        log.debug("JWKS refreshed: {} keys", parsed.size());
+    }
+}
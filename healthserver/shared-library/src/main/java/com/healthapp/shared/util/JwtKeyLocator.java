@@ -0,0 +1,50 @@
+package com.healthapp.shared.util;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.util.function.Function;
+
+/**
+ * JwtKeyLocator - Picks the verification key from the token header
+ * ✅ RS256 / EdDSA tokens: public key looked up by "kid" (JWKS, key ring...)
+ * ✅ HS* tokens: shared HMAC secret, only while the legacy HMAC mode is enabled
+ */
+public class JwtKeyLocator extends LocatorAdapter<Key> {
+
+    private final Function<String, ? extends Key> publicKeys;
+    private final SecretKey hmacKey;
+
+    /**
+     * @param publicKeys public key for a kid, null if unknown
+     * @param hmacKey legacy HMAC secret, null to reject HS* tokens
+     */
+    public JwtKeyLocator(Function<String, ? extends Key> publicKeys, SecretKey hmacKey) {
+        this.publicKeys = publicKeys;
+        this.hmacKey = hmacKey;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String algorithm = header.getAlgorithm();
+        if (algorithm != null && algorithm.startsWith("HS")) {
+            if (hmacKey == null) {
+                throw new UnsupportedJwtException("HMAC signed tokens are disabled");
+            }
+            return hmacKey;
+        }
+
+        String kid = header.getKeyId();
+        if (kid == null || publicKeys == null) {
+            throw new UnsupportedJwtException("JWT without key id (kid)");
+        }
+        Key key = publicKeys.apply(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT key id: " + kid);
+        }
+        return key;
+    }
+}
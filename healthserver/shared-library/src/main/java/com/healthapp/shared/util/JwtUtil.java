@@ -12,14 +12,19 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * JwtUtil - Shared JWT utility for all microservices
  * ✅ Compatible with JJWT 0.12.3
+ * ✅ Verification goes through one cached JwtVerifier per secret
+ *    (service filters should hold their own JwtVerifier and call verify() once per request)
  */
 @Slf4j
 public class JwtUtil {
 
+    private static final Map<String, JwtVerifier> VERIFIERS = new ConcurrentHashMap<>();
+
     /**
      * Create SecretKey from string secret
      */
@@ -27,17 +32,19 @@ public class JwtUtil {
         return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Cached verifier (key + parser) for this secret
+     */
+    public static JwtVerifier verifier(String secret) {
+        return VERIFIERS.computeIfAbsent(secret, JwtVerifier::new);
+    }
+
     /**
      * Extract all claims from a JWT token
      * ✅ FIXED: Uses .parser() instead of .parserBuilder() for JJWT 0.12.3
      */
     public static Claims extractAllClaims(String token, String secret) {
-        SecretKey key = getSigningKey(secret);
-        return Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return verifier(secret).claims(token);
     }
 
     /**
@@ -59,31 +66,14 @@ public class JwtUtil {
      * ✅ CORRECTION : Essaie "userId" puis "user_id" pour compatibilité
      */
     public static String extractUserId(String token, String secret) {
-        Claims claims = extractAllClaims(token, secret);
-        
-        // Essayer d'abord "userId" (camelCase)
-        String userId = claims.get("userId", String.class);
-        if (userId != null) {
-            return userId;
-        }
-        
-        // Sinon essayer "user_id" (snake_case)
-        userId = claims.get("user_id", String.class);
-        if (userId != null) {
-            return userId;
-        }
-        
-        // Si aucun des deux, retourner le subject
-        log.warn("⚠️ No userId found in token, using subject as fallback");
-        return claims.getSubject();
+        return verifier(secret).verify(token).getUserId();
     }
 
     /**
      * Extract roles from token
      */
-    @SuppressWarnings("unchecked")
     public static List<String> extractRoles(String token, String secret) {
-        return extractAllClaims(token, secret).get("roles", List.class);
+        return verifier(secret).verify(token).getRoles();
     }
 
     /**
@@ -105,8 +95,8 @@ public class JwtUtil {
      */
     public static boolean isTokenValid(String token, String username, String secret) {
         try {
-            final String extractedUsername = extractUsername(token, secret);
-            return extractedUsername.equals(username) && !isTokenExpired(token, secret);
+            // Expiration already enforced by the parser
+            return verifier(secret).verify(token).getSubject().equals(username);
         } catch (Exception e) {
             log.error("❌ Token validation failed: {}", e.getMessage());
             return false;
@@ -118,8 +108,9 @@ public class JwtUtil {
      */
     public static boolean validateToken(String token, String secret) {
         try {
+            // Single parse: an expired token is rejected by the parser
             extractAllClaims(token, secret);
-            return !isTokenExpired(token, secret);
+            return true;
         } catch (Exception e) {
             log.error("❌ Token validation failed: {}", e.getMessage());
             return false;
@@ -0,0 +1,140 @@
+package com.healthapp.shared.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+
+/**
+ * JwtVerifier - Reusable JWT verification for service filters
+ * ✅ Signing key and JwtParser built once (a JJWT parser is immutable and thread-safe)
+ * ✅ One parse per token: signature + expiration checked, claims read into a VerifiedToken
+ * ✅ Optional VerifiedTokenCache: a token seen before is not parsed again until it expires
+ * ✅ RS256 / EdDSA tokens verified with the auth-service JWKS (see {@link #create})
+ *
+ * Create one instance per secret (e.g. in @PostConstruct) and share it.
+ */
+public class JwtVerifier {
+
+    private final JwtParser parser;
+    private final VerifiedTokenCache cache;
+
+    public JwtVerifier(String secret) {
+        this(secret, null);
+    }
+
+    public JwtVerifier(SecretKey key) {
+        this(key, null);
+    }
+
+    /**
+     * @param cache verified tokens cache, null to parse every token
+     */
+    public JwtVerifier(String secret, VerifiedTokenCache cache) {
+        this(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), cache);
+    }
+
+    public JwtVerifier(SecretKey key, VerifiedTokenCache cache) {
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.cache = cache;
+    }
+
+    /**
+     * Verification key chosen per token (kid / algorithm), e.g. a {@link JwtKeyLocator}
+     */
+    public JwtVerifier(Locator<Key> keyLocator, VerifiedTokenCache cache) {
+        this.parser = Jwts.parser()
+                .keyLocator(keyLocator)
+                .build();
+        this.cache = cache;
+    }
+
+    /**
+     * Verifier built from the service configuration, for servlet services
+     * (an unknown kid refreshes the JWKS on the request thread)
+     * @param secret shared HMAC secret (app.jwt.secret)
+     * @param hmacEnabled accept HS* tokens signed with the secret (legacy mode, doctor tokens)
+     * @param jwksUri auth-service JWKS endpoint, empty for HMAC only
+     * @param cache verified tokens cache, null to parse every token
+     */
+    public static JwtVerifier create(String secret, boolean hmacEnabled, String jwksUri, VerifiedTokenCache cache) {
+        return create(secret, hmacEnabled, jwksUri, cache, false);
+    }
+
+    /**
+     * Verifier built from the service configuration
+     * @param nonBlocking never block in verify() (reactive callers, e.g. the gateway event loop):
+     *                    JWKS loaded in the background, a token with a not yet known kid is rejected
+     * @see #create(String, boolean, String, VerifiedTokenCache)
+     */
+    public static JwtVerifier create(String secret, boolean hmacEnabled, String jwksUri, VerifiedTokenCache cache,
+                                     boolean nonBlocking) {
+        SecretKey hmacKey = hmacEnabled ? Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)) : null;
+        if (jwksUri == null || jwksUri.isBlank()) {
+            if (hmacKey == null) {
+                throw new IllegalStateException("app.jwt.jwks-uri is required when app.jwt.hmac.enabled=false");
+            }
+            return new JwtVerifier(hmacKey, cache);
+        }
+        JwksKeySource jwks = new JwksKeySource(jwksUri);
+        if (nonBlocking) {
+            jwks.prefetch();
+            return new JwtVerifier(new JwtKeyLocator(jwks::cachedKey, hmacKey), cache);
+        }
+        return new JwtVerifier(new JwtKeyLocator(jwks::key, hmacKey), cache);
+    }
+
+    /**
+     * Verify signature and expiration, then extract subject, userId, email, roles and expiry
+     * @throws JwtException if the token is invalid, tampered or expired
+     * @throws IllegalArgumentException if the token is null or empty
+     */
+    public VerifiedToken verify(String token) {
+        if (cache == null) {
+            return VerifiedToken.from(claims(token));
+        }
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT token is empty");
+        }
+        VerifiedToken verified = cache.get(token);
+        if (verified == null) {
+            verified = VerifiedToken.from(claims(token));
+            cache.put(token, verified);
+        }
+        return verified;
+    }
+
+    /**
+     * Forget a token (e.g. logout); no-op without cache
+     */
+    public void invalidate(String token) {
+        if (cache != null) {
+            cache.invalidate(token);
+        }
+    }
+
+    /**
+     * Forget every cached token of a user; no-op without cache
+     */
+    public void invalidateUser(String userId) {
+        if (cache != null) {
+            cache.invalidateUser(userId);
+        }
+    }
+
+    /**
+     * Verified raw claims, for callers that need a custom claim
+     * @throws JwtException if the token is invalid, tampered or expired
+     */
+    public Claims claims(String token) {
+        return parser.parseSignedClaims(token).getPayload();
+    }
+}
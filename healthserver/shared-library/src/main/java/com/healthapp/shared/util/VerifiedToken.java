@@ -0,0 +1,55 @@
+package com.healthapp.shared.util;
+
+import io.jsonwebtoken.Claims;
+import lombok.Value;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * VerifiedToken - Immutable view of a JWT already verified by JwtVerifier
+ */
+@Value
+public class VerifiedToken {
+
+    String subject;
+    String userId;
+    String email;
+    List<String> roles;
+    List<String> authorities;   // roles with the Spring Security "ROLE_" prefix
+    Instant expiresAt;
+
+    /**
+     * ✅ userId: "userId" (shared JwtUtil / doctor-service) then "user_id" (auth-service), else the subject
+     * ✅ email: "email" claim, else the subject
+     */
+    static VerifiedToken from(Claims claims) {
+        String subject = claims.getSubject();
+
+        String userId = claims.get("userId", String.class);
+        if (userId == null) {
+            userId = claims.get("user_id", String.class);
+        }
+        if (userId == null) {
+            userId = subject;
+        }
+
+        String email = claims.get("email", String.class);
+        if (email == null) {
+            email = subject;
+        }
+
+        List<?> rawRoles = claims.get("roles", List.class);
+        List<String> roles = rawRoles == null
+                ? List.of()
+                : rawRoles.stream().map(String::valueOf).toList();
+
+        List<String> authorities = roles.stream()
+                .map(role -> role.startsWith("ROLE_") ? role : "ROLE_" + role)
+                .toList();
+
+        Instant expiresAt = claims.getExpiration() == null ? null : claims.getExpiration().toInstant();
+
+        return new VerifiedToken(subject, userId, email, roles, authorities, expiresAt);
+    }
+}
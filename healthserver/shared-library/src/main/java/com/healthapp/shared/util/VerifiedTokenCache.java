@@ -0,0 +1,84 @@
+package com.healthapp.shared.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * VerifiedTokenCache - Bounded LRU cache of tokens already verified by JwtVerifier
+ * ✅ Mobile clients send the same bearer token on every request until it expires:
+ *    the HMAC check and JSON parse happen once per token instead of once per request
+ * ✅ Keyed by the SHA-256 of the token (bearer tokens are not kept in memory)
+ * ✅ An entry is never served after the token's "exp"
+ * ✅ Explicit invalidation by token or by user
+ */
+public class VerifiedTokenCache {
+
+    private final Map<ByteBuffer, VerifiedToken> entries;
+
+    public VerifiedTokenCache(int maxEntries) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, VerifiedToken> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Cached token, or null if absent or expired
+     */
+    public VerifiedToken get(String token) {
+        ByteBuffer key = key(token);
+        VerifiedToken verified = entries.get(key);
+        if (verified != null && !verified.getExpiresAt().isAfter(Instant.now())) {
+            entries.remove(key);
+            return null;
+        }
+        return verified;
+    }
+
+    /**
+     * Tokens without "exp" are not cached
+     */
+    public void put(String token, VerifiedToken verified) {
+        if (verified.getExpiresAt() != null) {
+            entries.put(key(token), verified);
+        }
+    }
+
+    public void invalidate(String token) {
+        entries.remove(key(token));
+    }
+
+    /**
+     * Drop every cached token of a user (logout, role change, account disabled)
+     */
+    public void invalidateUser(String userId) {
+        synchronized (entries) {
+            entries.values().removeIf(verified -> userId.equals(verified.getUserId()));
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static ByteBuffer key(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
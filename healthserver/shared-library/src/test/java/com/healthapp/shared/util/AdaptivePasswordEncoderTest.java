@@ -0,0 +1,71 @@
+package com.healthapp.shared.util;
+
+import com.healthapp.shared.util.AdaptivePasswordEncoder.Algorithm;
+import com.healthapp.shared.util.AdaptivePasswordEncoder.Settings;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptivePasswordEncoderTest {
+
+    // Minimal costs: only the parameters encoded in the hash matter here
+    private final AdaptivePasswordEncoder bcrypt4 = new AdaptivePasswordEncoder(Settings.bcrypt(4));
+    private final AdaptivePasswordEncoder bcrypt5 = new AdaptivePasswordEncoder(Settings.bcrypt(5));
+    private final AdaptivePasswordEncoder argon2 = new AdaptivePasswordEncoder(Settings.argon2id(1024, 1, 1));
+
+    @Test
+    void matchesHashesOfEitherAlgorithm() {
+        String bcryptHash = bcrypt4.encode("secret");
+        String argon2Hash = argon2.encode("secret");
+
+        assertThat(bcryptHash).startsWith("$2a$04$");
+        assertThat(argon2Hash).startsWith("$argon2id$").contains("m=1024,t=1,p=1");
+        assertThat(argon2.matches("secret", bcryptHash)).isTrue();
+        assertThat(bcrypt4.matches("secret", argon2Hash)).isTrue();
+        assertThat(bcrypt4.matches("wrong", bcryptHash)).isFalse();
+        assertThat(bcrypt4.matches("wrong", argon2Hash)).isFalse();
+    }
+
+    @Test
+    void keepsHashMadeWithCurrentSettings() {
+        assertThat(bcrypt4.upgradeEncoding(bcrypt4.encode("secret"))).isFalse();
+        assertThat(argon2.upgradeEncoding(argon2.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void upgradesHashWithOtherBcryptStrength() {
+        String hash = bcrypt4.encode("secret");
+
+        assertThat(bcrypt5.upgradeEncoding(hash)).isTrue();
+        assertThat(bcrypt4.upgradeEncoding(bcrypt5.encode("secret"))).isTrue();
+    }
+
+    @Test
+    void upgradesHashWithOtherAlgorithm() {
+        assertThat(argon2.upgradeEncoding(bcrypt4.encode("secret"))).isTrue();
+        assertThat(bcrypt4.upgradeEncoding(argon2.encode("secret"))).isTrue();
+    }
+
+    @Test
+    void upgradesHashWithOtherArgon2Parameters() {
+        String hash = argon2.encode("secret");
+
+        assertThat(new AdaptivePasswordEncoder(Settings.argon2id(2048, 1, 1)).upgradeEncoding(hash)).isTrue();
+        assertThat(new AdaptivePasswordEncoder(Settings.argon2id(1024, 2, 1)).upgradeEncoding(hash)).isTrue();
+        assertThat(new AdaptivePasswordEncoder(Settings.argon2id(1024, 1, 2)).upgradeEncoding(hash)).isTrue();
+    }
+
+    @Test
+    void ignoresMissingOrUnknownHashes() {
+        assertThat(bcrypt4.upgradeEncoding(null)).isFalse();
+        assertThat(bcrypt4.upgradeEncoding("plain-text")).isFalse();
+        assertThat(bcrypt4.matches("plain-text", "plain-text")).isFalse();
+        assertThat(bcrypt4.matches("secret", null)).isFalse();
+    }
+
+    @Test
+    void parsesAlgorithmNames() {
+        assertThat(Algorithm.from("bcrypt")).isEqualTo(Algorithm.BCRYPT);
+        assertThat(Algorithm.from(" argon2-id ")).isEqualTo(Algorithm.ARGON2ID);
+    }
+}
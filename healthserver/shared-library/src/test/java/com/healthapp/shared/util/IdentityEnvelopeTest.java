@@ -0,0 +1,121 @@
+package com.healthapp.shared.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdentityEnvelopeTest {
+
+    private static final String SECRET = "test-identity-secret-0123456789abcdef";
+
+    private final IdentityEnvelope envelope = new IdentityEnvelope(SECRET);
+
+    @Test
+    void verifiesSignedIdentity() {
+        Instant tokenExpiry = Instant.now().plusSeconds(600);
+        String signed = envelope.sign(token("user-1", "a@example.com", List.of("USER", "DOCTOR"), tokenExpiry), 60);
+
+        VerifiedToken verified = envelope.verify(signed);
+
+        assertThat(verified.getUserId()).isEqualTo("user-1");
+        assertThat(verified.getEmail()).isEqualTo("a@example.com");
+        assertThat(verified.getSubject()).isEqualTo("a@example.com");
+        assertThat(verified.getRoles()).containsExactly("USER", "DOCTOR");
+        assertThat(verified.getAuthorities()).containsExactly("ROLE_USER", "ROLE_DOCTOR");
+        assertThat(verified.getExpiresAt()).isBefore(tokenExpiry).isAfter(Instant.now());
+    }
+
+    @Test
+    void neverOutlivesTheToken() {
+        Instant tokenExpiry = Instant.now().plusSeconds(30);
+        String signed = envelope.sign(token("user-1", "a@example.com", List.of("USER"), tokenExpiry), 3600);
+
+        assertThat(envelope.verify(signed).getExpiresAt().getEpochSecond()).isEqualTo(tokenExpiry.getEpochSecond());
+    }
+
+    @Test
+    void rejectsTamperedPayload() {
+        String signed = envelope.sign(token("user-1", "a@example.com", List.of("USER"), null), 60);
+        String signature = signed.substring(signed.indexOf('.') + 1);
+        long expiresAt = Instant.now().plusSeconds(60).getEpochSecond();
+        String forged = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                ("user-1\na@example.com\nADMIN\n" + expiresAt).getBytes(StandardCharsets.UTF_8));
+
+        assertThatThrownBy(() -> envelope.verify(forged + '.' + signature))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    void rejectsTamperedSignature() {
+        String signed = envelope.sign(token("user-1", "a@example.com", List.of("USER"), null), 60);
+        // First signature character: the last one partly carries padding bits only
+        int start = signed.indexOf('.') + 1;
+        String tampered = signed.substring(0, start) + (signed.charAt(start) == 'A' ? 'B' : 'A') + signed.substring(start + 1);
+
+        assertThatThrownBy(() -> envelope.verify(tampered))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    void rejectsEnvelopeSignedWithAnotherSecret() {
+        IdentityEnvelope other = new IdentityEnvelope("another-identity-secret-0123456789ab");
+        String signed = other.sign(token("user-1", "a@example.com", List.of("USER"), null), 60);
+
+        assertThatThrownBy(() -> envelope.verify(signed))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("signature");
+    }
+
+    @Test
+    void rejectsExpiredEnvelope() {
+        String signed = envelope.sign(token("user-1", "a@example.com", List.of("USER"), Instant.now().minusSeconds(1)), 60);
+
+        assertThatThrownBy(() -> envelope.verify(signed))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void rejectsMalformedEnvelope() {
+        assertThatThrownBy(() -> envelope.verify(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> envelope.verify("no-dot")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> envelope.verify(".signature")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsReservedCharactersInIdentity() {
+        assertThatThrownBy(() -> envelope.sign(token("user-1\nADMIN", "a@example.com", List.of("USER"), null), 60))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> envelope.sign(token("user-1", "a@example.com", List.of("USER,ADMIN"), null), 60))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void signsServiceIdentityWithServiceRole() {
+        VerifiedToken verified = envelope.verify(envelope.signService("auth-service", 60));
+
+        assertThat(verified.getUserId()).isEqualTo("auth-service");
+        assertThat(verified.getRoles()).containsExactly(IdentityEnvelope.SERVICE_ROLE);
+        assertThat(verified.getAuthorities()).containsExactly("ROLE_SERVICE");
+    }
+
+    @Test
+    void requiresLongSecret() {
+        assertThatThrownBy(() -> new IdentityEnvelope("too-short"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new IdentityEnvelope(null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static VerifiedToken token(String userId, String email, List<String> roles, Instant expiresAt) {
+        return new VerifiedToken(email, userId, email, roles, roles.stream().map(role -> "ROLE_" + role).toList(), expiresAt);
+    }
+}
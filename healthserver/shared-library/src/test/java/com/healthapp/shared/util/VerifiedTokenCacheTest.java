@@ -0,0 +1,83 @@
+package com.healthapp.shared.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(100);
+
+    @Test
+    void servesCachedTokenUntilExpiry() {
+        VerifiedToken token = token("user-1", Instant.now().plusSeconds(60));
+        cache.put("jwt-a", token);
+
+        assertThat(cache.get("jwt-a")).isSameAs(token);
+        assertThat(cache.get("jwt-b")).isNull();
+    }
+
+    @Test
+    void dropsExpiredEntryOnRead() {
+        cache.put("jwt-a", token("user-1", Instant.now().minusSeconds(1)));
+
+        assertThat(cache.get("jwt-a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void doesNotCacheTokensWithoutExpiry() {
+        cache.put("jwt-a", token("user-1", null));
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.get("jwt-a")).isNull();
+    }
+
+    @Test
+    void invalidatesSingleToken() {
+        cache.put("jwt-a", token("user-1", Instant.now().plusSeconds(60)));
+        cache.put("jwt-b", token("user-1", Instant.now().plusSeconds(60)));
+
+        cache.invalidate("jwt-a");
+
+        assertThat(cache.get("jwt-a")).isNull();
+        assertThat(cache.get("jwt-b")).isNotNull();
+    }
+
+    @Test
+    void invalidatesEveryTokenOfUser() {
+        cache.put("jwt-a", token("user-1", Instant.now().plusSeconds(60)));
+        cache.put("jwt-b", token("user-1", Instant.now().plusSeconds(60)));
+        cache.put("jwt-c", token("user-2", Instant.now().plusSeconds(60)));
+
+        cache.invalidateUser("user-1");
+
+        assertThat(cache.get("jwt-a")).isNull();
+        assertThat(cache.get("jwt-b")).isNull();
+        assertThat(cache.get("jwt-c")).isNotNull();
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedTokenBeyondCapacity() {
+        VerifiedTokenCache small = new VerifiedTokenCache(2);
+        small.put("jwt-a", token("user-1", Instant.now().plusSeconds(60)));
+        small.put("jwt-b", token("user-2", Instant.now().plusSeconds(60)));
+        small.get("jwt-a");
+
+        small.put("jwt-c", token("user-3", Instant.now().plusSeconds(60)));
+
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.get("jwt-b")).isNull();
+        assertThat(small.get("jwt-a")).isNotNull();
+        assertThat(small.get("jwt-c")).isNotNull();
+    }
+
+    private static VerifiedToken token(String userId, Instant expiresAt) {
+        return new VerifiedToken(userId + "@example.com", userId, userId + "@example.com",
+                List.of("USER"), List.of("ROLE_USER"), expiresAt);
+    }
+}
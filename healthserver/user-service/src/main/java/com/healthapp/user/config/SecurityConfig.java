@@ -1,7 +1,9 @@
 package com.healthapp.user.config;
 
 import com.healthapp.user.security.JwtAuthenticationFilter;
+import com.healthapp.shared.util.AdaptivePasswordEncoder;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -9,7 +11,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -22,6 +23,23 @@ import org.springframework.http.HttpMethod;
 public class SecurityConfig {
     
     private final JwtAuthenticationFilter jwtAuthFilter;
+    
+    // bcrypt | argon2id : mêmes réglages dans auth-service, user-service et doctor-activation-service
+    @Value("${app.auth.password-hashing.algorithm:bcrypt}")
+    private String hashingAlgorithm;
+    
+    @Value("${app.auth.password-hashing.bcrypt.strength:10}")
+    private int bcryptStrength;
+    
+    @Value("${app.auth.password-hashing.argon2.memory-kib:19456}")
+    private int argon2MemoryKib;
+    
+    @Value("${app.auth.password-hashing.argon2.iterations:2}")
+    private int argon2Iterations;
+    
+    @Value("${app.auth.password-hashing.argon2.parallelism:1}")
+    private int argon2Parallelism;
+    
  @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
@@ -48,8 +66,13 @@ public class SecurityConfig {
         return http.build();
     }
     
+    /**
+     * Vérifie les hashes BCrypt et Argon2id de la collection users (partagée avec auth-service, qui les met à jour)
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new AdaptivePasswordEncoder(new AdaptivePasswordEncoder.Settings(
+                AdaptivePasswordEncoder.Algorithm.from(hashingAlgorithm), bcryptStrength,
+                argon2MemoryKib, argon2Iterations, argon2Parallelism));
     }
 }
@@ -1,11 +1,15 @@
 package com.healthapp.user.security;
 
+import com.healthapp.shared.util.IdentityEnvelope;
+import com.healthapp.shared.util.VerifiedToken;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
@@ -17,7 +21,6 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collection;
-import java.util.List;
 import java.util.stream.Collectors;
 
 @Component
@@ -27,52 +30,57 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtService jwtService;
     
+    // Secret partagé avec la gateway (enveloppe X-Auth-Identity) , obligatoire (IDENTITY_SECRET)
+    @Value("${app.identity.secret}")
+    private String identitySecret;
+    
+    private IdentityEnvelope identityEnvelope;
+    
+    @PostConstruct
+    void init() {
+        identityEnvelope = new IdentityEnvelope(identitySecret);  // Refuse un secret vide ou trop court
+    }
+    
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
         
+        final String envelope = request.getHeader(IdentityEnvelope.HEADER);
         final String authHeader = request.getHeader("Authorization");
         
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (envelope == null && (authHeader == null || !authHeader.startsWith("Bearer "))) {
             filterChain.doFilter(request, response);
             return;
         }
         
         try {
-            final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
-            final String userId = jwtService.extractUserId(jwt);
-            
-            if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Identité signée par la gateway (une vérification HMAC), sinon JWT vérifié une fois (cache)
+                VerifiedToken token = envelope != null
+                        ? verifyEnvelope(envelope)
+                        : jwtService.verify(authHeader.substring(7));
+                
+                Collection<GrantedAuthority> authorities = token.getAuthorities().stream()
+                        .map(authority -> (GrantedAuthority) new SimpleGrantedAuthority(authority))
+                        .collect(Collectors.toList());
                 
-                if (jwtService.isTokenValid(jwt, userEmail)) {
-                    // Extract roles from JWT
-                    List<String> roles = jwtService.extractClaim(jwt, 
-                        claims -> claims.get("roles", List.class));
-                    
-                    // Cast to Collection<GrantedAuthority>
-                    Collection<GrantedAuthority> authorities = roles.stream()
-                            .map(role -> (GrantedAuthority) new SimpleGrantedAuthority("ROLE_" + role))
-                            .collect(Collectors.toList());
-                    
-                    CustomUserPrincipal userPrincipal = CustomUserPrincipal.builder()
-                            .id(userId)
-                            .email(userEmail)
-                            .authorities(authorities)
-                            .build();
-                    
-                    UsernamePasswordAuthenticationToken authToken = 
-                            new UsernamePasswordAuthenticationToken(
-                                    userPrincipal,
-                                    null,
-                                    authorities
-                            );
-                    
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                CustomUserPrincipal userPrincipal = CustomUserPrincipal.builder()
+                        .id(token.getUserId())
+                        .email(token.getSubject())
+                        .authorities(authorities)
+                        .build();
+                
+                UsernamePasswordAuthenticationToken authToken = 
+                        new UsernamePasswordAuthenticationToken(
+                                userPrincipal,
+                                null,
+                                authorities
+                        );
+                
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         } catch (Exception e) {
             log.error("Cannot set user authentication: {}", e.getMessage());
@@ -80,4 +88,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+    
+    private VerifiedToken verifyEnvelope(String envelope) {
+        return identityEnvelope.verify(envelope);
+    }
+}
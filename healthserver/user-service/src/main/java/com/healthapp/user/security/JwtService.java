@@ -1,8 +1,12 @@
 package com.healthapp.user.security;
 
+import com.healthapp.shared.util.JwtVerifier;
+import com.healthapp.shared.util.VerifiedToken;
+import com.healthapp.shared.util.VerifiedTokenCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -28,6 +32,35 @@ public class JwtService {
     @Value("${app.jwt.issuer}")
     private String issuer;
 
+    // Tokens déjà vérifiés gardés jusqu'à leur expiration (0 = pas de cache)
+    @Value("${app.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // JWKS d'auth-service (tokens RS256 / EdDSA) ; vide = HMAC seul
+    @Value("${app.jwt.jwks-uri:}")
+    private String jwksUri;
+
+    // Tokens HS* signés avec app.jwt.secret (mode historique, tokens médecins)
+    @Value("${app.jwt.hmac.enabled:true}")
+    private boolean hmacEnabled;
+
+    // Clé + parser construits une seule fois (JwtAuthenticationFilter)
+    private JwtVerifier jwtVerifier;
+
+    @PostConstruct
+    void init() {
+        jwtVerifier = JwtVerifier.create(secretKey, hmacEnabled, jwksUri,
+                cacheMaxEntries > 0 ? new VerifiedTokenCache(cacheMaxEntries) : null);
+    }
+
+    /**
+     * Vérifie signature + expiration (une seule fois par token grâce au cache)
+     * @throws JwtException si le token est invalide ou expiré
+     */
+    public VerifiedToken verify(String token) {
+        return jwtVerifier.verify(token);
+    }
+
     private SecretKey getSigningKey() {
         byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
         
@@ -70,11 +103,7 @@ public class JwtService {
                 log.debug("Token payload (unverified): {}", payload);
             }
             
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = jwtVerifier.claims(token);
                     
             log.debug("Token parsed successfully");
             return claims;
@@ -146,10 +175,7 @@ public class JwtService {
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
+            jwtVerifier.claims(token);
             log.debug("Token validation successful");
             return true;
         } catch (JwtException | IllegalArgumentException e) {
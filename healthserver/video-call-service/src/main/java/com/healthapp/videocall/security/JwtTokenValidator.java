@@ -1,7 +1,10 @@
 package com.healthapp.videocall.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.healthapp.shared.util.IdentityEnvelope;
+import com.healthapp.shared.util.JwtVerifier;
+import com.healthapp.shared.util.VerifiedToken;
+import com.healthapp.shared.util.VerifiedTokenCache;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,7 +19,6 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -32,6 +34,33 @@ public class JwtTokenValidator extends OncePerRequestFilter {
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
+    // Tokens déjà vérifiés gardés jusqu'à leur expiration (0 = pas de cache)
+    @Value("${app.jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    // JWKS d'auth-service (tokens RS256 / EdDSA) ; vide = HMAC seul
+    @Value("${app.jwt.jwks-uri:}")
+    private String jwksUri;
+
+    // Tokens HS* signés avec app.jwt.secret (mode historique, tokens médecins)
+    @Value("${app.jwt.hmac.enabled:true}")
+    private boolean hmacEnabled;
+
+    // Secret partagé avec la gateway (enveloppe X-Auth-Identity) , obligatoire (IDENTITY_SECRET)
+    @Value("${app.identity.secret}")
+    private String identitySecret;
+
+    // Clé + parser construits une seule fois
+    private JwtVerifier jwtVerifier;
+    private IdentityEnvelope identityEnvelope;
+
+    @PostConstruct
+    void init() {
+        jwtVerifier = JwtVerifier.create(jwtSecret, hmacEnabled, jwksUri,
+                cacheMaxEntries > 0 ? new VerifiedTokenCache(cacheMaxEntries) : null);
+        identityEnvelope = new IdentityEnvelope(identitySecret);  // Refuse un secret vide ou trop court
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -40,21 +69,27 @@ public class JwtTokenValidator extends OncePerRequestFilter {
         String path = request.getRequestURI();
         log.debug("🔍 Processing request to: {}", path);
 
-        // Check for API Gateway headers first
-        String userId = request.getHeader("X-User-Id");
-        String userEmail = request.getHeader("X-User-Email");
-        String rolesHeader = request.getHeader("X-User-Roles");
-
-        if (userId != null && userEmail != null) {
-            // Request came through API Gateway
-            log.info("✅ Gateway authentication: user={}, roles={}", userEmail, rolesHeader);
-            List<SimpleGrantedAuthority> authorities = parseRoles(rolesHeader);
-            UsernamePasswordAuthenticationToken authentication =
-                new UsernamePasswordAuthenticationToken(userEmail, null, authorities);
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        // Identité signée par la gateway : une vérification HMAC, pas de parse du JWT
+        String envelope = request.getHeader(IdentityEnvelope.HEADER);
+
+        if (envelope != null) {
+            try {
+                VerifiedToken identity = identityEnvelope.verify(envelope);
+                log.debug("✅ Gateway authentication: user={}, roles={}", identity.getEmail(), identity.getRoles());
+                List<SimpleGrantedAuthority> authorities = identity.getAuthorities().stream()
+                    .map(SimpleGrantedAuthority::new)
+                    .collect(Collectors.toList());
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(identity.getEmail(), null, authorities);
+                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (Exception e) {
+                log.warn("❌ Identity envelope rejected: {}", e.getMessage());
+                sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid identity envelope");
+                return;
+            }
         } else {
-            // Direct request - validate JWT token
+            // Direct request - validate JWT token (X-User-* headers alone are not trusted)
             String authHeader = request.getHeader("Authorization");
 
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -63,55 +98,33 @@ public class JwtTokenValidator extends OncePerRequestFilter {
 
                     log.debug("🔍 Validating JWT token...");
 
-                    if (validateToken(token)) {
-                        Claims claims = extractAllClaims(token);
-
-                        String email = claims.getSubject();
-
-                        // Extract userId
-                        String userIdFromToken = claims.get("userId", String.class);
-                        if (userIdFromToken == null) {
-                            userIdFromToken = claims.get("user_id", String.class);
-                        }
-
-                        // Extract roles
-                        @SuppressWarnings("unchecked")
-                        List<String> roles = claims.get("roles", List.class);
-
-                        if (roles == null || roles.isEmpty()) {
-                            log.warn("⚠️ No roles found in token for user: {}", email);
-                            roles = new ArrayList<>();
-                        }
-
-                        log.info("✅ Token validated: user={}, userId={}, roles={}",
-                                email, userIdFromToken, roles);
-
-                        // Convert roles to authorities with ROLE_ prefix
-                        List<SimpleGrantedAuthority> authorities = roles.stream()
-                            .map(role -> {
-                                if (role.startsWith("ROLE_")) {
-                                    return new SimpleGrantedAuthority(role);
-                                } else {
-                                    return new SimpleGrantedAuthority("ROLE_" + role);
-                                }
-                            })
-                            .collect(Collectors.toList());
-
-                        UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(email, null, authorities);
-
-                        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-
-                        log.info("✅ User {} authenticated with authorities: {}", email, authorities);
-                    } else {
-                        log.error("❌ JWT validation failed - invalid or expired token");
-                        sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED,
-                                "Invalid or expired token");
-                        return;
+                    // Signature + expiration vérifiées une fois par token (exception si invalide)
+                    VerifiedToken verified = jwtVerifier.verify(token);
+
+                    String email = verified.getSubject();
+                    List<String> roles = verified.getRoles();
+
+                    if (roles.isEmpty()) {
+                        log.warn("⚠️ No roles found in token for user: {}", email);
                     }
 
+                    log.info("✅ Token validated: user={}, userId={}, roles={}",
+                            email, verified.getUserId(), roles);
+
+                    // Authorities (préfixe ROLE_) calculées une fois par token
+                    List<SimpleGrantedAuthority> authorities = verified.getAuthorities().stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .collect(Collectors.toList());
+
+                    UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(email, null, authorities);
+
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+
+                    log.info("✅ User {} authenticated with authorities: {}", email, authorities);
+
                 } catch (Exception e) {
                     log.error("❌ JWT validation error: {}", e.getMessage(), e);
                     sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED,
@@ -126,33 +139,6 @@ public class JwtTokenValidator extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    /**
-     * Validate JWT token
-     */
-    private boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                .setSigningKey(jwtSecret.getBytes())
-                .build()
-                .parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            log.error("Token validation failed: {}", e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * Extract all claims from token
-     */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(jwtSecret.getBytes())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
     /**
      * Send JSON error response
      */
@@ -167,26 +153,6 @@ public class JwtTokenValidator extends OncePerRequestFilter {
         ));
     }
 
-    /**
-     * Parse roles from header
-     */
-    private List<SimpleGrantedAuthority> parseRoles(String rolesHeader) {
-        if (rolesHeader == null || rolesHeader.isEmpty()) {
-            return List.of();
-        }
-
-        return List.of(rolesHeader.replace("[", "").replace("]", "").split(","))
-                .stream()
-                .map(String::trim)
-                .map(role -> {
-                    if (!role.startsWith("ROLE_")) {
-                        return new SimpleGrantedAuthority("ROLE_" + role);
-                    }
-                    return new SimpleGrantedAuthority(role);
-                })
-                .collect(Collectors.toList());
-    }
-
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();